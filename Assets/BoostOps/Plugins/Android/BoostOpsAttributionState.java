@@ -0,0 +1,319 @@
+package com.boostops.unity;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Process-wide install attribution state shared by all BoostOps native plugins
+ *
+ * Filled once per process, either from the install referrer pipeline or from the
+ * persisted referrer snapshot, and then read from memory by every plugin. Each update
+ * publishes a new immutable Snapshot with a higher version, so Unity can fetch the
+ * state once per session and skip it when nothing has changed.
+ *
+ * The persisted snapshot is loaded on the io thread (prime()), never by a reader, and
+ * only replaces the empty state: a live referrer result always wins over it.
+ */
+public final class BoostOpsAttributionState {
+
+    private static final String TAG = "BoostOps-Attribution";
+
+    /**
+     * Immutable attribution values; null fields were not present in the referrer
+     */
+    public static final class Snapshot {
+        public final long version;
+        public final String rawReferrer;
+        public final String clickId;
+        public final String utmSource;
+        public final String utmMedium;
+        public final String utmCampaign;
+        public final String utmTerm;
+        public final String utmContent;
+        public final String campaignId;
+        public final String sourceAppId;
+        public final String boostReferrer;
+        public final String sourceStoreId;
+        public final String sourceProjectId;
+        public final String targetStoreId;
+        public final String targetProjectId;
+        public final long clickTimestamp;
+        public final long installTimestamp;
+
+        private Snapshot(long version, String[] values, long clickTimestamp, long installTimestamp) {
+            this.version = version;
+            this.rawReferrer = values[RAW_REFERRER];
+            this.clickId = values[CLICK_ID];
+            this.utmSource = values[UTM_SOURCE];
+            this.utmMedium = values[UTM_MEDIUM];
+            this.utmCampaign = values[UTM_CAMPAIGN];
+            this.utmTerm = values[UTM_TERM];
+            this.utmContent = values[UTM_CONTENT];
+            this.campaignId = values[CAMPAIGN_ID];
+            this.sourceAppId = values[SOURCE_APP_ID];
+            this.boostReferrer = values[BOOST_REFERRER];
+            this.sourceStoreId = values[SOURCE_STORE_ID];
+            this.sourceProjectId = values[SOURCE_PROJECT_ID];
+            this.targetStoreId = values[TARGET_STORE_ID];
+            this.targetProjectId = values[TARGET_PROJECT_ID];
+            this.clickTimestamp = clickTimestamp;
+            this.installTimestamp = installTimestamp;
+        }
+
+        public boolean isAvailable() {
+            return version > 0;
+        }
+
+        /**
+         * Encode as one JSON object including the version
+         */
+        public String toJson() {
+            BoostOpsJsonWriter writer = BoostOpsJsonWriter.obtain()
+                .beginObject()
+                .field("version", version)
+                .field("available", isAvailable());
+            String[] values = {
+                rawReferrer, clickId, utmSource, utmMedium, utmCampaign, utmTerm, utmContent,
+                campaignId, sourceAppId, boostReferrer, sourceStoreId, sourceProjectId,
+                targetStoreId, targetProjectId
+            };
+            for (int i = 0; i < FIELD_NAMES.length; i++) {
+                writer.field(FIELD_NAMES[i], values[i]);
+            }
+            return writer
+                .field("click_timestamp", clickTimestamp)
+                .field("install_timestamp", installTimestamp)
+                .endObject()
+                .toString();
+        }
+    }
+
+    // Value slots, in the order of FIELD_NAMES (referrer payload keys)
+    private static final int RAW_REFERRER = 0;
+    private static final int CLICK_ID = 1;
+    private static final int UTM_SOURCE = 2;
+    private static final int UTM_MEDIUM = 3;
+    private static final int UTM_CAMPAIGN = 4;
+    private static final int UTM_TERM = 5;
+    private static final int UTM_CONTENT = 6;
+    private static final int CAMPAIGN_ID = 7;
+    private static final int SOURCE_APP_ID = 8;
+    private static final int BOOST_REFERRER = 9;
+    private static final int SOURCE_STORE_ID = 10;
+    private static final int SOURCE_PROJECT_ID = 11;
+    private static final int TARGET_STORE_ID = 12;
+    private static final int TARGET_PROJECT_ID = 13;
+
+    private static final String[] FIELD_NAMES = {
+        "raw_referrer",
+        "click_id",
+        "utm_source",
+        "utm_medium",
+        "utm_campaign",
+        "utm_term",
+        "utm_content",
+        "campaign_id",
+        "source_app_id",
+        "boost_referrer",
+        "source_store_id",
+        "source_project_id",
+        "target_store_id",
+        "target_project_id"
+    };
+
+    private static final Snapshot EMPTY = new Snapshot(0, new String[FIELD_NAMES.length], 0, 0);
+
+    private static final AtomicReference<Snapshot> state = new AtomicReference<>(EMPTY);
+    private static final AtomicBoolean restored = new AtomicBoolean(false);
+
+    private BoostOpsAttributionState() {
+    }
+
+    /**
+     * Current attribution from memory
+     * Before the persisted snapshot has been primed this starts the load on the io thread
+     * and returns the state as it is now
+     */
+    public static Snapshot current() {
+        Snapshot snapshot = state.get();
+        if (!snapshot.isAvailable() && !restored.get()) {
+            prime(BoostOpsContext.get());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Current attribution from memory, without starting a restore
+     */
+    static Snapshot peek() {
+        return state.get();
+    }
+
+    /**
+     * Load the persisted referrer snapshot on the io thread (process start or plugin initialize)
+     */
+    public static void prime(Context context) {
+        if (context == null || restored.get()) {
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        BoostOpsExecutors.postIo(() -> restore(appContext));
+    }
+
+    /**
+     * Publish a payload persisted by an earlier launch unless attribution is already set
+     * @return true if the payload became the current state
+     */
+    public static boolean restore(String attributionPayload) {
+        String[] values = new String[FIELD_NAMES.length];
+        long[] timestamps = new long[2];
+        if (!parse(attributionPayload, values, timestamps)) {
+            return false;
+        }
+
+        restored.set(true);
+        Snapshot next = new Snapshot(EMPTY.version + 1, values, timestamps[0], timestamps[1]);
+        if (!state.compareAndSet(EMPTY, next)) {
+            return false;
+        }
+        BoostOpsNativeBuffer.writeAttribution(next);
+        return true;
+    }
+
+    /**
+     * Publish attribution from a referrer payload (the JSON built by the referrer plugin)
+     * @return true if the payload was readable
+     */
+    public static boolean update(String attributionPayload) {
+        String[] values = new String[FIELD_NAMES.length];
+        long[] timestamps = new long[2];
+        if (!parse(attributionPayload, values, timestamps)) {
+            return false;
+        }
+
+        restored.set(true);
+        while (true) {
+            Snapshot previous = state.get();
+            Snapshot next = new Snapshot(previous.version + 1, values, timestamps[0], timestamps[1]);
+            if (state.compareAndSet(previous, next)) {
+                BoostOpsNativeBuffer.writeAttribution(next);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Click ID from the install referrer, or null for organic installs
+     */
+    public static String getClickId() {
+        return current().clickId;
+    }
+
+    /**
+     * Attribution snapshot as JSON (Unity callable)
+     */
+    public static String getSnapshot() {
+        return current().toJson();
+    }
+
+    /**
+     * Attribution snapshot as JSON, or null if Unity already holds this version (Unity callable)
+     */
+    public static String getSnapshotIfChanged(long knownVersion) {
+        Snapshot snapshot = current();
+        return snapshot.version == knownVersion ? null : snapshot.toJson();
+    }
+
+    public static long getVersion() {
+        return current().version;
+    }
+
+    /**
+     * Load the referrer snapshot persisted by a previous launch, once per process
+     */
+    private static void restore(Context context) {
+        if (!restored.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            BoostOpsKeyValueStore store = BoostOpsKeyValueStore.getDefault(context);
+            String payload = store.getString(BoostOpsKeyValueStore.KEY_REFERRER_PAYLOAD, null);
+            if (payload != null) {
+                restore(payload);
+                return;
+            }
+
+            // Installs from before the payload snapshot only kept the click ID
+            String clickId = store.getString(BoostOpsKeyValueStore.KEY_CLICK_ID, null);
+            if (clickId != null) {
+                restore(BoostOpsJsonWriter.obtain()
+                    .beginObject()
+                    .field("click_id", clickId)
+                    .endObject()
+                    .toString());
+            }
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Failed to restore attribution state: {}", e.getMessage());
+        }
+    }
+
+    private static boolean parse(String json, String[] values, long[] timestamps) {
+        if (json == null || json.isEmpty()) {
+            return false;
+        }
+
+        JsonReader reader = new JsonReader(new StringReader(json));
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+
+                if ("click_timestamp".equals(name)) {
+                    timestamps[0] = reader.nextLong();
+                    continue;
+                }
+                if ("install_timestamp".equals(name)) {
+                    timestamps[1] = reader.nextLong();
+                    continue;
+                }
+
+                int slot = slotOf(name);
+                if (slot >= 0 && reader.peek() == JsonToken.STRING) {
+                    values[slot] = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return true;
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            BoostOpsLog.w(TAG, "Unreadable attribution payload: {}", e.getMessage());
+            return false;
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static int slotOf(String name) {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            if (FIELD_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
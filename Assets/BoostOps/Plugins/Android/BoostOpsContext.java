@@ -0,0 +1,65 @@
+package com.boostops.unity;
+
+import android.app.Activity;
+import android.content.Context;
+
+import com.unity3d.player.UnityPlayer;
+
+/**
+ * Process-wide application context holder shared by all BoostOps native plugins
+ *
+ * Only the application context is ever stored, never an Activity, so plugins holding
+ * on to a context cannot keep Unity's activity graph alive. It is set by
+ * BoostOpsInitProvider at process start, or derived from UnityPlayer.currentActivity
+ * the first time a plugin needs it.
+ */
+public final class BoostOpsContext {
+
+    private static final String TAG = "BoostOps-Context";
+
+    private static volatile Context applicationContext;
+
+    private BoostOpsContext() {
+    }
+
+    /**
+     * Remember the application context behind the given context
+     */
+    public static void initialize(Context context) {
+        if (context == null || applicationContext != null) {
+            return;
+        }
+
+        Context appContext = context.getApplicationContext();
+        if (appContext == null && !(context instanceof Activity)) {
+            appContext = context;
+        }
+        if (appContext != null) {
+            applicationContext = appContext;
+        }
+    }
+
+    /**
+     * Application context, or null before either the init provider or Unity has started
+     */
+    public static Context get() {
+        Context context = applicationContext;
+        if (context != null) {
+            return context;
+        }
+
+        try {
+            Activity activity = UnityPlayer.currentActivity;
+            if (activity != null) {
+                initialize(activity);
+            }
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Failed to read Unity activity: {}", e.getMessage());
+        }
+        return applicationContext;
+    }
+
+    public static boolean isAvailable() {
+        return get() != null;
+    }
+}
@@ -1,7 +1,6 @@
 package com.boostops.unity;
 
 import android.os.SystemClock;
-import android.util.Log;
 
 /**
  * Native Android plugin for device information
@@ -23,7 +22,7 @@ public class BoostOpsDeviceInfo {
             
             return uptimeSeconds;
         } catch (Exception e) {
-            Log.e(TAG, "Failed to get device uptime", e);
+            BoostOpsLog.e(TAG, "Failed to get device uptime", e);
             return -1.0;
         }
     }
@@ -46,7 +45,7 @@ public class BoostOpsDeviceInfo {
             
             return bootTimestamp;
         } catch (Exception e) {
-            Log.e(TAG, "Failed to get device boot timestamp", e);
+            BoostOpsLog.e(TAG, "Failed to get device boot timestamp", e);
             return -1L;
         }
     }
@@ -0,0 +1,457 @@
+package com.boostops.unity;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Native attribution/purchase event pipeline
+ *
+ * Events are appended to a dedicated BoostOpsKeyValueStore file so they survive process
+ * death, then sent in batches once enough have accumulated or the oldest has waited
+ * long enough. Each batch is a gzip-compressed JSON array handed to a pluggable
+ * Transport; failures are retried with BoostOpsRetryScheduler backoff.
+ *
+ * The pipeline is off until a transport is configured, so nothing is queued on disk
+ * for apps that upload from C#. All queue state is confined to the boostops-io thread.
+ */
+public final class BoostOpsEventQueue {
+
+    private static final String TAG = "BoostOps-EventQueue";
+    private static final String FILE_NAME = "event_queue.log";
+    private static final String KEY_PREFIX = "event.";
+    private static final String KEY_NEXT_SEQUENCE = "meta.next_sequence";
+
+    public static final int DEFAULT_MAX_BATCH_EVENTS = 50;
+    public static final long DEFAULT_MAX_BATCH_AGE_MS = 30 * 1000L;
+    public static final int DEFAULT_MAX_QUEUED_EVENTS = 1000;
+    private static final int MAX_BATCH_BYTES = 256 * 1024;
+
+    /**
+     * Delivers one compressed batch; implementations may block (they run on the SDK executor)
+     */
+    public interface Transport {
+        void send(byte[] gzippedBatch, int eventCount, Result result);
+    }
+
+    /**
+     * Outcome of a Transport send
+     */
+    public interface Result {
+        /**
+         * @param success The batch was accepted and can be deleted
+         * @param retryable On failure, whether the same batch should be sent again later
+         */
+        void onComplete(boolean success, boolean retryable);
+    }
+
+    private static volatile Transport transport;
+    private static volatile int maxBatchEvents = DEFAULT_MAX_BATCH_EVENTS;
+    private static volatile long maxBatchAgeMs = DEFAULT_MAX_BATCH_AGE_MS;
+    private static volatile int maxQueuedEvents = DEFAULT_MAX_QUEUED_EVENTS;
+
+    // Confined to the boostops-io thread
+    private static BoostOpsKeyValueStore store;
+    private static long nextSequence;
+    private static long oldestEnqueuedAt;
+    private static int queuedCount;
+    private static boolean sending = false;
+    private static boolean ageTimerScheduled = false;
+    private static BoostOpsRetryScheduler retryScheduler;
+
+    private static final Runnable AGE_TIMER = () -> {
+        ageTimerScheduled = false;
+        sendIfDue(true);
+    };
+
+    private BoostOpsEventQueue() {
+    }
+
+    /**
+     * Send events to an HTTP endpoint with the built-in transport
+     */
+    public static void configure(Context context, String endpointUrl) {
+        setTransport(context, endpointUrl != null ? new BoostOpsHttpTransport(endpointUrl) : null);
+    }
+
+    /**
+     * Install a custom transport, or null to disable the pipeline
+     * Events left on disk by a previous session are sent once a transport is set
+     */
+    public static void setTransport(Context context, Transport newTransport) {
+        transport = newTransport;
+        BoostOpsLog.d(TAG, "{}", newTransport != null ? "Event transport configured" : "Event transport disabled");
+        if (newTransport == null || context == null) {
+            return;
+        }
+
+        final Context appContext = context.getApplicationContext();
+        BoostOpsExecutors.postIo(() -> {
+            try {
+                BoostOpsKeyValueStore queue = openStore(appContext);
+                // Referrer processed before any transport existed, e.g. by the process-start prefetch
+                queueInstallReferrer(appContext, queue, null);
+                sendIfDue(false);
+            } catch (IOException e) {
+                BoostOpsLog.e(TAG, "Failed to open event queue: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Set the size and age thresholds that trigger a batch upload
+     */
+    public static void setBatchLimits(int maxEvents, long maxAgeMs) {
+        maxBatchEvents = Math.max(1, maxEvents);
+        maxBatchAgeMs = Math.max(0, maxAgeMs);
+
+        // A timer armed for the old age limit would hold back the new one
+        BoostOpsExecutors.postIo(() -> {
+            if (ageTimerScheduled) {
+                BoostOpsExecutors.ioHandler().removeCallbacks(AGE_TIMER);
+                ageTimerScheduled = false;
+            }
+            sendIfDue(false);
+        });
+    }
+
+    /**
+     * Set how many events may wait on disk before the oldest are dropped
+     */
+    public static void setMaxQueuedEvents(int maxEvents) {
+        maxQueuedEvents = Math.max(1, maxEvents);
+    }
+
+    public static boolean isEnabled() {
+        return transport != null;
+    }
+
+    /**
+     * Queue an event for upload; ignored when no transport is configured
+     *
+     * @param type Event type, e.g. "install_referrer" or "purchase"
+     * @param payloadJson Event body as JSON; anything unparseable is queued as a JSON string
+     *                    so it cannot corrupt the batch it is sent in
+     */
+    public static void enqueue(Context context, final String type, final String payloadJson) {
+        if (transport == null || context == null || payloadJson == null) {
+            return;
+        }
+
+        final Context appContext = context.getApplicationContext();
+        final long timestamp = System.currentTimeMillis();
+        BoostOpsExecutors.postIo(() -> {
+            try {
+                appendEvent(openStore(appContext), type, timestamp, payloadJson);
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Failed to queue {} event: {}", type, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Queue the install referrer event exactly once per install
+     * Without a transport the event is not lost: it is queued from the persisted referrer
+     * snapshot as soon as a transport is set
+     *
+     * @param payloadJson Attribution payload, or null to use the persisted snapshot
+     */
+    public static void enqueueInstallReferrer(Context context, final String payloadJson) {
+        if (transport == null || context == null) {
+            return;
+        }
+
+        final Context appContext = context.getApplicationContext();
+        BoostOpsExecutors.postIo(() -> {
+            try {
+                queueInstallReferrer(appContext, openStore(appContext), payloadJson);
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Failed to queue install_referrer event: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Send whatever is queued now regardless of batch thresholds
+     */
+    public static void flush() {
+        BoostOpsExecutors.postIo(() -> sendIfDue(true));
+    }
+
+    /**
+     * Number of events waiting on disk (0 before the queue is first used)
+     */
+    public static int getPendingCount() {
+        try {
+            Integer count = BoostOpsExecutors.callOnIo(() -> store != null ? queuedCount : 0, 1000);
+            return count != null ? count : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static void appendEvent(BoostOpsKeyValueStore queue, String type, long timestamp, String payloadJson)
+            throws IOException {
+        BoostOpsJsonWriter writer = new BoostOpsJsonWriter()
+            .beginObject()
+            .field("type", type)
+            .field("timestamp", timestamp);
+        if (isValidJson(payloadJson)) {
+            writer.name("payload").rawValue(payloadJson);
+        } else {
+            BoostOpsLog.w(TAG, "Malformed {} payload, queued as a string", type);
+            writer.field("payload", payloadJson);
+        }
+        String event = writer.endObject().toString();
+
+        queue.putString(eventKey(nextSequence++), event);
+        queue.putLong(KEY_NEXT_SEQUENCE, nextSequence);
+        queue.syncAsync();
+        queuedCount++;
+
+        if (oldestEnqueuedAt == 0) {
+            oldestEnqueuedAt = timestamp;
+        }
+        trimQueue(queue);
+        sendIfDue(false);
+    }
+
+    /**
+     * Queue the install referrer event unless the shared store marks it as already queued
+     */
+    private static void queueInstallReferrer(Context context, BoostOpsKeyValueStore queue, String payloadJson)
+            throws IOException {
+        BoostOpsKeyValueStore shared = BoostOpsKeyValueStore.getDefault(context);
+        if (shared.getBoolean(BoostOpsKeyValueStore.KEY_REFERRER_EVENT_QUEUED, false)) {
+            return;
+        }
+
+        String payload = payloadJson != null
+            ? payloadJson
+            : shared.getString(BoostOpsKeyValueStore.KEY_REFERRER_PAYLOAD, null);
+        if (payload == null) {
+            return;
+        }
+
+        appendEvent(queue, "install_referrer", System.currentTimeMillis(), payload);
+        shared.putBoolean(BoostOpsKeyValueStore.KEY_REFERRER_EVENT_QUEUED, true);
+        shared.syncAsync();
+    }
+
+    private static BoostOpsKeyValueStore openStore(Context context) throws IOException {
+        if (store == null) {
+            store = BoostOpsKeyValueStore.open(context, FILE_NAME);
+            nextSequence = store.getLong(KEY_NEXT_SEQUENCE, 0);
+            retryScheduler = BoostOpsRetryScheduler.createDefault();
+            queuedCount = store.getAll(KEY_PREFIX).size();
+            if (queuedCount > 0) {
+                // Events left from a previous session count as already aged
+                oldestEnqueuedAt = 1;
+            }
+        }
+        return store;
+    }
+
+    private static String eventKey(long sequence) {
+        // Zero-padded so lexicographic key order is enqueue order
+        return KEY_PREFIX + String.format(Locale.US, "%019d", sequence);
+    }
+
+    private static List<String> sortedEventKeys() {
+        List<String> keys = new ArrayList<>(store.getAll(KEY_PREFIX).keySet());
+        Collections.sort(keys);
+        return keys;
+    }
+
+    private static void trimQueue(BoostOpsKeyValueStore queue) throws IOException {
+        if (queuedCount <= maxQueuedEvents) {
+            return;
+        }
+
+        List<String> keys = sortedEventKeys();
+        int excess = keys.size() - maxQueuedEvents;
+        for (int i = 0; i < excess; i++) {
+            queue.remove(keys.get(i));
+        }
+        queuedCount = Math.min(keys.size(), maxQueuedEvents);
+        BoostOpsLog.w(TAG, "Event queue full, dropped {} oldest event(s)", excess);
+    }
+
+    /**
+     * Whether a payload is one complete JSON value that can be embedded raw
+     */
+    private static boolean isValidJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return false;
+        }
+        JsonReader reader = new JsonReader(new StringReader(json));
+        try {
+            reader.skipValue();
+            return reader.peek() == JsonToken.END_DOCUMENT;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Enqueue time stored in an event record, or now if it cannot be read
+     */
+    private static long eventTimestamp(String event) {
+        if (event != null) {
+            JsonReader reader = new JsonReader(new StringReader(event));
+            try {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("timestamp".equals(reader.nextName())) {
+                        return reader.nextLong();
+                    }
+                    reader.skipValue();
+                }
+            } catch (IOException | IllegalStateException | NumberFormatException e) {
+                BoostOpsLog.w(TAG, "Unreadable event timestamp: {}", e.getMessage());
+            } finally {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Start a batch upload if the size or age threshold is reached (or force is set)
+     */
+    private static void sendIfDue(boolean force) {
+        final Transport currentTransport = transport;
+        if (store == null || sending || currentTransport == null) {
+            return;
+        }
+
+        if (queuedCount == 0) {
+            oldestEnqueuedAt = 0;
+            return;
+        }
+
+        long age = System.currentTimeMillis() - oldestEnqueuedAt;
+        if (!force && queuedCount < maxBatchEvents && age < maxBatchAgeMs) {
+            if (!ageTimerScheduled) {
+                ageTimerScheduled = true;
+                BoostOpsExecutors.ioHandler().postDelayed(AGE_TIMER, maxBatchAgeMs - age);
+            }
+            return;
+        }
+
+        // Only a batch that will actually be sent pays for the key scan
+        List<String> keys = sortedEventKeys();
+
+        // Build the batch: up to maxBatchEvents events or MAX_BATCH_BYTES of JSON
+        final List<String> batchKeys = new ArrayList<>();
+        BoostOpsJsonWriter writer = new BoostOpsJsonWriter().beginArray();
+        int bytes = 2;
+        for (String key : keys) {
+            String event = store.getString(key, null);
+            if (event == null) {
+                continue;
+            }
+            if (!batchKeys.isEmpty()
+                    && (batchKeys.size() >= maxBatchEvents || bytes + event.length() > MAX_BATCH_BYTES)) {
+                break;
+            }
+            writer.rawValue(event);
+            batchKeys.add(key);
+            bytes += event.length() + 1;
+        }
+        writer.endArray();
+
+        final byte[] body;
+        try {
+            body = gzip(writer.toString());
+        } catch (IOException e) {
+            BoostOpsLog.e(TAG, "Failed to compress event batch: {}", e.getMessage());
+            return;
+        }
+
+        sending = true;
+        retryScheduler.markStarted();
+        final int eventCount = batchKeys.size();
+
+        boolean accepted = BoostOpsExecutors.execute(() -> {
+            try {
+                currentTransport.send(body, eventCount, (success, retryable) ->
+                    BoostOpsExecutors.postIo(() -> onBatchComplete(batchKeys, success, retryable)));
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Event transport failed: {}", e.getMessage());
+                BoostOpsExecutors.postIo(() -> onBatchComplete(batchKeys, false, true));
+            }
+        });
+        if (!accepted) {
+            onBatchComplete(batchKeys, false, true);
+        }
+    }
+
+    private static void onBatchComplete(List<String> batchKeys, boolean success, boolean retryable) {
+        sending = false;
+
+        if (success || !retryable) {
+            try {
+                for (String key : batchKeys) {
+                    if (store.contains(key)) {
+                        store.remove(key);
+                        queuedCount--;
+                    }
+                }
+                store.syncAsync();
+            } catch (IOException e) {
+                BoostOpsLog.e(TAG, "Failed to remove sent events: {}", e.getMessage());
+            }
+
+            if (success) {
+                retryScheduler.onSuccess();
+                BoostOpsLog.d(TAG, "Uploaded {} event(s)", batchKeys.size());
+            } else {
+                BoostOpsLog.w(TAG, "Event batch rejected, dropped {} event(s)", batchKeys.size());
+            }
+            retryScheduler.reset();
+
+            // Events queued during the upload keep their own age
+            List<String> remaining = queuedCount > 0 ? sortedEventKeys() : Collections.<String>emptyList();
+            oldestEnqueuedAt = remaining.isEmpty() ? 0 : eventTimestamp(store.getString(remaining.get(0), null));
+            sendIfDue(false);
+            return;
+        }
+
+        boolean scheduled = retryScheduler.scheduleRetry(() -> sendIfDue(true));
+        if (!scheduled) {
+            // Out of attempts: keep the events and try again on the next trigger
+            BoostOpsLog.w(TAG, "Event upload retries exhausted, {} event(s) kept on disk", batchKeys.size());
+            retryScheduler.reset();
+        }
+    }
+
+    private static byte[] gzip(String json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length() / 4 + 64);
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        try {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            gzip.close();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,165 @@
+package com.boostops.unity;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared execution layer for all BoostOps native plugins
+ *
+ * - A small bounded background executor for blocking Play Services lookups
+ * - A single "boostops-io" HandlerThread for disk writes, retries and Unity delivery
+ *
+ * Threads are named, run at background priority and are created lazily,
+ * so plugins never spawn their own threads or use the Unity UI thread.
+ * They live as long as the process: Android has no reliable teardown callback, and
+ * stopping the io thread would drop delayed store syncs.
+ */
+public final class BoostOpsExecutors {
+
+    private static final String TAG = "BoostOps-Executors";
+
+    private static final String IO_THREAD_NAME = "boostops-io";
+    private static final String WORKER_THREAD_PREFIX = "boostops-worker-";
+
+    private static final int WORKER_THREADS = 2;
+    private static final int MAX_QUEUED_TASKS = 64;
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Executor view of the boostops-io thread, for APIs that deliver callbacks to an Executor
+     */
+    public static final Executor IO = BoostOpsExecutors::postIo;
+
+    private static ThreadPoolExecutor backgroundExecutor;
+    private static HandlerThread ioThread;
+    private static Handler ioHandler;
+
+    private BoostOpsExecutors() {
+    }
+
+    /**
+     * Get the shared bounded background executor
+     * Idle workers time out, so no threads are kept alive between session bursts
+     */
+    public static synchronized ThreadPoolExecutor background() {
+        if (backgroundExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                WORKER_THREADS,
+                WORKER_THREADS,
+                WORKER_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(MAX_QUEUED_TASKS),
+                new NamedThreadFactory(WORKER_THREAD_PREFIX)
+            );
+            executor.allowCoreThreadTimeOut(true);
+            backgroundExecutor = executor;
+        }
+        return backgroundExecutor;
+    }
+
+    /**
+     * Run a task on the background executor
+     * @return false if the queue is full
+     */
+    public static boolean execute(Runnable task) {
+        try {
+            background().execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            BoostOpsLog.w(TAG, "Background queue full ({}), task rejected", MAX_QUEUED_TASKS);
+            return false;
+        }
+    }
+
+    /**
+     * Get the looper of the shared boostops-io thread
+     */
+    public static synchronized Looper ioLooper() {
+        return ioHandler().getLooper();
+    }
+
+    /**
+     * Get a Handler bound to the shared boostops-io thread
+     */
+    public static synchronized Handler ioHandler() {
+        if (ioHandler == null) {
+            ioThread = new HandlerThread(IO_THREAD_NAME, android.os.Process.THREAD_PRIORITY_BACKGROUND);
+            ioThread.start();
+            ioHandler = new Handler(ioThread.getLooper());
+        }
+        return ioHandler;
+    }
+
+    /**
+     * Post a task to the boostops-io thread
+     */
+    public static void postIo(Runnable task) {
+        ioHandler().post(task);
+    }
+
+    /**
+     * Check whether the calling thread is the boostops-io thread
+     */
+    public static synchronized boolean isOnIoThread() {
+        return ioThread != null && Thread.currentThread() == ioThread;
+    }
+
+    /**
+     * Run a task on the boostops-io thread and wait for its result
+     * Runs inline when already on the io thread to avoid self-deadlock
+     *
+     * @param timeoutMs Maximum time to wait for the result
+     */
+    public static <T> T callOnIo(Callable<T> task, long timeoutMs) throws Exception {
+        if (isOnIoThread()) {
+            return task.call();
+        }
+
+        FutureTask<T> future = new FutureTask<>(task);
+        postIo(future);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (TimeoutException e) {
+            BoostOpsLog.w(TAG, "Timed out after {}ms waiting for io task", timeoutMs);
+            throw e;
+        }
+    }
+
+    /**
+     * Thread factory producing named background-priority daemon threads
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.boostops.unity;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Default BoostOpsEventQueue transport: POSTs each gzip-compressed batch to one URL
+ *
+ * 2xx responses succeed. 408, 429 and 5xx responses and network errors are retried.
+ * Any other 4xx response drops the batch so one bad payload cannot block the queue.
+ */
+public class BoostOpsHttpTransport implements BoostOpsEventQueue.Transport {
+
+    private static final String TAG = "BoostOps-HttpTransport";
+    private static final int CONNECT_TIMEOUT_MS = 10000;
+    private static final int READ_TIMEOUT_MS = 15000;
+
+    private final String endpointUrl;
+
+    public BoostOpsHttpTransport(String endpointUrl) {
+        this.endpointUrl = endpointUrl;
+    }
+
+    @Override
+    public void send(byte[] gzippedBatch, int eventCount, BoostOpsEventQueue.Result result) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(endpointUrl).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(gzippedBatch.length);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty("Content-Encoding", "gzip");
+            connection.setRequestProperty("X-BoostOps-Event-Count", String.valueOf(eventCount));
+
+            OutputStream out = connection.getOutputStream();
+            try {
+                out.write(gzippedBatch);
+            } finally {
+                out.close();
+            }
+
+            int status = connection.getResponseCode();
+            drain(connection, status);
+
+            if (status >= 200 && status < 300) {
+                result.onComplete(true, false);
+            } else {
+                boolean retryable = status == 408 || status == 429 || status >= 500;
+                BoostOpsLog.w(TAG, "Event upload failed with HTTP {}", status);
+                result.onComplete(false, retryable);
+            }
+        } catch (IOException e) {
+            BoostOpsLog.w(TAG, "Event upload failed: {}", e.getMessage());
+            result.onComplete(false, true);
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Read and discard the response body so the connection can be reused
+     */
+    private static void drain(HttpURLConnection connection, int status) {
+        try {
+            InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (in == null) {
+                return;
+            }
+            try {
+                byte[] buffer = new byte[1024];
+                while (in.read(buffer) != -1) {
+                    // discard
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.boostops.unity;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TTL cache for device identifiers (App Set ID, GAID)
+ *
+ * Returns the last known value immediately from memory and refreshes stale entries on
+ * the SDK background executor. Values are persisted in BoostOpsKeyValueStore and loaded
+ * into memory off the caller's thread, at process start or before the first refresh.
+ * Callers only block when no value has ever been fetched on this install.
+ *
+ * A refresh that returns a different value (GAID reset, Limit Ad Tracking toggled,
+ * App Set ID rotated) raises a change event instead of silently swapping the value.
+ */
+public final class BoostOpsIdentifierCache {
+
+    private static final String TAG = "BoostOps-IdCache";
+    private static final String KEY_PREFIX = "identifier.";
+    private static final String SUFFIX_VALUE = ".value";
+    private static final String SUFFIX_LAT = ".lat";
+    private static final String SUFFIX_FETCHED_AT = ".fetched_at";
+
+    // Legacy SharedPreferences file used before the BoostOps store
+    private static final String LEGACY_PREFS_NAME = "boostops_identifiers";
+    private static final String MIGRATION_MARKER = "migration.boostops_identifiers";
+
+    private static final String UNITY_GAME_OBJECT = "BoostOpsManager";
+    private static final String UNITY_CHANGE_CALLBACK = "OnNativeIdentifierChanged";
+
+    public static final String APP_SET_ID = "app_set_id";
+    public static final String GAID = "gaid";
+    private static final String[] NAMES = { APP_SET_ID, GAID };
+
+    public static final long DEFAULT_TTL_MS = 60 * 60 * 1000L;
+
+    // A refresh whose fetcher never reports back is abandoned after this long
+    public static final long FETCH_TIMEOUT_MS = 10 * 1000L;
+
+    /**
+     * Blocking identifier lookup, always invoked on an SDK background thread
+     */
+    public interface Fetcher {
+        /**
+         * @return Fetched snapshot, or null if the lookup failed (the cached value is kept)
+         */
+        Snapshot fetch(Context context) throws Exception;
+    }
+
+    /**
+     * Non-blocking identifier lookup for APIs that complete through their own callbacks
+     * Started on an SDK background thread; must not wait for the result
+     */
+    public interface AsyncFetcher {
+        /**
+         * @param done Called once with the fetched snapshot, or null if the lookup failed
+         */
+        void fetch(Context context, Callback done) throws Exception;
+    }
+
+    /**
+     * Completion callback for non-blocking lookups
+     */
+    public interface Callback {
+        /**
+         * @param snapshot Current snapshot, or null if no value could be obtained
+         */
+        void onSnapshot(Snapshot snapshot);
+    }
+
+    /**
+     * Listener for identifier changes detected during a refresh
+     */
+    public interface ChangeListener {
+        void onIdentifierChanged(String name, String reason, Snapshot previous, Snapshot current);
+    }
+
+    /**
+     * Immutable cached identifier value
+     */
+    public static final class Snapshot {
+        public final String value;
+        public final boolean limitAdTracking;
+        public final long fetchedAtMs;
+
+        public Snapshot(String value, boolean limitAdTracking, long fetchedAtMs) {
+            this.value = value;
+            this.limitAdTracking = limitAdTracking;
+            this.fetchedAtMs = fetchedAtMs;
+        }
+
+        boolean sameAs(Snapshot other) {
+            if (other == null || limitAdTracking != other.limitAdTracking) {
+                return false;
+            }
+            return value == null ? other.value == null : value.equals(other.value);
+        }
+    }
+
+    private static final ConcurrentHashMap<String, Snapshot> memory = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Refresh> inFlight = new ConcurrentHashMap<>();
+    private static final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private static volatile long ttlMs = DEFAULT_TTL_MS;
+    private static volatile boolean hydrated = false;
+
+    private BoostOpsIdentifierCache() {
+    }
+
+    /**
+     * Load persisted identifiers into memory on the io thread (called at process start)
+     */
+    public static void hydrate(Context context) {
+        if (hydrated || context == null) {
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        BoostOpsExecutors.postIo(() -> ensureHydrated(appContext));
+    }
+
+    /**
+     * Set how long a fetched identifier is considered fresh
+     */
+    public static void setTtlMs(long newTtlMs) {
+        ttlMs = Math.max(0, newTtlMs);
+    }
+
+    public static void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get an identifier, refreshing in the background when stale
+     *
+     * @param timeoutMs How long to wait when nothing has been cached yet
+     * @return Last known snapshot, or null if none is available
+     */
+    public static Snapshot get(Context context, String name, Fetcher fetcher, long timeoutMs) {
+        return get(context, name, async(fetcher), timeoutMs);
+    }
+
+    public static Snapshot get(Context context, String name, AsyncFetcher fetcher, long timeoutMs) {
+        Snapshot cached = peek(context, name);
+
+        if (cached != null) {
+            if (System.currentTimeMillis() - cached.fetchedAtMs > ttlMs) {
+                refreshAsync(context, name, fetcher);
+            }
+            return cached;
+        }
+
+        // First lookup on this install: wait for the fetch, bounded by the timeout
+        CountDownLatch latch = refreshAsync(context, name, fetcher);
+        if (latch != null) {
+            try {
+                if (!latch.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    BoostOpsLog.w(TAG, "{} lookup timed out after {}ms", name, timeoutMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return memory.get(name);
+    }
+
+    /**
+     * Get the cached snapshot without triggering a lookup or touching disk
+     * Persisted values are only visible once hydrate() or a refresh has loaded them
+     */
+    public static Snapshot peek(Context context, String name) {
+        return memory.get(name);
+    }
+
+    /**
+     * Mark an identifier stale so the next get() refreshes it
+     */
+    public static void invalidate(String name) {
+        Snapshot cached = memory.get(name);
+        if (cached != null) {
+            memory.replace(name, cached, new Snapshot(cached.value, cached.limitAdTracking, 0));
+        }
+    }
+
+    /**
+     * Get an identifier without blocking the caller
+     * The callback runs inline when a cached value exists, otherwise on the SDK executor
+     * once the lookup finishes
+     */
+    public static void getAsync(Context context, String name, Fetcher fetcher, Callback callback) {
+        getAsync(context, name, async(fetcher), callback);
+    }
+
+    public static void getAsync(Context context, String name, AsyncFetcher fetcher, Callback callback) {
+        Snapshot cached = peek(context, name);
+
+        if (cached != null) {
+            if (System.currentTimeMillis() - cached.fetchedAtMs > ttlMs) {
+                startRefresh(context, name, fetcher, null);
+            }
+            callback.onSnapshot(cached);
+            return;
+        }
+
+        startRefresh(context, name, fetcher, callback);
+    }
+
+    /**
+     * Start a background refresh unless one is already running
+     * @return Latch released when the refresh completes, or null if it could not start
+     */
+    public static CountDownLatch refreshAsync(Context context, String name, Fetcher fetcher) {
+        return refreshAsync(context, name, async(fetcher));
+    }
+
+    public static CountDownLatch refreshAsync(Context context, String name, AsyncFetcher fetcher) {
+        Refresh refresh = startRefresh(context, name, fetcher, null);
+        return refresh != null ? refresh.latch : null;
+    }
+
+    /**
+     * Adapt a blocking fetcher; it runs on the SDK executor thread that starts the refresh
+     */
+    public static AsyncFetcher async(final Fetcher fetcher) {
+        return (context, done) -> done.onSnapshot(fetcher.fetch(context));
+    }
+
+    private static Refresh startRefresh(final Context context, final String name, final AsyncFetcher fetcher,
+                                        Callback callback) {
+        final Refresh refresh = new Refresh();
+        if (callback != null) {
+            refresh.addCallback(callback);
+        }
+
+        Refresh existing = inFlight.putIfAbsent(name, refresh);
+        if (existing != null) {
+            if (callback != null && !existing.addCallback(callback)) {
+                callback.onSnapshot(memory.get(name));
+            }
+            return existing;
+        }
+
+        final Runnable timeout = () -> {
+            if (refresh.settle()) {
+                BoostOpsLog.w(TAG, "{} refresh abandoned after {}ms", name, FETCH_TIMEOUT_MS);
+                finishRefresh(name, refresh);
+            }
+        };
+        final Callback done = fetched -> {
+            if (!refresh.settle()) {
+                return;
+            }
+            BoostOpsExecutors.ioHandler().removeCallbacks(timeout);
+            try {
+                if (fetched != null) {
+                    store(context, name, fetched);
+                }
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Failed to store {}: {}", name, e.getMessage());
+            } finally {
+                finishRefresh(name, refresh);
+            }
+        };
+
+        BoostOpsExecutors.ioHandler().postDelayed(timeout, FETCH_TIMEOUT_MS);
+        boolean accepted = BoostOpsExecutors.execute(() -> {
+            try {
+                // A value persisted by an earlier session may already be fresh
+                ensureHydrated(context);
+                Snapshot persisted = memory.get(name);
+                if (persisted != null && System.currentTimeMillis() - persisted.fetchedAtMs <= ttlMs) {
+                    done.onSnapshot(null);
+                    return;
+                }
+                fetcher.fetch(context, done);
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Failed to refresh {}: {}", name, e.getMessage());
+                done.onSnapshot(null);
+            }
+        });
+
+        if (!accepted) {
+            done.onSnapshot(null);
+            return null;
+        }
+        return refresh;
+    }
+
+    private static void finishRefresh(String name, Refresh refresh) {
+        inFlight.remove(name, refresh);
+        refresh.complete(memory.get(name));
+    }
+
+    /**
+     * A single in-flight lookup shared by all concurrent callers
+     */
+    private static final class Refresh {
+        final CountDownLatch latch = new CountDownLatch(1);
+        private final List<Callback> callbacks = new ArrayList<>();
+        private final AtomicBoolean settled = new AtomicBoolean(false);
+        private boolean done = false;
+
+        /**
+         * Claim the right to finish this refresh: true for the first of result or timeout
+         */
+        boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+
+        synchronized boolean addCallback(Callback callback) {
+            if (done) {
+                return false;
+            }
+            callbacks.add(callback);
+            return true;
+        }
+
+        void complete(Snapshot snapshot) {
+            List<Callback> pending;
+            synchronized (this) {
+                done = true;
+                pending = new ArrayList<>(callbacks);
+                callbacks.clear();
+            }
+
+            latch.countDown();
+
+            for (Callback callback : pending) {
+                try {
+                    callback.onSnapshot(snapshot);
+                } catch (Exception e) {
+                    BoostOpsLog.e(TAG, "Identifier callback failed", e);
+                }
+            }
+        }
+    }
+
+    private static void store(Context context, String name, Snapshot fetched) {
+        ensureHydrated(context);
+        Snapshot previous = memory.put(name, fetched);
+
+        persist(context, name, fetched);
+
+        if (previous != null && !previous.sameAs(fetched)) {
+            notifyChanged(name, changeReason(name, previous, fetched), previous, fetched);
+        }
+    }
+
+    private static String changeReason(String name, Snapshot previous, Snapshot current) {
+        if (GAID.equals(name)) {
+            return previous.limitAdTracking != current.limitAdTracking
+                ? "limit_ad_tracking_changed"
+                : "gaid_reset";
+        }
+        if (APP_SET_ID.equals(name)) {
+            return "app_set_id_rotated";
+        }
+        return "changed";
+    }
+
+    private static void notifyChanged(String name, String reason, Snapshot previous, Snapshot current) {
+        BoostOpsLog.i(TAG, "Identifier changed: {} ({})", name, reason);
+
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.onIdentifierChanged(name, reason, previous, current);
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Identifier change listener failed", e);
+            }
+        }
+
+        String payload = BoostOpsJsonWriter.obtain()
+            .beginObject()
+            .field("identifier", name)
+            .field("reason", reason)
+            .field("changed", true)
+            .field("current", current.value)
+            .field("limit_ad_tracking", current.limitAdTracking)
+            .field("timestamp", current.fetchedAtMs)
+            .endObject()
+            .toString();
+        BoostOpsMessageBus.post(UNITY_GAME_OBJECT, UNITY_CHANGE_CALLBACK, payload);
+    }
+
+    /**
+     * Load persisted snapshots into memory once, migrating the legacy prefs file first
+     * Runs on SDK threads only; values already in memory are newer and are kept
+     */
+    private static synchronized void ensureHydrated(Context context) {
+        if (hydrated || context == null) {
+            return;
+        }
+
+        try {
+            BoostOpsKeyValueStore store = BoostOpsKeyValueStore.getDefault(context);
+            store.migrateFrom(
+                context.getSharedPreferences(LEGACY_PREFS_NAME, Context.MODE_PRIVATE),
+                MIGRATION_MARKER,
+                legacyMapping()
+            );
+
+            for (String name : NAMES) {
+                Snapshot persisted = loadPersisted(store, name);
+                if (persisted != null) {
+                    memory.putIfAbsent(name, persisted);
+                }
+            }
+            hydrated = true;
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Failed to load cached identifiers: {}", e.getMessage());
+        }
+    }
+
+    private static String[][] legacyMapping() {
+        String[] legacySuffixes = { "_value", "_lat", "_fetched_at" };
+        String[] suffixes = { SUFFIX_VALUE, SUFFIX_LAT, SUFFIX_FETCHED_AT };
+        String[][] mapping = new String[NAMES.length * suffixes.length][];
+        int i = 0;
+        for (String name : NAMES) {
+            for (int j = 0; j < suffixes.length; j++) {
+                mapping[i++] = new String[] { name + legacySuffixes[j], KEY_PREFIX + name + suffixes[j] };
+            }
+        }
+        return mapping;
+    }
+
+    private static Snapshot loadPersisted(BoostOpsKeyValueStore store, String name) {
+        long fetchedAt = store.getLong(KEY_PREFIX + name + SUFFIX_FETCHED_AT, 0);
+        if (fetchedAt == 0) {
+            return null;
+        }
+        return new Snapshot(
+            store.getString(KEY_PREFIX + name + SUFFIX_VALUE, null),
+            store.getBoolean(KEY_PREFIX + name + SUFFIX_LAT, false),
+            fetchedAt
+        );
+    }
+
+    private static void persist(Context context, String name, Snapshot snapshot) {
+        try {
+            BoostOpsKeyValueStore store = BoostOpsKeyValueStore.getDefault(context);
+            store.putString(KEY_PREFIX + name + SUFFIX_VALUE, snapshot.value);
+            store.putBoolean(KEY_PREFIX + name + SUFFIX_LAT, snapshot.limitAdTracking);
+            store.putLong(KEY_PREFIX + name + SUFFIX_FETCHED_AT, snapshot.fetchedAtMs);
+            store.syncAsync();
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Failed to persist {}: {}", name, e.getMessage());
+        }
+    }
+}
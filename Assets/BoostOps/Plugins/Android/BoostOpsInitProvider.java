@@ -0,0 +1,93 @@
+package com.boostops.unity;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.database.Cursor;
+import android.net.Uri;
+
+import com.boostops.unity.referrer.BoostOpsInstallReferrerNative;
+
+/**
+ * Process-start initializer for BoostOps native plugins
+ *
+ * Registered in the plugin AndroidManifest.xml, so Android creates it before the
+ * Unity activity exists. It binds the Play install referrer service and warms the
+ * App Set ID / GAID cache from the application context. The results are buffered
+ * natively and handed to Unity once C# calls the usual initialize methods.
+ *
+ * Opt out from the app manifest:
+ *   <meta-data android:name="com.boostops.auto_init" android:value="false" />
+ */
+public final class BoostOpsInitProvider extends ContentProvider {
+
+    private static final String TAG = "BoostOps-Init";
+    public static final String META_AUTO_INIT = "com.boostops.auto_init";
+
+    @Override
+    public boolean onCreate() {
+        Context context = getContext();
+        if (context == null) {
+            return false;
+        }
+
+        BoostOpsContext.initialize(context);
+        final Context appContext = BoostOpsContext.get();
+        if (appContext == null || !isAutoInitEnabled(appContext)) {
+            BoostOpsLog.d(TAG, "Auto-init disabled by manifest meta-data");
+            return false;
+        }
+
+        // Runs on the main thread during Application startup: only post work here
+        BoostOpsAttributionState.prime(appContext);
+        BoostOpsExecutors.postIo(() -> {
+            try {
+                BoostOpsInstallReferrerNative.getInstance().prefetch(appContext);
+                IdentifierPlugin.prefetchIdentifiers(appContext);
+                BoostOpsLog.d(TAG, "✅ Early referrer and identifier prefetch started");
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Early prefetch failed: {}", e.getMessage());
+            }
+        });
+        return true;
+    }
+
+    private static boolean isAutoInitEnabled(Context context) {
+        try {
+            ApplicationInfo info = context.getPackageManager()
+                .getApplicationInfo(context.getPackageName(), PackageManager.GET_META_DATA);
+            return info.metaData == null || info.metaData.getBoolean(META_AUTO_INIT, true);
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    // Not a real provider: no data is exposed
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+        return null;
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return null;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        return null;
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        return 0;
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        return 0;
+    }
+}
@@ -1,20 +1,20 @@
 package com.boostops.unity.referrer;
 
 import android.content.Context;
-import android.net.Uri;
 import android.os.RemoteException;
-import android.util.Log;
 
 import com.android.installreferrer.api.InstallReferrerClient;
 import com.android.installreferrer.api.InstallReferrerStateListener;
 import com.android.installreferrer.api.ReferrerDetails;
-import com.unity3d.player.UnityPlayer;
-
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.util.HashMap;
-import java.util.Map;
+import com.boostops.unity.BoostOpsAttributionState;
+import com.boostops.unity.BoostOpsContext;
+import com.boostops.unity.BoostOpsEventQueue;
+import com.boostops.unity.BoostOpsJsonWriter;
+import com.boostops.unity.BoostOpsKeyValueStore;
+import com.boostops.unity.BoostOpsLog;
+import com.boostops.unity.BoostOpsMessageBus;
+import com.boostops.unity.BoostOpsMetrics;
+import com.boostops.unity.BoostOpsRetryScheduler;
 
 /**
  * Native Android install referrer tracking for BoostOps Unity SDK
@@ -27,13 +27,29 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
     private static final String UNITY_GAME_OBJECT = "BoostOpsInstallReferrerNative";
     private static final String UNITY_CALLBACK_METHOD = "OnInstallReferrerReceivedCallback";
     
+    // Metrics
+    private static final BoostOpsMetrics.Histogram BIND_TIME = BoostOpsMetrics.histogram("referrer.bind_ms");
+    private static final BoostOpsMetrics.Histogram TIME_TO_REFERRER = BoostOpsMetrics.histogram("referrer.time_to_referrer_ms");
+    private static final BoostOpsMetrics.Counter SETUP_FAILURES = BoostOpsMetrics.counter("referrer.setup_failures");
+    private static final BoostOpsMetrics.Counter RETRIES = BoostOpsMetrics.counter("referrer.retries");
+    private static final BoostOpsMetrics.Counter SNAPSHOT_HITS = BoostOpsMetrics.counter("referrer.snapshot_hits");
+    
     // Singleton instance
     private static BoostOpsInstallReferrerNative instance;
     
     // Install Referrer API
     private InstallReferrerClient referrerClient;
-    private boolean isConnected = false;
-    private boolean hasProcessedReferrer = false;
+    private volatile boolean isConnected = false;
+    private volatile boolean hasProcessedReferrer = false;
+    private volatile boolean lookupInProgress = false;
+    private volatile long bindStartedAt;
+    private volatile String snapshotPayload;
+    
+    // Attribution produced before Unity initialized, delivered once it does
+    private String pendingUnityPayload;
+    
+    // Retry with backoff on an SDK-owned background looper
+    private final BoostOpsRetryScheduler retryScheduler;
     
     // Configuration
     private String apiKey;
@@ -57,7 +73,32 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
      * Private constructor for singleton
      */
     private BoostOpsInstallReferrerNative() {
-        // Private constructor
+        retryScheduler = BoostOpsRetryScheduler.createDefault();
+    }
+    
+    /**
+     * Start the referrer lookup from the application context at process start
+     * Called by BoostOpsInitProvider; the result is buffered until initialize() is called from Unity
+     */
+    public void prefetch(Context context) {
+        if (context == null) {
+            return;
+        }
+        BoostOpsContext.initialize(context);
+        
+        if (hasProcessedReferrer || lookupInProgress) {
+            return;
+        }
+        
+        if (loadSnapshot()) {
+            SNAPSHOT_HITS.increment();
+            hasProcessedReferrer = true;
+            sendAttributionToUnity(snapshotPayload);
+            return;
+        }
+        
+        BoostOpsLog.d(TAG, "Prefetching install referrer at process start");
+        initializeInstallReferrerClient();
     }
     
     /**
@@ -65,34 +106,52 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
      * Called from Unity
      */
     public void initialize(String apiKey) {
-        Log.d(TAG, "Initializing BoostOps Install Referrer Tracking");
+        BoostOpsLog.d(TAG, "Initializing BoostOps Install Referrer Tracking");
         
         // Critical validation
         if (apiKey == null || apiKey.trim().isEmpty()) {
-            Log.e(TAG, "API key cannot be null or empty");
+            BoostOpsLog.e(TAG, "API key cannot be null or empty");
             return;
         }
         
-        // Validate Unity context exists
-        if (UnityPlayer.currentActivity == null) {
-            Log.e(TAG, "Unity activity is null, cannot initialize install referrer");
+        // Validate a context exists
+        if (getContext() == null) {
+            BoostOpsLog.e(TAG, "Unity activity is null, cannot initialize install referrer");
             return;
         }
         
         this.apiKey = apiKey.trim();
-        this.unityCallbackEnabled = true;
+        BoostOpsAttributionState.prime(getContext());
         
         try {
+            // Delivers attribution prefetched before Unity was ready
+            enableUnityCallback();
+            
             // Check if already processed to avoid duplicate calls
             if (hasProcessedReferrer) {
-                Log.d(TAG, "Install referrer already processed, skipping");
+                BoostOpsLog.d(TAG, "Install referrer already processed, skipping");
+                return;
+            }
+            
+            // A prefetch started at process start will deliver when it completes
+            if (lookupInProgress) {
+                BoostOpsLog.d(TAG, "Install referrer lookup already in progress");
+                return;
+            }
+            
+            // Serve the persisted snapshot from a previous launch without binding the service
+            if (loadSnapshot()) {
+                SNAPSHOT_HITS.increment();
+                BoostOpsLog.d(TAG, "Install referrer served from persisted snapshot");
+                hasProcessedReferrer = true;
+                sendAttributionToUnity(snapshotPayload);
                 return;
             }
             
             initializeInstallReferrerClient();
             
         } catch (Exception e) {
-            Log.e(TAG, "Failed to initialize install referrer tracking", e);
+            BoostOpsLog.e(TAG, "Failed to initialize install referrer tracking", e);
         }
     }
     
@@ -101,73 +160,87 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
      */
     private void initializeInstallReferrerClient() {
         try {
-            Context context = UnityPlayer.currentActivity;
-            if (context == null) {
-                Log.e(TAG, "Context became null during install referrer initialization");
+            if (getContext() == null) {
+                BoostOpsLog.e(TAG, "Context became null during install referrer initialization");
                 return;
             }
             
-            // Build install referrer client
-            referrerClient = InstallReferrerClient.newBuilder(context).build();
+            retryScheduler.markStarted();
             
-            // Start connection
+            // Build the client and start the connection
             startConnection();
             
         } catch (Exception e) {
-            Log.e(TAG, "Error initializing install referrer client", e);
+            BoostOpsLog.e(TAG, "Error initializing install referrer client", e);
         }
     }
     
     /**
      * Start connection to Install Referrer service
+     * The client is rebuilt when cleanup() released it, e.g. before a retry after a failed query
      */
     private void startConnection() {
         try {
             if (referrerClient == null) {
-                Log.e(TAG, "Install referrer client is null");
-                return;
+                Context context = getContext();
+                if (context == null) {
+                    BoostOpsLog.e(TAG, "Cannot build install referrer client without a context");
+                    return;
+                }
+                referrerClient = InstallReferrerClient.newBuilder(context).build();
             }
+            lookupInProgress = true;
             
-            Log.d(TAG, "Starting install referrer connection...");
+            BoostOpsLog.d(TAG, "Starting install referrer connection...");
+            bindStartedAt = BoostOpsMetrics.now();
             referrerClient.startConnection(this);
             
         } catch (Exception e) {
-            Log.e(TAG, "Error starting install referrer connection", e);
+            BoostOpsLog.e(TAG, "Error starting install referrer connection", e);
         }
     }
     
     @Override
     public void onInstallReferrerSetupFinished(int responseCode) {
         try {
+            BIND_TIME.recordSince(bindStartedAt);
+            if (responseCode != InstallReferrerClient.InstallReferrerResponse.OK) {
+                SETUP_FAILURES.increment();
+            }
+            
             switch (responseCode) {
                 case InstallReferrerClient.InstallReferrerResponse.OK:
-                    Log.d(TAG, "Install referrer connection successful");
+                    BoostOpsLog.d(TAG, "Install referrer connection successful");
                     isConnected = true;
-                    queryInstallReferrer();
+                    // getInstallReferrer() is a binder call, keep it off the main thread
+                    retryScheduler.post(this::queryInstallReferrer);
                     break;
                     
                 case InstallReferrerClient.InstallReferrerResponse.FEATURE_NOT_SUPPORTED:
-                    Log.w(TAG, "Install referrer API not supported on this device");
+                    BoostOpsLog.w(TAG, "Install referrer API not supported on this device");
+                    retryScheduler.cancel();
+                    cleanup();
                     break;
                     
                 case InstallReferrerClient.InstallReferrerResponse.SERVICE_UNAVAILABLE:
-                    Log.w(TAG, "Install referrer service unavailable, will retry later");
+                    BoostOpsLog.w(TAG, "Install referrer service unavailable, will retry later");
                     scheduleRetry();
                     break;
                     
                 default:
-                    Log.w(TAG, "Install referrer setup failed with code: " + responseCode);
+                    BoostOpsLog.w(TAG, "Install referrer setup failed with code: {}", responseCode);
+                    cleanup();
                     break;
             }
         } catch (Exception e) {
-            Log.e(TAG, "Error in install referrer setup finished", e);
+            BoostOpsLog.e(TAG, "Error in install referrer setup finished", e);
         }
     }
     
     @Override
     public void onInstallReferrerServiceDisconnected() {
         try {
-            Log.w(TAG, "Install referrer service disconnected");
+            BoostOpsLog.w(TAG, "Install referrer service disconnected");
             isConnected = false;
             
             // Schedule reconnection if we haven't processed the referrer yet
@@ -175,7 +248,7 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
                 scheduleRetry();
             }
         } catch (Exception e) {
-            Log.e(TAG, "Error handling install referrer disconnect", e);
+            BoostOpsLog.e(TAG, "Error handling install referrer disconnect", e);
         }
     }
     
@@ -185,7 +258,7 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
     private void queryInstallReferrer() {
         try {
             if (!isConnected || referrerClient == null) {
-                Log.e(TAG, "Cannot query install referrer - not connected");
+                BoostOpsLog.e(TAG, "Cannot query install referrer - not connected");
                 return;
             }
             
@@ -195,13 +268,13 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
             if (referrerDetails != null) {
                 processInstallReferrer(referrerDetails);
             } else {
-                Log.w(TAG, "Install referrer details are null");
+                BoostOpsLog.w(TAG, "Install referrer details are null");
             }
             
         } catch (RemoteException e) {
-            Log.e(TAG, "Remote exception getting install referrer", e);
+            BoostOpsLog.e(TAG, "Remote exception getting install referrer", e);
         } catch (Exception e) {
-            Log.e(TAG, "Error querying install referrer", e);
+            BoostOpsLog.e(TAG, "Error querying install referrer", e);
         } finally {
             cleanup();
         }
@@ -220,13 +293,13 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
             // of the Install Referrer API. Setting to false as default.
             boolean instantExperienceLaunched = false;
             
-            Log.d(TAG, "Install referrer received: " + installReferrer);
+            BoostOpsLog.d(TAG, "Install referrer received: {*}", installReferrer);
             
             // Parse referrer URL parameters
-            Map<String, String> referrerParams = parseReferrerUrl(installReferrer);
+            String[] referrerParams = BoostOpsReferrerParser.parse(installReferrer);
             
             // Create attribution data
-            JSONObject attributionData = createAttributionData(
+            String payload = createAttributionData(
                 installReferrer, 
                 referrerParams,
                 referrerClickTimestamp,
@@ -234,167 +307,255 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
                 instantExperienceLaunched
             );
             
-            // Send to Unity
-            sendAttributionToUnity(attributionData);
+            // Publish in memory for IdentifierPlugin and the Unity snapshot API
+            BoostOpsAttributionState.update(payload);
             
-            // Mark as processed
-            hasProcessedReferrer = true;
+            // Persist so later launches never rebind the Play service
+            saveSnapshot(payload, installReferrer, referrerClickTimestamp, installBeginTimestamp);
             
-            Log.d(TAG, "Install referrer processed successfully");
+            // Send to Unity
+            sendAttributionToUnity(payload);
             
-        } catch (Exception e) {
-            Log.e(TAG, "Error processing install referrer", e);
-        }
-    }
-    
-    /**
-     * Parse referrer URL parameters
-     */
-    private Map<String, String> parseReferrerUrl(String referrerUrl) {
-        Map<String, String> params = new HashMap<>();
-        
-        try {
-            if (referrerUrl == null || referrerUrl.trim().isEmpty()) {
-                return params;
-            }
+            // Queue for native upload once; without a transport it is queued when one is set
+            BoostOpsEventQueue.enqueueInstallReferrer(getContext(), payload);
             
-            // Handle URL-encoded referrer
-            String decodedReferrer = Uri.decode(referrerUrl);
+            // Mark as processed
+            hasProcessedReferrer = true;
+            retryScheduler.onSuccess();
+            TIME_TO_REFERRER.record(retryScheduler.getTimeToSuccessMs());
             
-            // Parse parameters
-            String[] pairs = decodedReferrer.split("&");
-            for (String pair : pairs) {
-                String[] keyValue = pair.split("=", 2);
-                if (keyValue.length == 2) {
-                    String key = Uri.decode(keyValue[0]);
-                    String value = Uri.decode(keyValue[1]);
-                    params.put(key, value);
-                }
-            }
+            BoostOpsLog.d(TAG, "Install referrer processed successfully (retries: {}, time to referrer: {}ms)", retryScheduler.getRetryCount(), retryScheduler.getTimeToSuccessMs());
             
         } catch (Exception e) {
-            Log.e(TAG, "Error parsing referrer URL", e);
+            BoostOpsLog.e(TAG, "Error processing install referrer", e);
         }
-        
-        return params;
     }
     
     /**
      * Create attribution data JSON
+     * Streamed straight into a reusable buffer; null parameters are omitted as with JSONObject
      */
-    private JSONObject createAttributionData(String rawReferrer, Map<String, String> params,
-                                           long clickTimestamp, long installTimestamp, 
-                                           boolean instantExperience) throws JSONException {
-        JSONObject data = new JSONObject();
+    private String createAttributionData(String rawReferrer, String[] params,
+                                         long clickTimestamp, long installTimestamp, 
+                                         boolean instantExperience) {
+        BoostOpsJsonWriter data = BoostOpsJsonWriter.obtain();
+        data.beginObject();
         
         // Basic referrer info
-        data.put("raw_referrer", rawReferrer);
-        data.put("click_timestamp", clickTimestamp);
-        data.put("install_timestamp", installTimestamp);
-        data.put("instant_experience", instantExperience);
+        data.field("raw_referrer", rawReferrer);
+        data.field("click_timestamp", clickTimestamp);
+        data.field("install_timestamp", installTimestamp);
+        data.field("instant_experience", instantExperience);
         
         // Attribution parameters
-        data.put("utm_source", params.get("utm_source"));
-        data.put("utm_medium", params.get("utm_medium"));
-        data.put("utm_campaign", params.get("utm_campaign"));
-        data.put("utm_term", params.get("utm_term"));
-        data.put("utm_content", params.get("utm_content"));
+        data.field("utm_source", params[BoostOpsReferrerParser.UTM_SOURCE]);
+        data.field("utm_medium", params[BoostOpsReferrerParser.UTM_MEDIUM]);
+        data.field("utm_campaign", params[BoostOpsReferrerParser.UTM_CAMPAIGN]);
+        data.field("utm_term", params[BoostOpsReferrerParser.UTM_TERM]);
+        data.field("utm_content", params[BoostOpsReferrerParser.UTM_CONTENT]);
         
         // BoostOps specific parameters
-        data.put("campaign_id", params.get("campaign_id"));
-        data.put("source_app_id", params.get("source_app_id"));
-        data.put("boost_referrer", params.get("boost_referrer"));
+        data.field("campaign_id", params[BoostOpsReferrerParser.CAMPAIGN_ID]);
+        data.field("source_app_id", params[BoostOpsReferrerParser.SOURCE_APP_ID]);
+        data.field("boost_referrer", params[BoostOpsReferrerParser.BOOST_REFERRER]);
         
         // CRITICAL: Extract and save click_id for attribution
-        String clickId = params.get("click_id");
-        data.put("click_id", clickId);
+        String clickId = params[BoostOpsReferrerParser.CLICK_ID];
+        data.field("click_id", clickId);
         
-        // Save click_id to SharedPreferences so IdentifierPlugin can access it
+        // Save click_id to the BoostOps store so IdentifierPlugin can access it
         if (clickId != null && !clickId.isEmpty()) {
             try {
-                Context context = UnityPlayer.currentActivity.getApplicationContext();
-                android.content.SharedPreferences prefs = context.getSharedPreferences(
-                    "boostops_attribution", 
-                    Context.MODE_PRIVATE
-                );
-                prefs.edit().putString("install_referrer_click_id", clickId).apply();
-                Log.d(TAG, "✅ Saved click_id to SharedPreferences: " + clickId);
+                BoostOpsKeyValueStore store = getStore();
+                if (store != null) {
+                    store.putString(BoostOpsKeyValueStore.KEY_CLICK_ID, clickId);
+                    BoostOpsLog.d(TAG, "✅ Saved click_id to BoostOps store: {*}", clickId);
+                }
             } catch (Exception e) {
-                Log.e(TAG, "Failed to save click_id to SharedPreferences: " + e.getMessage());
+                BoostOpsLog.e(TAG, "Failed to save click_id to BoostOps store: {}", e.getMessage());
             }
         } else {
-            Log.d(TAG, "No click_id found in install referrer (organic install)");
+            BoostOpsLog.d(TAG, "No click_id found in install referrer (organic install)");
         }
         
         // Also extract and save schema v3 cross-promo parameters
-        String sourceStoreId = params.get("source_store_id");
-        String sourceProjectId = params.get("source_project_id");
-        String targetStoreId = params.get("target_store_id");
-        String targetProjectId = params.get("target_project_id");
+        String sourceStoreId = params[BoostOpsReferrerParser.SOURCE_STORE_ID];
+        String sourceProjectId = params[BoostOpsReferrerParser.SOURCE_PROJECT_ID];
+        String targetStoreId = params[BoostOpsReferrerParser.TARGET_STORE_ID];
+        String targetProjectId = params[BoostOpsReferrerParser.TARGET_PROJECT_ID];
         
-        data.put("source_store_id", sourceStoreId);
-        data.put("source_project_id", sourceProjectId);
-        data.put("target_store_id", targetStoreId);
-        data.put("target_project_id", targetProjectId);
+        data.field("source_store_id", sourceStoreId);
+        data.field("source_project_id", sourceProjectId);
+        data.field("target_store_id", targetStoreId);
+        data.field("target_project_id", targetProjectId);
         
         // Metadata
-        data.put("attribution_source", "install_referrer_api");
-        data.put("sdk_version", "1.0.0");
-        data.put("timestamp", System.currentTimeMillis());
+        data.field("attribution_source", "install_referrer_api");
+        data.field("sdk_version", "1.0.0");
+        data.field("timestamp", System.currentTimeMillis());
         
-        return data;
+        data.endObject();
+        return data.toString();
     }
     
     /**
      * Send attribution data to Unity
      */
-    private void sendAttributionToUnity(JSONObject attributionData) {
+    private synchronized void sendAttributionToUnity(String jsonString) {
         try {
             if (!unityCallbackEnabled) {
-                Log.w(TAG, "Unity callback not enabled, attribution data will be lost");
+                // Prefetched before Unity initialized: hold it for enableUnityCallback()
+                BoostOpsLog.d(TAG, "Unity not initialized yet, buffering attribution data");
+                pendingUnityPayload = jsonString;
                 return;
             }
             
-            String jsonString = attributionData.toString();
+            // Queue on the shared message bus; only the latest attribution payload matters
+            BoostOpsMessageBus.post(UNITY_GAME_OBJECT, UNITY_CALLBACK_METHOD, jsonString, UNITY_CALLBACK_METHOD);
             
-            // Send to Unity on main thread
-            UnityPlayer.currentActivity.runOnUiThread(() -> {
-                try {
-                    UnityPlayer.UnitySendMessage(UNITY_GAME_OBJECT, UNITY_CALLBACK_METHOD, jsonString);
-                } catch (Exception e) {
-                    Log.e(TAG, "Error sending attribution to Unity", e);
-                }
-            });
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Error preparing attribution for Unity", e);
+        }
+    }
+    
+    /**
+     * Allow delivery to Unity and send any attribution buffered before initialize()
+     */
+    private synchronized void enableUnityCallback() {
+        unityCallbackEnabled = true;
+        if (pendingUnityPayload != null) {
+            String payload = pendingUnityPayload;
+            pendingUnityPayload = null;
+            sendAttributionToUnity(payload);
+        }
+    }
+    
+    /**
+     * Load the persisted referrer snapshot into memory
+     * @return true if a snapshot from a previous launch is available
+     */
+    private boolean loadSnapshot() {
+        if (snapshotPayload != null) {
+            return true;
+        }
+        
+        try {
+            BoostOpsKeyValueStore store = getStore();
+            if (store == null) {
+                return false;
+            }
+            
+            snapshotPayload = store.getString(BoostOpsKeyValueStore.KEY_REFERRER_PAYLOAD, null);
+            if (snapshotPayload == null) {
+                return false;
+            }
+            BoostOpsAttributionState.restore(snapshotPayload);
+            return true;
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Failed to load install referrer snapshot", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Persist the processed referrer details and attribution payload
+     */
+    private void saveSnapshot(String payload, String rawReferrer, long clickTimestamp, long installTimestamp) {
+        snapshotPayload = payload;
+        
+        try {
+            BoostOpsKeyValueStore store = getStore();
+            if (store == null) {
+                return;
+            }
             
+            store.putString(BoostOpsKeyValueStore.KEY_REFERRER_RAW, rawReferrer);
+            store.putLong(BoostOpsKeyValueStore.KEY_REFERRER_CLICK_TIMESTAMP, clickTimestamp);
+            store.putLong(BoostOpsKeyValueStore.KEY_REFERRER_INSTALL_TIMESTAMP, installTimestamp);
+            store.putLong(BoostOpsKeyValueStore.KEY_REFERRER_SAVED_AT, System.currentTimeMillis());
+            // Payload last: its presence marks the snapshot complete
+            store.putString(BoostOpsKeyValueStore.KEY_REFERRER_PAYLOAD, payload);
+            store.syncAsync();
         } catch (Exception e) {
-            Log.e(TAG, "Error preparing attribution for Unity", e);
+            BoostOpsLog.e(TAG, "Failed to persist install referrer snapshot", e);
+        }
+    }
+    
+    /**
+     * Forget the persisted snapshot so the next launch cannot serve the old result
+     */
+    private void clearSnapshot() {
+        snapshotPayload = null;
+        
+        try {
+            BoostOpsKeyValueStore store = getStore();
+            if (store == null) {
+                return;
+            }
+            
+            // Payload first: without it the remaining keys are never read
+            store.remove(BoostOpsKeyValueStore.KEY_REFERRER_PAYLOAD);
+            store.remove(BoostOpsKeyValueStore.KEY_REFERRER_RAW);
+            store.remove(BoostOpsKeyValueStore.KEY_REFERRER_CLICK_TIMESTAMP);
+            store.remove(BoostOpsKeyValueStore.KEY_REFERRER_INSTALL_TIMESTAMP);
+            store.remove(BoostOpsKeyValueStore.KEY_REFERRER_SAVED_AT);
+            store.syncAsync();
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Failed to clear install referrer snapshot", e);
+        }
+    }
+    
+    /**
+     * Get the BoostOps store shared with IdentifierPlugin
+     */
+    private BoostOpsKeyValueStore getStore() throws java.io.IOException {
+        Context context = getContext();
+        if (context == null) {
+            return null;
         }
+        return BoostOpsKeyValueStore.getDefault(context);
+    }
+    
+    /**
+     * Application context; the client and store never hold the Unity activity
+     */
+    private Context getContext() {
+        return BoostOpsContext.get();
     }
     
     /**
-     * Schedule retry connection
+     * Schedule retry connection with exponential backoff and jitter
      */
     private void scheduleRetry() {
-        // Simple retry after 5 seconds
-        new android.os.Handler().postDelayed(() -> {
+        boolean scheduled = retryScheduler.scheduleRetry(() -> {
             if (!hasProcessedReferrer && !isConnected) {
-                Log.d(TAG, "Retrying install referrer connection");
+                RETRIES.increment();
+                BoostOpsLog.d(TAG, "Retrying install referrer connection (attempt {})", retryScheduler.getRetryCount());
                 startConnection();
             }
-        }, 5000);
+        });
+        
+        if (!scheduled) {
+            cleanup();
+            BoostOpsLog.w(TAG, "Install referrer retries exhausted after {} attempts", retryScheduler.getRetryCount());
+        }
     }
     
     /**
      * Cleanup resources
+     * Ends the service connection and releases the client so the singleton keeps nothing heavy
      */
     private void cleanup() {
         try {
+            lookupInProgress = false;
             if (referrerClient != null && isConnected) {
                 referrerClient.endConnection();
-                isConnected = false;
             }
         } catch (Exception e) {
-            Log.e(TAG, "Error during cleanup", e);
+            BoostOpsLog.e(TAG, "Error during cleanup", e);
+        } finally {
+            isConnected = false;
+            referrerClient = null;
         }
     }
     
@@ -405,6 +566,49 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
         return hasProcessedReferrer;
     }
     
+    /**
+     * Get the persisted attribution payload from the first successful referrer query
+     * @return Attribution JSON, or null if the referrer has never been processed
+     */
+    public String getInstallReferrerSnapshot() {
+        return loadSnapshot() ? snapshotPayload : null;
+    }
+    
+    /**
+     * Force a fresh install referrer query, bypassing the persisted snapshot
+     * The new result replaces the snapshot and is sent to Unity as usual; ignored while
+     * a lookup is already running, since that lookup delivers a fresh result anyway
+     */
+    public synchronized void refreshInstallReferrer() {
+        if (lookupInProgress) {
+            BoostOpsLog.d(TAG, "Install referrer lookup already in progress, refresh ignored");
+            return;
+        }
+        
+        BoostOpsLog.d(TAG, "Forcing install referrer refresh");
+        retryScheduler.cancel();
+        cleanup();
+        clearSnapshot();
+        hasProcessedReferrer = false;
+        retryScheduler.reset();
+        initializeInstallReferrerClient();
+    }
+    
+    /**
+     * Get number of connection retries used to obtain the install referrer
+     */
+    public int getReferrerRetryCount() {
+        return retryScheduler.getRetryCount();
+    }
+    
+    /**
+     * Get total time from first connection attempt to referrer received (ms)
+     * @return Time in milliseconds, or -1 if the referrer has not been received
+     */
+    public long getTimeToReferrerMs() {
+        return retryScheduler.getTimeToSuccessMs();
+    }
+    
     /**
      * Manually trigger install referrer query (for testing)
      */
@@ -412,7 +616,7 @@ public class BoostOpsInstallReferrerNative implements InstallReferrerStateListen
         if (!hasProcessedReferrer) {
             initializeInstallReferrerClient();
         } else {
-            Log.d(TAG, "Install referrer already processed");
+            BoostOpsLog.d(TAG, "Install referrer already processed");
         }
     }
 } 
\ No newline at end of file
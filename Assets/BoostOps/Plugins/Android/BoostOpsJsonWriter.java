@@ -0,0 +1,246 @@
+package com.boostops.unity;
+
+/**
+ * Minimal streaming JSON encoder for native to Unity payloads
+ *
+ * Writes directly into a per-thread reusable StringBuilder instead of building an
+ * org.json tree. Output matches Android's JSONObject.toString() for the same fields
+ * in insertion order: null string fields are omitted and '/' is escaped.
+ *
+ * The per-thread writer is held from obtain() until toString() or release(). A nested
+ * obtain() on the same thread while it is held (e.g. a toJson() called mid-document)
+ * gets a fresh writer instead of resetting the outer document. Callers that can throw
+ * mid-document call release() in a finally block so the writer is not stranded.
+ */
+public final class BoostOpsJsonWriter {
+
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+    private static final int MAX_DEPTH = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<BoostOpsJsonWriter> THREAD_WRITER = new ThreadLocal<BoostOpsJsonWriter>() {
+        @Override
+        protected BoostOpsJsonWriter initialValue() {
+            return new BoostOpsJsonWriter();
+        }
+    };
+
+    private StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+    private final boolean[] hasElements = new boolean[MAX_DEPTH];
+    private int depth = 0;
+    private boolean afterName = false;
+    private boolean inUse = false;
+
+    /**
+     * Get the calling thread's writer, reset and ready for a new document
+     * Falls back to a new writer while the thread's writer is still building a document
+     */
+    public static BoostOpsJsonWriter obtain() {
+        BoostOpsJsonWriter writer = THREAD_WRITER.get();
+        if (writer.inUse) {
+            return new BoostOpsJsonWriter();
+        }
+        writer.inUse = true;
+        writer.reset();
+        return writer;
+    }
+
+    public BoostOpsJsonWriter() {
+    }
+
+    /**
+     * Clear the buffer for reuse, dropping it if a large payload inflated it
+     */
+    public void reset() {
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            buffer.setLength(0);
+        }
+        depth = 0;
+        afterName = false;
+    }
+
+    public BoostOpsJsonWriter beginObject() {
+        return open('{');
+    }
+
+    public BoostOpsJsonWriter endObject() {
+        return close('}');
+    }
+
+    public BoostOpsJsonWriter beginArray() {
+        return open('[');
+    }
+
+    public BoostOpsJsonWriter endArray() {
+        return close(']');
+    }
+
+    /**
+     * Write an object key; must be followed by a value or nested container
+     */
+    public BoostOpsJsonWriter name(String name) {
+        separator();
+        writeString(name);
+        buffer.append(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Write a string field, omitted entirely when value is null (JSONObject.put semantics)
+     */
+    public BoostOpsJsonWriter field(String name, String value) {
+        if (value == null) {
+            return this;
+        }
+        name(name);
+        afterName = false;
+        writeString(value);
+        return this;
+    }
+
+    public BoostOpsJsonWriter field(String name, long value) {
+        name(name);
+        afterName = false;
+        buffer.append(value);
+        return this;
+    }
+
+    public BoostOpsJsonWriter field(String name, boolean value) {
+        name(name);
+        afterName = false;
+        buffer.append(value);
+        return this;
+    }
+
+    /**
+     * Write a string array element (null is written as JSON null)
+     */
+    public BoostOpsJsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            buffer.append("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public BoostOpsJsonWriter value(long value) {
+        separator();
+        buffer.append(value);
+        return this;
+    }
+
+    /**
+     * Write pre-encoded JSON as an array element or after name()
+     */
+    public BoostOpsJsonWriter rawValue(String json) {
+        separator();
+        buffer.append(json);
+        return this;
+    }
+
+    /**
+     * Get the encoded document and release the writer for the next obtain()
+     */
+    @Override
+    public String toString() {
+        inUse = false;
+        return buffer.toString();
+    }
+
+    /**
+     * Hand the thread's writer back without producing output (safe after toString())
+     */
+    public void release() {
+        inUse = false;
+    }
+
+    private BoostOpsJsonWriter open(char bracket) {
+        separator();
+        buffer.append(bracket);
+        if (depth < MAX_DEPTH) {
+            hasElements[depth] = false;
+        }
+        depth++;
+        return this;
+    }
+
+    private BoostOpsJsonWriter close(char bracket) {
+        depth--;
+        buffer.append(bracket);
+        return this;
+    }
+
+    /**
+     * Emit a comma before every element except the first in a container
+     * Values directly after name() are not separated
+     */
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth == 0 || depth > MAX_DEPTH) {
+            return;
+        }
+        if (hasElements[depth - 1]) {
+            buffer.append(',');
+        } else {
+            hasElements[depth - 1] = true;
+        }
+    }
+
+    /**
+     * Quote and escape a string the same way Android's JSONStringer does
+     */
+    private void writeString(String value) {
+        StringBuilder out = buffer;
+        out.append('"');
+        int length = value.length();
+        int runStart = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '/') {
+                continue;
+            }
+
+            out.append(value, runStart, i);
+            runStart = i + 1;
+
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    out.append('\\').append(c);
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                default:
+                    out.append("\\u00").append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+                    break;
+            }
+        }
+
+        out.append(value, runStart, length);
+        out.append('"');
+    }
+}
@@ -0,0 +1,717 @@
+package com.boostops.unity;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped append-only key-value store for BoostOps persistent state
+ *
+ * Every mutation appends one CRC-checked record to a mapped log file, so a write is a
+ * memory copy rather than a full-file rewrite like SharedPreferences.commit(). The log
+ * is replayed into memory on open; a torn or corrupt tail is discarded. When superseded
+ * records dominate the file it is compacted into a fresh log and atomically renamed.
+ *
+ * Writes are visible to readers immediately. Durability is requested separately with
+ * syncAsync(), which coalesces every sync requested within a short window into one
+ * force() on the boostops-io thread, or with flush() on pause/quit.
+ *
+ * Record layout: [u32 bodyLength][u32 crc32(body)][body]
+ * Body layout:   [u8 op][u8 type][u16 keyLength][key utf8][u32 valueLength][value]
+ */
+public final class BoostOpsKeyValueStore {
+
+    private static final String TAG = "BoostOps-KVStore";
+
+    private static final String DIRECTORY = "boostops";
+    private static final String FILE_NAME = "boostops_kv.log";
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private static final int MAGIC = 0x424F4B56; // "BOKV"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+    private static final int MAX_RECORD_SIZE = 1024 * 1024;
+
+    // Compact once at least this much of the log is superseded records
+    private static final int COMPACT_MIN_GARBAGE_BYTES = 8 * 1024;
+
+    public static final long DEFAULT_SYNC_WINDOW_MS = 50;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_BOOLEAN = 3;
+    private static final byte TYPE_BYTES = 4;
+
+    // Well-known keys shared across plugins
+    public static final String KEY_BOOSTOPS_ID = "storage.boostops_id";
+    public static final String KEY_SIGNATURE_HASH = "storage.signature_hash";
+    public static final String KEY_STORED_TIMESTAMP = "storage.stored_timestamp";
+    public static final String KEY_SIGNING_CERT_HASH = "signing.cert_hash";
+    public static final String KEY_SIGNING_CERT_VERSION = "signing.version_code";
+    public static final String KEY_CLICK_ID = "attribution.click_id";
+    public static final String KEY_REFERRER_PAYLOAD = "referrer.payload";
+    public static final String KEY_REFERRER_RAW = "referrer.raw";
+    public static final String KEY_REFERRER_CLICK_TIMESTAMP = "referrer.click_ts";
+    public static final String KEY_REFERRER_INSTALL_TIMESTAMP = "referrer.install_ts";
+    public static final String KEY_REFERRER_SAVED_AT = "referrer.saved_at";
+    public static final String KEY_REFERRER_EVENT_QUEUED = "referrer.event_queued";
+
+    // Legacy SharedPreferences written by the referrer and read by IdentifierPlugin
+    private static final String LEGACY_ATTRIBUTION_PREFS = "boostops_attribution";
+    private static final String MIGRATION_MARKER_ATTRIBUTION = "migration.boostops_attribution";
+    private static final String[][] ATTRIBUTION_MIGRATION = {
+        { "install_referrer_click_id", KEY_CLICK_ID },
+        { "install_referrer_payload", KEY_REFERRER_PAYLOAD },
+        { "install_referrer_raw", KEY_REFERRER_RAW },
+        { "install_referrer_click_ts", KEY_REFERRER_CLICK_TIMESTAMP },
+        { "install_referrer_install_ts", KEY_REFERRER_INSTALL_TIMESTAMP },
+        { "install_referrer_saved_at", KEY_REFERRER_SAVED_AT }
+    };
+
+    private static BoostOpsKeyValueStore defaultStore;
+
+    private final File file;
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+    private final CRC32 crc = new CRC32();
+
+    private RandomAccessFile randomAccessFile;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private int garbageBytes;
+    private boolean dirty;
+
+    private final Runnable syncTask = this::runPendingSync;
+    private WriteHandle pendingSync;
+    private volatile long syncWindowMs = DEFAULT_SYNC_WINDOW_MS;
+
+    /**
+     * Completion handle for an asynchronous sync
+     */
+    public static final class WriteHandle {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile boolean successful = false;
+
+        /**
+         * Wait until the writes covered by this handle are on disk
+         * @return true if the sync completed successfully within the timeout
+         */
+        public boolean await(long timeoutMs) {
+            try {
+                return latch.await(timeoutMs, TimeUnit.MILLISECONDS) && successful;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        public boolean isDone() {
+            return latch.getCount() == 0;
+        }
+
+        public boolean isSuccessful() {
+            return isDone() && successful;
+        }
+
+        void complete(boolean success) {
+            successful = success;
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Get the process-wide store, opening it (and migrating legacy prefs) on first use
+     */
+    public static synchronized BoostOpsKeyValueStore getDefault(Context context) throws IOException {
+        if (defaultStore == null) {
+            Context appContext = context.getApplicationContext();
+            BoostOpsKeyValueStore store = open(appContext, FILE_NAME);
+            store.migrateFrom(
+                appContext.getSharedPreferences(LEGACY_ATTRIBUTION_PREFS, Context.MODE_PRIVATE),
+                MIGRATION_MARKER_ATTRIBUTION,
+                ATTRIBUTION_MIGRATION
+            );
+            defaultStore = store;
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Open a separate store file in the BoostOps data directory
+     * Callers own the returned instance and should keep a single one per file
+     */
+    public static BoostOpsKeyValueStore open(Context context, String fileName) throws IOException {
+        File directory = new File(context.getApplicationContext().getFilesDir(), DIRECTORY);
+        return new BoostOpsKeyValueStore(new File(directory, fileName));
+    }
+
+    /**
+     * Open (or create) a store backed by the given log file
+     */
+    public BoostOpsKeyValueStore(File file) throws IOException {
+        this.file = file;
+        File directory = file.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create store directory: " + directory);
+        }
+
+        // A leftover compaction file means the process died mid-compaction; the original is intact
+        File leftover = new File(file.getPath() + COMPACT_SUFFIX);
+        if (leftover.exists() && !leftover.delete()) {
+            BoostOpsLog.w(TAG, "Failed to delete leftover compaction file");
+        }
+
+        open();
+    }
+
+    // ---- Reads (lock-free, served from memory) ----
+
+    public String getString(String key, String defaultValue) {
+        Object value = values.get(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public byte[] getBytes(String key) {
+        Object value = values.get(key);
+        return value instanceof byte[] ? ((byte[]) value).clone() : null;
+    }
+
+    public boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * Raw typed value (String, Long, Boolean or byte[]), or null if absent
+     */
+    public Object get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Copy of all entries whose key starts with the given prefix
+     */
+    public Map<String, Object> getAll(String prefix) {
+        Map<String, Object> result = new HashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                Object value = entry.getValue();
+                result.put(entry.getKey(), value instanceof byte[] ? ((byte[]) value).clone() : value);
+            }
+        }
+        return result;
+    }
+
+    // ---- Writes (append to the mapped log) ----
+
+    public void putString(String key, String value) throws IOException {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        append(OP_PUT, TYPE_STRING, key, value.getBytes(StandardCharsets.UTF_8), value);
+    }
+
+    public void putLong(String key, long value) throws IOException {
+        byte[] encoded = new byte[8];
+        long remaining = value;
+        for (int i = 7; i >= 0; i--) {
+            encoded[i] = (byte) remaining;
+            remaining >>>= 8;
+        }
+        append(OP_PUT, TYPE_LONG, key, encoded, value);
+    }
+
+    public void putBoolean(String key, boolean value) throws IOException {
+        append(OP_PUT, TYPE_BOOLEAN, key, new byte[] { (byte) (value ? 1 : 0) }, value);
+    }
+
+    public void putBytes(String key, byte[] value) throws IOException {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        byte[] copy = value.clone();
+        append(OP_PUT, TYPE_BYTES, key, copy, copy);
+    }
+
+    public void remove(String key) throws IOException {
+        if (!values.containsKey(key)) {
+            return;
+        }
+        append(OP_DELETE, (byte) 0, key, new byte[0], null);
+    }
+
+    /**
+     * Flush mapped pages to disk (durability across power loss, not just process death)
+     */
+    public synchronized void sync() {
+        if (buffer != null) {
+            buffer.force();
+        }
+        dirty = false;
+    }
+
+    /**
+     * Set how long syncAsync() waits to gather further writes into the same sync
+     */
+    public void setSyncWindowMs(long windowMs) {
+        syncWindowMs = Math.max(0, windowMs);
+    }
+
+    /**
+     * Request a sync of everything written so far without blocking the caller
+     * All requests made before the window elapses share one force() and one handle
+     */
+    public synchronized WriteHandle syncAsync() {
+        if (pendingSync == null) {
+            pendingSync = new WriteHandle();
+            try {
+                BoostOpsExecutors.ioHandler().postDelayed(syncTask, syncWindowMs);
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Failed to schedule sync, syncing inline", e);
+                WriteHandle handle = pendingSync;
+                runPendingSync();
+                return handle;
+            }
+        }
+        return pendingSync;
+    }
+
+    /**
+     * Sync pending writes immediately (call on pause/quit)
+     */
+    public void flush() {
+        try {
+            BoostOpsExecutors.ioHandler().removeCallbacks(syncTask);
+        } catch (Exception e) {
+            BoostOpsLog.w(TAG, "Failed to cancel scheduled sync: {}", e.getMessage());
+        }
+        runPendingSync();
+    }
+
+    private synchronized void runPendingSync() {
+        WriteHandle handle = pendingSync;
+        pendingSync = null;
+
+        boolean success = true;
+        if (dirty) {
+            try {
+                sync();
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Store sync failed: {}", e.getMessage());
+                success = false;
+            }
+        }
+
+        if (handle != null) {
+            handle.complete(success);
+        }
+    }
+
+    /**
+     * Current size of the log in bytes (header plus live and superseded records)
+     */
+    public synchronized int getLogSize() {
+        return writePosition;
+    }
+
+    /**
+     * Copy keys from legacy SharedPreferences once, then remove them from the prefs file
+     *
+     * @param mapping Pairs of { prefsKey, storeKey }
+     */
+    public synchronized void migrateFrom(SharedPreferences prefs, String markerKey, String[][] mapping) {
+        if (contains(markerKey)) {
+            return;
+        }
+
+        try {
+            Map<String, ?> legacy = prefs.getAll();
+            SharedPreferences.Editor editor = prefs.edit();
+            int migrated = 0;
+
+            for (String[] pair : mapping) {
+                Object value = legacy.get(pair[0]);
+                if (value == null) {
+                    continue;
+                }
+                if (!contains(pair[1])) {
+                    if (value instanceof String) {
+                        putString(pair[1], (String) value);
+                    } else if (value instanceof Long) {
+                        putLong(pair[1], (Long) value);
+                    } else if (value instanceof Integer) {
+                        putLong(pair[1], (Integer) value);
+                    } else if (value instanceof Boolean) {
+                        putBoolean(pair[1], (Boolean) value);
+                    } else {
+                        continue;
+                    }
+                }
+                editor.remove(pair[0]);
+                migrated++;
+            }
+
+            putLong(markerKey, System.currentTimeMillis());
+            sync();
+            editor.apply();
+
+            if (migrated > 0) {
+                BoostOpsLog.d(TAG, "Migrated {} legacy preference(s) to {}", migrated, FILE_NAME);
+            }
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Legacy preference migration failed: {}", e.getMessage());
+        }
+    }
+
+    // ---- Log management ----
+
+    private synchronized void append(byte op, byte type, String key, byte[] value, Object memoryValue)
+            throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xFFFF) {
+            throw new IOException("Key too long: " + keyBytes.length + " bytes");
+        }
+
+        int bodyLength = 1 + 1 + 2 + keyBytes.length + 4 + value.length;
+        if (bodyLength > MAX_RECORD_SIZE) {
+            throw new IOException("Record too large: " + bodyLength + " bytes");
+        }
+        int recordLength = RECORD_HEADER_SIZE + bodyLength;
+
+        ensureCapacity(recordLength);
+
+        byte[] body = new byte[bodyLength];
+        int offset = 0;
+        body[offset++] = op;
+        body[offset++] = type;
+        body[offset++] = (byte) (keyBytes.length >>> 8);
+        body[offset++] = (byte) keyBytes.length;
+        System.arraycopy(keyBytes, 0, body, offset, keyBytes.length);
+        offset += keyBytes.length;
+        body[offset++] = (byte) (value.length >>> 24);
+        body[offset++] = (byte) (value.length >>> 16);
+        body[offset++] = (byte) (value.length >>> 8);
+        body[offset++] = (byte) value.length;
+        System.arraycopy(value, 0, body, offset, value.length);
+
+        crc.reset();
+        crc.update(body, 0, bodyLength);
+
+        // Body and checksum first, length last: a torn write leaves length 0 or a CRC mismatch
+        buffer.position(writePosition + RECORD_HEADER_SIZE);
+        buffer.put(body);
+        buffer.putInt(writePosition + 4, (int) crc.getValue());
+        buffer.putInt(writePosition, bodyLength);
+
+        // Terminator so stale bytes past the end are never replayed
+        int next = writePosition + recordLength;
+        if (next + 4 <= buffer.capacity()) {
+            buffer.putInt(next, 0);
+        }
+
+        Object previous = op == OP_PUT ? values.put(key, memoryValue) : values.remove(key);
+        if (previous != null || op == OP_DELETE) {
+            garbageBytes += recordLength;
+        }
+        writePosition = next;
+        dirty = true;
+
+        if (garbageBytes >= COMPACT_MIN_GARBAGE_BYTES && garbageBytes * 2 >= writePosition) {
+            // The record is already written; a failed compaction must not fail the put
+            tryCompact();
+        }
+    }
+
+    private void ensureCapacity(int recordLength) throws IOException {
+        int required = writePosition + recordLength + 4;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+
+        // Reclaim superseded records before growing the file; grow anyway if that fails
+        if (garbageBytes > 0 && tryCompact()) {
+            required = writePosition + recordLength + 4;
+            if (required <= buffer.capacity()) {
+                return;
+            }
+        }
+
+        int capacity = buffer.capacity();
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        remap(capacity);
+    }
+
+    private void open() throws IOException {
+        boolean fresh = map() < HEADER_SIZE;
+
+        if (fresh || buffer.getInt(0) != MAGIC) {
+            if (!fresh) {
+                BoostOpsLog.w(TAG, "Store header invalid, starting a new log");
+            }
+            initializeHeader();
+            return;
+        }
+
+        replay();
+    }
+
+    /**
+     * Map the log file, growing it to at least the initial capacity
+     * @return File length before mapping
+     */
+    private long map() throws IOException {
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+
+        long length = channel.size();
+        int capacity = (int) Math.max(INITIAL_CAPACITY, length);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        return length;
+    }
+
+    private void initializeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(HEADER_SIZE, 0);
+        values.clear();
+        writePosition = HEADER_SIZE;
+        garbageBytes = 0;
+    }
+
+    /**
+     * Rebuild the in-memory view from the log, stopping at the first invalid record
+     */
+    private void replay() {
+        int position = HEADER_SIZE;
+        int limit = buffer.capacity();
+        int records = 0;
+        garbageBytes = 0;
+
+        while (position + RECORD_HEADER_SIZE <= limit) {
+            int bodyLength = buffer.getInt(position);
+            if (bodyLength <= 0 || bodyLength > MAX_RECORD_SIZE
+                    || position + RECORD_HEADER_SIZE + bodyLength > limit) {
+                break;
+            }
+
+            byte[] body = new byte[bodyLength];
+            buffer.position(position + RECORD_HEADER_SIZE);
+            buffer.get(body);
+
+            crc.reset();
+            crc.update(body, 0, bodyLength);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                BoostOpsLog.w(TAG, "CRC mismatch at offset {}, discarding tail", position);
+                break;
+            }
+
+            if (!applyRecord(body)) {
+                BoostOpsLog.w(TAG, "Malformed record at offset {}, discarding tail", position);
+                break;
+            }
+
+            position += RECORD_HEADER_SIZE + bodyLength;
+            records++;
+        }
+
+        writePosition = position;
+        if (position + 4 <= limit) {
+            buffer.putInt(position, 0);
+        }
+
+        BoostOpsLog.d(TAG, "Replayed {} record(s), {} live key(s)", records, values.size());
+    }
+
+    private boolean applyRecord(byte[] body) {
+        if (body.length < 8) {
+            return false;
+        }
+
+        int offset = 0;
+        byte op = body[offset++];
+        byte type = body[offset++];
+        int keyLength = ((body[offset++] & 0xFF) << 8) | (body[offset++] & 0xFF);
+        if (offset + keyLength + 4 > body.length) {
+            return false;
+        }
+
+        String key = new String(body, offset, keyLength, StandardCharsets.UTF_8);
+        offset += keyLength;
+        int valueLength = ((body[offset++] & 0xFF) << 24) | ((body[offset++] & 0xFF) << 16)
+            | ((body[offset++] & 0xFF) << 8) | (body[offset++] & 0xFF);
+        if (valueLength < 0 || offset + valueLength != body.length) {
+            return false;
+        }
+
+        Object previous;
+        if (op == OP_DELETE) {
+            previous = values.remove(key);
+        } else if (op == OP_PUT) {
+            Object value = decodeValue(type, body, offset, valueLength);
+            if (value == null) {
+                return false;
+            }
+            previous = values.put(key, value);
+        } else {
+            return false;
+        }
+
+        if (previous != null || op == OP_DELETE) {
+            // Approximate: the superseded record's size is unknown, count the new one
+            garbageBytes += RECORD_HEADER_SIZE + body.length;
+        }
+        return true;
+    }
+
+    private static Object decodeValue(byte type, byte[] data, int offset, int length) {
+        switch (type) {
+            case TYPE_STRING:
+                return new String(data, offset, length, StandardCharsets.UTF_8);
+            case TYPE_LONG:
+                if (length != 8) {
+                    return null;
+                }
+                byte[] encoded = new byte[8];
+                System.arraycopy(data, offset, encoded, 0, 8);
+                return decodeLong(encoded);
+            case TYPE_BOOLEAN:
+                return length == 1 ? data[offset] != 0 : null;
+            case TYPE_BYTES:
+                byte[] bytes = new byte[length];
+                System.arraycopy(data, offset, bytes, 0, length);
+                return bytes;
+            default:
+                return null;
+        }
+    }
+
+    private static long decodeLong(byte[] encoded) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (encoded[i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Rewrite live entries into a fresh log and atomically replace the current one
+     */
+    private void compact() throws IOException {
+        File compactFile = new File(file.getPath() + COMPACT_SUFFIX);
+        int liveBytes = HEADER_SIZE;
+        Map<String, Object> live = new HashMap<>(values);
+
+        BoostOpsKeyValueStore compacted = null;
+        try {
+            if (compactFile.exists() && !compactFile.delete()) {
+                throw new IOException("Cannot delete stale compaction file");
+            }
+            compacted = new BoostOpsKeyValueStore(compactFile);
+            for (Map.Entry<String, Object> entry : live.entrySet()) {
+                compacted.putValue(entry.getKey(), entry.getValue());
+            }
+            compacted.sync();
+            liveBytes = compacted.writePosition;
+            compacted.close();
+            compacted = null;
+        } finally {
+            if (compacted != null) {
+                compacted.close();
+            }
+        }
+
+        close();
+        if (!compactFile.renameTo(file)) {
+            // Original log is untouched; remap it and carry on uncompacted
+            map();
+            throw new IOException("Failed to replace log with compacted copy");
+        }
+
+        // The in-memory view already matches the compacted log, so no replay is needed
+        map();
+        writePosition = liveBytes;
+        garbageBytes = 0;
+        BoostOpsLog.d(TAG, "Compacted store to {} bytes, {} live key(s)", liveBytes, values.size());
+    }
+
+    /**
+     * Compact, logging a failure instead of throwing
+     * @return true if the log was compacted
+     */
+    private boolean tryCompact() {
+        try {
+            compact();
+            return true;
+        } catch (IOException e) {
+            BoostOpsLog.w(TAG, "Store compaction failed, keeping the current log: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void putValue(String key, Object value) throws IOException {
+        if (value instanceof String) {
+            putString(key, (String) value);
+        } else if (value instanceof Long) {
+            putLong(key, (Long) value);
+        } else if (value instanceof Boolean) {
+            putBoolean(key, (Boolean) value);
+        } else if (value instanceof byte[]) {
+            putBytes(key, (byte[]) value);
+        }
+    }
+
+    private void remap(int capacity) throws IOException {
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private synchronized void close() {
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+            if (randomAccessFile != null) {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            BoostOpsLog.e(TAG, "Error closing store: {}", e.getMessage());
+        } finally {
+            buffer = null;
+            channel = null;
+            randomAccessFile = null;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.boostops.unity;
+
+import android.util.Log;
+
+/**
+ * Logging facade for all BoostOps native plugins
+ *
+ * - Runtime level set from Unity with setLogLevel() (default INFO)
+ * - Parameterized messages: "{}" placeholders are only formatted when the level is
+ *   enabled, so disabled calls build no strings (fixed-arity overloads avoid varargs arrays)
+ * - "{*}" placeholders redact identifiers (first 4 chars + length) unless redaction is off
+ * - A trailing Throwable argument without a placeholder is logged as the exception
+ *
+ * Release builds can strip debug/verbose logging entirely by setting DEBUG_LOGGING to
+ * false, or with R8: -assumenosideeffects class com.boostops.unity.BoostOpsLog { static void d(...); static void v(...); }
+ */
+public final class BoostOpsLog {
+
+    /**
+     * Compile-time switch: false removes every d()/v() call body from the build
+     */
+    public static final boolean DEBUG_LOGGING = true;
+
+    public static final int VERBOSE = Log.VERBOSE;
+    public static final int DEBUG = Log.DEBUG;
+    public static final int INFO = Log.INFO;
+    public static final int WARN = Log.WARN;
+    public static final int ERROR = Log.ERROR;
+    public static final int NONE = Integer.MAX_VALUE;
+
+    private static final int REDACT_VISIBLE_CHARS = 4;
+
+    private static volatile int level = INFO;
+    private static volatile boolean redactionEnabled = true;
+
+    private BoostOpsLog() {
+    }
+
+    /**
+     * Set the minimum level that is logged (Unity callable)
+     */
+    public static void setLogLevel(int newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * Set the minimum level by name: "verbose", "debug", "info", "warn", "error" or "none"
+     */
+    public static void setLogLevel(String name) {
+        if (name == null) {
+            return;
+        }
+        switch (name.trim().toLowerCase(java.util.Locale.US)) {
+            case "verbose": level = VERBOSE; break;
+            case "debug": level = DEBUG; break;
+            case "info": level = INFO; break;
+            case "warn": level = WARN; break;
+            case "error": level = ERROR; break;
+            case "none": level = NONE; break;
+            default: break;
+        }
+    }
+
+    public static int getLogLevel() {
+        return level;
+    }
+
+    /**
+     * Show identifiers in full for "{*}" placeholders (local debugging only)
+     */
+    public static void setRedactionEnabled(boolean enabled) {
+        redactionEnabled = enabled;
+    }
+
+    public static boolean isLoggable(int messageLevel) {
+        if (messageLevel <= DEBUG && !DEBUG_LOGGING) {
+            return false;
+        }
+        return messageLevel >= level;
+    }
+
+    /**
+     * Redact an identifier to its first characters and length, e.g. "GPA.…(24)"
+     */
+    public static String redact(String value) {
+        if (value == null) {
+            return "null";
+        }
+        if (!redactionEnabled) {
+            return value;
+        }
+        if (value.length() <= REDACT_VISIBLE_CHARS) {
+            return "…(" + value.length() + ")";
+        }
+        return value.substring(0, REDACT_VISIBLE_CHARS) + "…(" + value.length() + ")";
+    }
+
+    // ---- VERBOSE ----
+
+    public static void v(String tag, String message) {
+        if (DEBUG_LOGGING && isLoggable(VERBOSE)) {
+            Log.v(tag, message);
+        }
+    }
+
+    public static void v(String tag, String format, Object arg) {
+        if (DEBUG_LOGGING && isLoggable(VERBOSE)) {
+            write(VERBOSE, tag, format, new Object[] { arg });
+        }
+    }
+
+    public static void v(String tag, String format, Object arg1, Object arg2) {
+        if (DEBUG_LOGGING && isLoggable(VERBOSE)) {
+            write(VERBOSE, tag, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    public static void v(String tag, String format, Object... args) {
+        if (DEBUG_LOGGING && isLoggable(VERBOSE)) {
+            write(VERBOSE, tag, format, args);
+        }
+    }
+
+    // ---- DEBUG ----
+
+    public static void d(String tag, String message) {
+        if (DEBUG_LOGGING && isLoggable(DEBUG)) {
+            Log.d(tag, message);
+        }
+    }
+
+    public static void d(String tag, String format, Object arg) {
+        if (DEBUG_LOGGING && isLoggable(DEBUG)) {
+            write(DEBUG, tag, format, new Object[] { arg });
+        }
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2) {
+        if (DEBUG_LOGGING && isLoggable(DEBUG)) {
+            write(DEBUG, tag, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (DEBUG_LOGGING && isLoggable(DEBUG)) {
+            write(DEBUG, tag, format, new Object[] { arg1, arg2, arg3 });
+        }
+    }
+
+    public static void d(String tag, String format, Object... args) {
+        if (DEBUG_LOGGING && isLoggable(DEBUG)) {
+            write(DEBUG, tag, format, args);
+        }
+    }
+
+    // ---- INFO ----
+
+    public static void i(String tag, String message) {
+        if (isLoggable(INFO)) {
+            Log.i(tag, message);
+        }
+    }
+
+    public static void i(String tag, String format, Object arg) {
+        if (isLoggable(INFO)) {
+            write(INFO, tag, format, new Object[] { arg });
+        }
+    }
+
+    public static void i(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(INFO)) {
+            write(INFO, tag, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    public static void i(String tag, String format, Object... args) {
+        if (isLoggable(INFO)) {
+            write(INFO, tag, format, args);
+        }
+    }
+
+    // ---- WARN ----
+
+    public static void w(String tag, String message) {
+        if (isLoggable(WARN)) {
+            Log.w(tag, message);
+        }
+    }
+
+    public static void w(String tag, String format, Object arg) {
+        if (isLoggable(WARN)) {
+            write(WARN, tag, format, new Object[] { arg });
+        }
+    }
+
+    public static void w(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(WARN)) {
+            write(WARN, tag, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    public static void w(String tag, String format, Object... args) {
+        if (isLoggable(WARN)) {
+            write(WARN, tag, format, args);
+        }
+    }
+
+    // ---- ERROR ----
+
+    public static void e(String tag, String message) {
+        if (isLoggable(ERROR)) {
+            Log.e(tag, message);
+        }
+    }
+
+    public static void e(String tag, String format, Object arg) {
+        if (isLoggable(ERROR)) {
+            write(ERROR, tag, format, new Object[] { arg });
+        }
+    }
+
+    public static void e(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(ERROR)) {
+            write(ERROR, tag, format, new Object[] { arg1, arg2 });
+        }
+    }
+
+    public static void e(String tag, String format, Object... args) {
+        if (isLoggable(ERROR)) {
+            write(ERROR, tag, format, args);
+        }
+    }
+
+    // ---- Formatting ----
+
+    private static void write(int messageLevel, String tag, String format, Object[] args) {
+        Throwable throwable = null;
+        int placeholders = countPlaceholders(format);
+        if (args != null && args.length > placeholders && args[args.length - 1] instanceof Throwable) {
+            throwable = (Throwable) args[args.length - 1];
+        }
+
+        String message = format(format, args);
+        switch (messageLevel) {
+            case VERBOSE:
+                Log.v(tag, message, throwable);
+                break;
+            case DEBUG:
+                Log.d(tag, message, throwable);
+                break;
+            case INFO:
+                Log.i(tag, message, throwable);
+                break;
+            case WARN:
+                Log.w(tag, message, throwable);
+                break;
+            default:
+                Log.e(tag, message, throwable);
+                break;
+        }
+    }
+
+    /**
+     * Substitute "{}" and "{*}" placeholders in order; extra arguments are ignored
+     */
+    static String format(String format, Object[] args) {
+        if (format == null) {
+            return "null";
+        }
+        if (args == null || args.length == 0) {
+            return format;
+        }
+
+        StringBuilder out = new StringBuilder(format.length() + 16 * args.length);
+        int argIndex = 0;
+        int i = 0;
+        int length = format.length();
+
+        while (i < length) {
+            char c = format.charAt(i);
+            if (c == '{' && argIndex < args.length) {
+                if (i + 1 < length && format.charAt(i + 1) == '}') {
+                    out.append(args[argIndex++]);
+                    i += 2;
+                    continue;
+                }
+                if (i + 2 < length && format.charAt(i + 1) == '*' && format.charAt(i + 2) == '}') {
+                    Object arg = args[argIndex++];
+                    out.append(redact(arg != null ? arg.toString() : null));
+                    i += 3;
+                    continue;
+                }
+            }
+            out.append(c);
+            i++;
+        }
+        return out.toString();
+    }
+
+    private static int countPlaceholders(String format) {
+        if (format == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i + 1 < format.length(); i++) {
+            if (format.charAt(i) == '{'
+                    && (format.charAt(i + 1) == '}'
+                        || (i + 2 < format.length() && format.charAt(i + 1) == '*' && format.charAt(i + 2) == '}'))) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
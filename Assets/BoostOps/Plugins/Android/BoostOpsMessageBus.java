@@ -0,0 +1,295 @@
+package com.boostops.unity;
+
+import com.unity3d.player.UnityPlayer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared native to Unity message bus for all BoostOps plugins
+ *
+ * Plugins post messages to a lock-free queue instead of calling UnitySendMessage
+ * themselves. Queued messages are coalesced and delivered as one batched payload per
+ * flush interval to a single registered receiver, or drained by C# from Update().
+ *
+ * Without a registered receiver messages are delivered individually to their
+ * original GameObject/method so existing C# callbacks keep working.
+ *
+ * At most MAX_QUEUED_MESSAGES wait at once, so polling mode without a C# drain() cannot
+ * grow the queue without limit. Past the cap the oldest ordinary message is dropped
+ * (logged and counted); critical messages posted with postCritical(), such as purchase
+ * callbacks, are never evicted. Messages a failed UnitySendMessage did not deliver,
+ * including when the Unity native library is not loaded yet, are put back and retried
+ * on the next flush.
+ */
+public final class BoostOpsMessageBus {
+
+    private static final String TAG = "BoostOps-MessageBus";
+
+    // Roughly one frame at 60fps
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 16;
+    public static final int MAX_QUEUED_MESSAGES = 256;
+
+    private static final BoostOpsMetrics.Counter DROPPED = BoostOpsMetrics.counter("message_bus.dropped");
+
+    private static final ConcurrentLinkedQueue<Message> queue = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the whole queue
+    private static final AtomicInteger queued = new AtomicInteger();
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private static volatile String receiverGameObject;
+    private static volatile String receiverMethod;
+    private static volatile boolean pollingMode = false;
+    private static volatile long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+
+    /**
+     * A single queued message
+     */
+    static final class Message {
+        final String gameObject;
+        final String method;
+        final String payload;
+        final String coalesceKey;
+        final boolean critical;
+
+        Message(String gameObject, String method, String payload, String coalesceKey, boolean critical) {
+            this.gameObject = gameObject;
+            this.method = method;
+            this.payload = payload;
+            this.coalesceKey = coalesceKey;
+            this.critical = critical;
+        }
+    }
+
+    private BoostOpsMessageBus() {
+    }
+
+    /**
+     * Register the single C# receiver for batched delivery
+     * The receiver gets a JSON array of {"target","method","payload"} entries
+     *
+     * @param gameObject Unity GameObject name
+     * @param method Method on the GameObject that receives the batch
+     */
+    public static void registerReceiver(String gameObject, String method) {
+        receiverGameObject = gameObject;
+        receiverMethod = method;
+        BoostOpsLog.d(TAG, "Registered batch receiver: {}.{}", gameObject, method);
+        scheduleFlush();
+    }
+
+    /**
+     * Remove the batch receiver and fall back to per-message delivery
+     */
+    public static void unregisterReceiver() {
+        receiverGameObject = null;
+        receiverMethod = null;
+    }
+
+    /**
+     * Switch to polling mode: messages stay queued until drain() is called from C#
+     */
+    public static void setPollingMode(boolean enabled) {
+        pollingMode = enabled;
+        if (!enabled) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Set how long messages are buffered before an automatic flush
+     */
+    public static void setFlushIntervalMs(long intervalMs) {
+        flushIntervalMs = Math.max(0, intervalMs);
+    }
+
+    /**
+     * Queue a message for delivery
+     */
+    public static void post(String gameObject, String method, String payload) {
+        post(gameObject, method, payload, null);
+    }
+
+    /**
+     * Queue a message for delivery, replacing any undelivered message with the same coalesce key
+     *
+     * @param coalesceKey Key identifying messages where only the latest matters, or null
+     */
+    public static void post(String gameObject, String method, String payload, String coalesceKey) {
+        offer(new Message(gameObject, method, payload != null ? payload : "", coalesceKey, false));
+        scheduleFlush();
+    }
+
+    /**
+     * Queue a message the queue cap never evicts (purchase and replay callbacks)
+     */
+    public static void postCritical(String gameObject, String method, String payload) {
+        offer(new Message(gameObject, method, payload != null ? payload : "", null, true));
+        scheduleFlush();
+    }
+
+    /**
+     * Drain all pending messages as one batched JSON array (called from C# Update())
+     *
+     * @return JSON array of messages, or null if nothing is pending
+     */
+    public static String drain() {
+        List<Message> batch = takeBatch();
+        if (batch.isEmpty()) {
+            return null;
+        }
+        return encodeBatch(batch);
+    }
+
+    /**
+     * Number of messages waiting for delivery
+     */
+    public static int getPendingCount() {
+        return queued.get();
+    }
+
+    /**
+     * Deliver everything queued right now
+     */
+    public static void flush() {
+        flushScheduled.set(false);
+
+        if (pollingMode) {
+            return;
+        }
+
+        List<Message> batch = takeBatch();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        String gameObject = receiverGameObject;
+        String method = receiverMethod;
+        int delivered = 0;
+
+        try {
+            if (gameObject != null && method != null) {
+                UnityPlayer.UnitySendMessage(gameObject, method, encodeBatch(batch));
+                delivered = batch.size();
+            } else {
+                for (Message message : batch) {
+                    UnityPlayer.UnitySendMessage(message.gameObject, message.method, message.payload);
+                    delivered++;
+                }
+            }
+        } catch (Exception | LinkageError e) {
+            // Unity may not be ready yet (or its native library not loaded): keep what was
+            // not delivered for the next flush
+            BoostOpsLog.d(TAG, "Unity delivery failed, {} message(s) re-queued: {}",
+                batch.size() - delivered, e.getMessage());
+            requeue(batch.subList(delivered, batch.size()));
+        }
+    }
+
+    private static void scheduleFlush() {
+        if (pollingMode || queue.isEmpty()) {
+            return;
+        }
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            BoostOpsExecutors.ioHandler().postDelayed(BoostOpsMessageBus::flush, flushIntervalMs);
+        } catch (Exception e) {
+            flushScheduled.set(false);
+            BoostOpsLog.e(TAG, "Failed to schedule message flush", e);
+        }
+    }
+
+    private static void offer(Message message) {
+        queue.offer(message);
+        if (queued.incrementAndGet() > MAX_QUEUED_MESSAGES) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Drop the oldest non-critical message; the queue may exceed the cap if all are critical
+     */
+    private static void evictOldest() {
+        Iterator<Message> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Message oldest = iterator.next();
+            // remove() only succeeds for the thread that actually unlinks the message
+            if (!oldest.critical && queue.remove(oldest)) {
+                queued.decrementAndGet();
+                DROPPED.increment();
+                BoostOpsLog.w(TAG, "Message queue full, dropped {}.{}", oldest.gameObject, oldest.method);
+                return;
+            }
+        }
+    }
+
+    private static Message poll() {
+        Message message = queue.poll();
+        if (message != null) {
+            queued.decrementAndGet();
+        }
+        return message;
+    }
+
+    /**
+     * Put undelivered messages back ahead of anything posted since the batch was taken
+     */
+    private static void requeue(List<Message> undelivered) {
+        if (undelivered.isEmpty()) {
+            return;
+        }
+        List<Message> newer = new ArrayList<>();
+        Message message;
+        while ((message = poll()) != null) {
+            newer.add(message);
+        }
+        for (Message pending : undelivered) {
+            offer(pending);
+        }
+        for (Message pending : newer) {
+            offer(pending);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Take all queued messages, keeping only the latest message for each coalesce key
+     */
+    private static List<Message> takeBatch() {
+        List<Message> batch = new ArrayList<>();
+        Message message;
+        while ((message = poll()) != null) {
+            if (message.coalesceKey != null) {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (message.coalesceKey.equals(batch.get(i).coalesceKey)) {
+                        batch.remove(i);
+                        break;
+                    }
+                }
+            }
+            batch.add(message);
+        }
+        return batch;
+    }
+
+    private static String encodeBatch(List<Message> batch) {
+        BoostOpsJsonWriter writer = BoostOpsJsonWriter.obtain();
+        writer.beginArray();
+        for (Message message : batch) {
+            writer.beginObject()
+                .field("target", message.gameObject)
+                .field("method", message.method)
+                .field("payload", message.payload)
+                .endObject();
+        }
+        writer.endArray();
+        return writer.toString();
+    }
+}
@@ -0,0 +1,277 @@
+package com.boostops.unity;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lightweight metrics registry for the BoostOps native plugins
+ *
+ * - Counter: striped across padded AtomicLongArray slots by thread, so hot counters
+ *   on several threads do not contend on one cache line (LongAdder needs API 24)
+ * - Histogram: fixed millisecond buckets plus count/sum/max, recorded with a few
+ *   atomic adds and no allocation
+ * - Gauge: last value set
+ *
+ * Metrics are created once and held in static fields by the instrumented code, so
+ * recording never touches the registry map. Unity pulls everything as one compact JSON
+ * payload with getSnapshot().
+ */
+public final class BoostOpsMetrics {
+
+    // Upper bucket bounds in ms; the last bucket counts everything above 5s
+    private static final long[] BUCKET_BOUNDS_MS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000 };
+
+    private static final int STRIPES = 8;
+    // 8 longs = 64 bytes between live slots
+    private static final int STRIPE_PADDING = 8;
+
+    private static final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = true;
+
+    private BoostOpsMetrics() {
+    }
+
+    /**
+     * Monotonic counter striped by thread
+     */
+    public static final class Counter {
+        private final AtomicLongArray cells = new AtomicLongArray(STRIPES * STRIPE_PADDING);
+
+        public void increment() {
+            add(1);
+        }
+
+        public void add(long delta) {
+            if (enabled) {
+                cells.getAndAdd(stripe() * STRIPE_PADDING, delta);
+            }
+        }
+
+        public long get() {
+            long sum = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                sum += cells.get(i * STRIPE_PADDING);
+            }
+            return sum;
+        }
+
+        void reset() {
+            for (int i = 0; i < STRIPES; i++) {
+                cells.set(i * STRIPE_PADDING, 0);
+            }
+        }
+    }
+
+    /**
+     * Latency histogram with fixed millisecond buckets
+     */
+    public static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sumMs = new AtomicLong();
+        private final AtomicLong maxMs = new AtomicLong();
+
+        public void record(long valueMs) {
+            if (!enabled) {
+                return;
+            }
+            if (valueMs < 0) {
+                valueMs = 0;
+            }
+
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && valueMs > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            sumMs.addAndGet(valueMs);
+
+            long max;
+            while (valueMs > (max = maxMs.get()) && !maxMs.compareAndSet(max, valueMs)) {
+                // Retry until the larger value wins
+            }
+        }
+
+        /**
+         * Record the time since a start taken with BoostOpsMetrics.now()
+         */
+        public void recordSince(long startMs) {
+            record(now() - startMs);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        void write(BoostOpsJsonWriter writer) {
+            writer.beginObject()
+                .field("count", count.get())
+                .field("sum_ms", sumMs.get())
+                .field("max_ms", maxMs.get())
+                .name("buckets").beginArray();
+            for (int i = 0; i < buckets.length(); i++) {
+                writer.value(buckets.get(i));
+            }
+            writer.endArray().endObject();
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            sumMs.set(0);
+            maxMs.set(0);
+        }
+    }
+
+    /**
+     * Point-in-time value
+     */
+    public static final class Gauge {
+        private final AtomicLong value = new AtomicLong();
+
+        public void set(long newValue) {
+            if (enabled) {
+                value.set(newValue);
+            }
+        }
+
+        public long get() {
+            return value.get();
+        }
+
+        void reset() {
+            value.set(0);
+        }
+    }
+
+    /**
+     * Get or create a counter; hold the result in a static field rather than looking it up per use
+     */
+    public static Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            Counter created = new Counter();
+            counter = counters.putIfAbsent(name, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter;
+    }
+
+    public static Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            Histogram created = new Histogram();
+            histogram = histograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    public static Gauge gauge(String name) {
+        Gauge gauge = gauges.get(name);
+        if (gauge == null) {
+            Gauge created = new Gauge();
+            gauge = gauges.putIfAbsent(name, created);
+            if (gauge == null) {
+                gauge = created;
+            }
+        }
+        return gauge;
+    }
+
+    /**
+     * Monotonic clock for latency measurements (ms)
+     */
+    public static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Turn recording on or off (Unity callable); disabled metrics keep their last values
+     */
+    public static void setEnabled(boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Every metric as one JSON object (Unity callable)
+     * {"bucket_bounds_ms":[...],"counters":{...},"gauges":{...},"histograms":{"name":{"count","sum_ms","max_ms","buckets"}}}
+     */
+    public static String getSnapshot() {
+        BoostOpsJsonWriter writer = BoostOpsJsonWriter.obtain().beginObject();
+
+        writer.name("bucket_bounds_ms").beginArray();
+        for (long bound : BUCKET_BOUNDS_MS) {
+            writer.value(bound);
+        }
+        writer.endArray();
+
+        writer.name("counters").beginObject();
+        for (String name : sortedNames(counters)) {
+            writer.field(name, counters.get(name).get());
+        }
+        writer.endObject();
+
+        writer.name("gauges").beginObject();
+        for (String name : sortedNames(gauges)) {
+            writer.field(name, gauges.get(name).get());
+        }
+        writer.endObject();
+
+        writer.name("histograms").beginObject();
+        for (String name : sortedNames(histograms)) {
+            writer.name(name);
+            histograms.get(name).write(writer);
+        }
+        writer.endObject();
+
+        return writer.endObject().toString();
+    }
+
+    /**
+     * Zero every metric, e.g. after Unity has uploaded a snapshot (Unity callable)
+     */
+    public static void reset() {
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (Gauge gauge : gauges.values()) {
+            gauge.reset();
+        }
+    }
+
+    private static List<String> sortedNames(Map<String, ?> metrics) {
+        List<String> names = new ArrayList<>(metrics.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id ^ (id >>> 7)) & (STRIPES - 1));
+    }
+}
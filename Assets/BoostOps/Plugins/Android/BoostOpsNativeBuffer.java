@@ -0,0 +1,340 @@
+package com.boostops.unity;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Shared direct ByteBuffer bridge for bulk native to C# data
+ *
+ * Attribution, identifier and receipt records are written as binary frames into one
+ * direct buffer that C# reads in place through AndroidJNI.GetDirectBufferAddress(),
+ * skipping JNI string conversion and the JSON reparse of the string path. The bridge is
+ * off until C# calls enable(); until then every write is a no-op.
+ *
+ * Layout (little-endian):
+ *   header  [u32 magic "BOBB"][u16 version][u16 headerSize][u32 sequence][u32 used][u32 dropped][u32 reserved]
+ *   record  [u16 type][u16 fieldCount][u32 payloadLength][fields...]
+ *   field   [u8 kind] then nothing (NULL), [u16 length][UTF-8 bytes] (STRING) or [i64] (INT64)
+ *
+ * Reading from C#: read sequence (retry while odd), copy bytes [headerSize, used), re-read
+ * sequence and retry if it changed, then call acknowledge(used) so the space is reused.
+ * The Java side only orders its own stores; the C# reader needs its own acquire fences,
+ * e.g. Volatile.Read of the sequence, or Thread.MemoryBarrier() after the first sequence
+ * read and before the second.
+ * Records that do not fit are counted in "dropped" and must be fetched on the string path.
+ */
+public final class BoostOpsNativeBuffer {
+
+    private static final String TAG = "BoostOps-NativeBuffer";
+
+    public static final int MAGIC = 0x4242_4F42; // "BOBB" read as little-endian bytes
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    // Header offsets
+    static final int OFFSET_MAGIC = 0;
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_HEADER_SIZE = 6;
+    static final int OFFSET_SEQUENCE = 8;
+    static final int OFFSET_USED = 12;
+    static final int OFFSET_DROPPED = 16;
+
+    static final int RECORD_HEADER_SIZE = 8;
+
+    // Record types
+    public static final int TYPE_ATTRIBUTION = 1;
+    public static final int TYPE_IDENTIFIERS = 2;
+    public static final int TYPE_RECEIPT = 3;
+
+    // Field kinds
+    public static final int KIND_NULL = 0;
+    public static final int KIND_STRING = 1;
+    public static final int KIND_INT64 = 2;
+
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private static ByteBuffer buffer;
+    private static int sequence = 0;
+    private static int dropped = 0;
+
+    // Written and read around header updates to order them after record bytes
+    private static volatile int fence;
+
+    private BoostOpsNativeBuffer() {
+    }
+
+    /**
+     * Allocate the shared buffer and start writing records (Unity callable)
+     * @return Direct buffer to pass to AndroidJNI.GetDirectBufferAddress()
+     */
+    public static ByteBuffer enable(int capacity) {
+        // Outside the class lock: current() may start the attribution restore, which writes here
+        BoostOpsAttributionState.current();
+
+        synchronized (BoostOpsNativeBuffer.class) {
+            if (buffer != null) {
+                return buffer;
+            }
+
+            buffer = ByteBuffer.allocateDirect(Math.max(HEADER_SIZE + 256, capacity))
+                .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(OFFSET_MAGIC, MAGIC);
+            buffer.putShort(OFFSET_VERSION, (short) FORMAT_VERSION);
+            buffer.putShort(OFFSET_HEADER_SIZE, (short) HEADER_SIZE);
+            buffer.putInt(OFFSET_USED, HEADER_SIZE);
+            BoostOpsLog.d(TAG, "Native buffer enabled ({} bytes)", buffer.capacity());
+
+            // Attribution that arrived before C# attached; later updates write their own record
+            BoostOpsAttributionState.Snapshot attribution = BoostOpsAttributionState.peek();
+            if (attribution.isAvailable()) {
+                writeAttribution(attribution);
+            }
+            return buffer;
+        }
+    }
+
+    public static ByteBuffer enable() {
+        return enable(DEFAULT_CAPACITY);
+    }
+
+    public static synchronized boolean isEnabled() {
+        return buffer != null;
+    }
+
+    /**
+     * Release space for records C# has read
+     * @param readUpTo The "used" offset C# read up to; later records are kept
+     */
+    public static synchronized void acknowledge(int readUpTo) {
+        if (buffer == null) {
+            return;
+        }
+        int used = buffer.getInt(OFFSET_USED);
+        if (readUpTo <= HEADER_SIZE || readUpTo > used) {
+            return;
+        }
+
+        beginWrite();
+        int remaining = used - readUpTo;
+        for (int i = 0; i < remaining; i++) {
+            buffer.put(HEADER_SIZE + i, buffer.get(readUpTo + i));
+        }
+        buffer.putInt(OFFSET_USED, HEADER_SIZE + remaining);
+        endWrite();
+    }
+
+    /**
+     * Write the attribution snapshot as a TYPE_ATTRIBUTION record
+     * Fields: version, raw_referrer, click_id, utm_source, utm_medium, utm_campaign, utm_term,
+     * utm_content, campaign_id, source_app_id, boost_referrer, source_store_id,
+     * source_project_id, target_store_id, target_project_id, click_timestamp, install_timestamp
+     */
+    public static synchronized boolean writeAttribution(BoostOpsAttributionState.Snapshot snapshot) {
+        if (buffer == null || snapshot == null) {
+            return false;
+        }
+        int start = beginRecord(TYPE_ATTRIBUTION);
+        if (start < 0) {
+            return false;
+        }
+        return putLong(snapshot.version)
+            && putString(snapshot.rawReferrer)
+            && putString(snapshot.clickId)
+            && putString(snapshot.utmSource)
+            && putString(snapshot.utmMedium)
+            && putString(snapshot.utmCampaign)
+            && putString(snapshot.utmTerm)
+            && putString(snapshot.utmContent)
+            && putString(snapshot.campaignId)
+            && putString(snapshot.sourceAppId)
+            && putString(snapshot.boostReferrer)
+            && putString(snapshot.sourceStoreId)
+            && putString(snapshot.sourceProjectId)
+            && putString(snapshot.targetStoreId)
+            && putString(snapshot.targetProjectId)
+            && putLong(snapshot.clickTimestamp)
+            && putLong(snapshot.installTimestamp)
+            ? commitRecord(start, 17) : abortRecord();
+    }
+
+    /**
+     * Write an identifier bundle as a TYPE_IDENTIFIERS record
+     * Fields: app_set_id, gaid, click_id, locale, then each one's IdentifierPlugin status code
+     */
+    public static synchronized boolean writeIdentifiers(String appSetId, String gaid, String clickId, String locale,
+                                                        int appSetStatus, int gaidStatus,
+                                                        int clickIdStatus, int localeStatus) {
+        if (buffer == null) {
+            return false;
+        }
+        int start = beginRecord(TYPE_IDENTIFIERS);
+        if (start < 0) {
+            return false;
+        }
+        return putString(appSetId)
+            && putString(gaid)
+            && putString(clickId)
+            && putString(locale)
+            && putLong(appSetStatus)
+            && putLong(gaidStatus)
+            && putLong(clickIdStatus)
+            && putLong(localeStatus)
+            ? commitRecord(start, 8) : abortRecord();
+    }
+
+    /**
+     * Write a captured purchase as a TYPE_RECEIPT record
+     * Fields: journal_id, product_id, order_id, purchase_token, purchase_data, signature, captured_at
+     */
+    public static synchronized boolean writeReceipt(String journalId, String productId, String orderId,
+                                                    String purchaseToken, String purchaseData,
+                                                    String signature, long capturedAtMs) {
+        if (buffer == null) {
+            return false;
+        }
+        int start = beginRecord(TYPE_RECEIPT);
+        if (start < 0) {
+            return false;
+        }
+        return putString(journalId)
+            && putString(productId)
+            && putString(orderId)
+            && putString(purchaseToken)
+            && putString(purchaseData)
+            && putString(signature)
+            && putLong(capturedAtMs)
+            ? commitRecord(start, 7) : abortRecord();
+    }
+
+    /**
+     * Records lost because the buffer was full
+     */
+    public static synchronized int getDroppedCount() {
+        return dropped;
+    }
+
+    // ---- Framing ----
+
+    /**
+     * Position the buffer after a reserved record header
+     * @return Record start offset, or -1 if not even the header fits
+     */
+    private static int beginRecord(int type) {
+        int start = buffer.getInt(OFFSET_USED);
+        if (start + RECORD_HEADER_SIZE > buffer.capacity()) {
+            abortRecord();
+            return -1;
+        }
+        buffer.putShort(start, (short) type);
+        buffer.position(start + RECORD_HEADER_SIZE);
+        return start;
+    }
+
+    private static boolean commitRecord(int start, int fieldCount) {
+        int end = buffer.position();
+        buffer.putShort(start + 2, (short) fieldCount);
+        buffer.putInt(start + 4, end - start - RECORD_HEADER_SIZE);
+
+        beginWrite();
+        buffer.putInt(OFFSET_USED, end);
+        endWrite();
+        return true;
+    }
+
+    private static boolean abortRecord() {
+        dropped++;
+        buffer.putInt(OFFSET_DROPPED, dropped);
+        BoostOpsLog.w(TAG, "Native buffer full, record dropped ({} total)", dropped);
+        return false;
+    }
+
+    private static boolean putLong(long value) {
+        if (buffer.remaining() < 9) {
+            return false;
+        }
+        buffer.put((byte) KIND_INT64);
+        buffer.putLong(value);
+        return true;
+    }
+
+    /**
+     * Encode a string as UTF-8 straight into the buffer, without an intermediate byte[]
+     */
+    private static boolean putString(String value) {
+        if (value == null) {
+            if (!buffer.hasRemaining()) {
+                return false;
+            }
+            buffer.put((byte) KIND_NULL);
+            return true;
+        }
+        if (buffer.remaining() < 3) {
+            return false;
+        }
+
+        buffer.put((byte) KIND_STRING);
+        int lengthOffset = buffer.position();
+        buffer.position(lengthOffset + 2);
+
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, value.charAt(++i));
+            } else if (Character.isSurrogate(c)) {
+                codePoint = '?';
+            }
+
+            int needed = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (buffer.remaining() < needed) {
+                return false;
+            }
+            if (needed == 1) {
+                buffer.put((byte) codePoint);
+            } else if (needed == 2) {
+                buffer.put((byte) (0xC0 | (codePoint >> 6)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (needed == 3) {
+                buffer.put((byte) (0xE0 | (codePoint >> 12)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            }
+        }
+
+        int byteLength = buffer.position() - lengthOffset - 2;
+        if (byteLength > MAX_STRING_BYTES) {
+            return false;
+        }
+        buffer.putShort(lengthOffset, (short) byteLength);
+        return true;
+    }
+
+    // ---- Sequence lock ----
+
+    private static void beginWrite() {
+        buffer.putInt(OFFSET_SEQUENCE, ++sequence);
+        publishFence();
+    }
+
+    private static void endWrite() {
+        publishFence();
+        buffer.putInt(OFFSET_SEQUENCE, ++sequence);
+    }
+
+    /**
+     * Volatile write+read: orders this thread's plain buffer stores around the sequence
+     * updates on the Java side only. It does not fence the C# reader, which must issue its
+     * own acquire barrier when reading the sequence (see the class comment).
+     */
+    private static int publishFence() {
+        fence = sequence;
+        return fence;
+    }
+}
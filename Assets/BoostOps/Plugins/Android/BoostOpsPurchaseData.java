@@ -0,0 +1,136 @@
+package com.boostops.sdk;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.boostops.unity.BoostOpsJsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Fields extracted from a Google Play purchase JSON in a single streaming pass
+ *
+ * Replaces building a full JSONObject per field: the purchase JSON is scanned once
+ * with android.util.JsonReader, unneeded values are skipped without materializing them
+ * and the scan stops as soon as every field has been seen.
+ */
+final class BoostOpsPurchaseData {
+
+    private static final int FIELD_COUNT = 5;
+
+    final String productId;
+    final String orderId;
+    final String purchaseToken;
+    final long purchaseTime;
+    final int quantity;
+
+    private BoostOpsPurchaseData(String productId, String orderId, String purchaseToken,
+                                 long purchaseTime, int quantity) {
+        this.productId = productId;
+        this.orderId = orderId;
+        this.purchaseToken = purchaseToken;
+        this.purchaseTime = purchaseTime;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Parse purchase JSON as returned by Google Play Billing (Purchase.getOriginalJson())
+     * Newer Billing versions send "productIds" as an array; its first entry is used
+     *
+     * @return Extracted fields, or null if the input is not a JSON object
+     */
+    static BoostOpsPurchaseData parse(String purchaseJson) {
+        if (purchaseJson == null || purchaseJson.isEmpty()) {
+            return null;
+        }
+
+        String productId = null;
+        String orderId = null;
+        String purchaseToken = null;
+        long purchaseTime = 0;
+        int quantity = 1;
+        int seen = 0;
+
+        JsonReader reader = new JsonReader(new StringReader(purchaseJson));
+        try {
+            reader.beginObject();
+            while (seen < FIELD_COUNT && reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case "productId":
+                        if (productId == null) {
+                            productId = reader.nextString();
+                            seen++;
+                        } else {
+                            reader.skipValue();
+                        }
+                        break;
+                    case "productIds":
+                        if (productId == null && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                            reader.beginArray();
+                            if (reader.hasNext()) {
+                                productId = reader.nextString();
+                                seen++;
+                            }
+                            while (reader.hasNext()) {
+                                reader.skipValue();
+                            }
+                            reader.endArray();
+                        } else {
+                            reader.skipValue();
+                        }
+                        break;
+                    case "orderId":
+                        orderId = reader.nextString();
+                        seen++;
+                        break;
+                    case "purchaseToken":
+                        purchaseToken = reader.nextString();
+                        seen++;
+                        break;
+                    case "purchaseTime":
+                        purchaseTime = reader.nextLong();
+                        seen++;
+                        break;
+                    case "quantity":
+                        quantity = reader.nextInt();
+                        seen++;
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            return null;
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        return new BoostOpsPurchaseData(productId, orderId, purchaseToken, purchaseTime, quantity);
+    }
+
+    /**
+     * Encode as a compact JSON object for Unity
+     */
+    String toJson() {
+        return BoostOpsJsonWriter.obtain()
+            .beginObject()
+            .field("productId", productId)
+            .field("orderId", orderId)
+            .field("purchaseToken", purchaseToken)
+            .field("purchaseTime", purchaseTime)
+            .field("quantity", quantity)
+            .endObject()
+            .toString();
+    }
+}
@@ -0,0 +1,363 @@
+package com.boostops.sdk;
+
+import android.content.Context;
+
+import com.boostops.unity.BoostOpsJsonWriter;
+import com.boostops.unity.BoostOpsKeyValueStore;
+import com.boostops.unity.BoostOpsLog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent deduplication index for captured purchases
+ *
+ * Unity IAP re-delivers pending purchases on restart and after billing reconnects.
+ * Every orderId and purchaseToken seen is remembered in a bounded LRU persisted to its
+ * own BoostOpsKeyValueStore file, so repeat deliveries are rejected natively before
+ * they reach C#.
+ *
+ * Long-lived installs can also enable a compact Bloom filter that remembers keys after
+ * they fall out of the LRU. It can report false positives (about 0.1% at 4,000 keys),
+ * which would drop a genuine purchase, so it is off by default. Only the filter words a
+ * new key changes are written back, one store key per 64-bit word.
+ */
+final class BoostOpsPurchaseDedup {
+
+    private static final String TAG = "BoostOps.PurchaseDedup";
+    private static final String FILE_NAME = "purchase_dedup.log";
+    private static final String KEY_PREFIX = "seen.";
+    // Bloom filter words are stored one key each, so adding a key rewrites a few longs
+    private static final String KEY_BLOOM_ENABLED = "bloom_enabled";
+    private static final String KEY_BLOOM_WORD_PREFIX = "bloom.";
+
+    static final int DEFAULT_CAPACITY = 512;
+
+    // 64K-bit (8 KB) filter with 7 probes
+    private static final int BLOOM_BITS = 1 << 16;
+    private static final int BLOOM_HASHES = 7;
+
+    private final BoostOpsKeyValueStore store;
+
+    // Access-ordered: iteration runs from least to most recently seen
+    private final LinkedHashMap<String, Long> recent = new LinkedHashMap<>(64, 0.75f, true);
+    private int capacity = DEFAULT_CAPACITY;
+
+    private long[] bloom;
+    private boolean bloomEnabled = false;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong orderIdHits = new AtomicLong();
+    private final AtomicLong purchaseTokenHits = new AtomicLong();
+    private final AtomicLong bloomHits = new AtomicLong();
+
+    /**
+     * Create an index, restoring persisted keys when a store is given
+     * @param store Backing store, or null for an in-memory index
+     */
+    BoostOpsPurchaseDedup(BoostOpsKeyValueStore store) {
+        this.store = store;
+        if (store != null) {
+            restore();
+        }
+    }
+
+    static BoostOpsPurchaseDedup open(Context context) throws IOException {
+        return new BoostOpsPurchaseDedup(BoostOpsKeyValueStore.open(context, FILE_NAME));
+    }
+
+    boolean isPersistent() {
+        return store != null;
+    }
+
+    /**
+     * Take over the keys and settings of a memory-only index used before a context existed
+     */
+    synchronized void mergeFrom(BoostOpsPurchaseDedup memory) {
+        List<Map.Entry<String, Long>> entries;
+        int memoryCapacity;
+        long[] memoryBloom;
+        synchronized (memory) {
+            entries = new ArrayList<>(memory.recent.entrySet());
+            memoryCapacity = memory.capacity;
+            memoryBloom = memory.bloomEnabled && memory.bloom != null ? memory.bloom.clone() : null;
+        }
+
+        capacity = Math.max(capacity, memoryCapacity);
+        if (memoryBloom != null) {
+            setBloomFilterEnabled(true);
+            for (int i = 0; i < bloom.length; i++) {
+                long merged = bloom[i] | memoryBloom[i];
+                if (merged != bloom[i]) {
+                    bloom[i] = merged;
+                    try {
+                        store.putLong(KEY_BLOOM_WORD_PREFIX + i, merged);
+                    } catch (IOException e) {
+                        BoostOpsLog.e(TAG, "Failed to persist Bloom filter word: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, Long> entry : entries) {
+            if (!recent.containsKey(entry.getKey())) {
+                remember(entry.getKey(), entry.getValue());
+            }
+        }
+        trimToCapacity();
+        store.syncAsync();
+
+        accepted.addAndGet(memory.accepted.get());
+        orderIdHits.addAndGet(memory.orderIdHits.get());
+        purchaseTokenHits.addAndGet(memory.purchaseTokenHits.get());
+        bloomHits.addAndGet(memory.bloomHits.get());
+    }
+
+    synchronized void setCapacity(int newCapacity) {
+        capacity = Math.max(1, newCapacity);
+        trimToCapacity();
+    }
+
+    /**
+     * Enable the Bloom filter fallback for keys evicted from the LRU
+     */
+    synchronized void setBloomFilterEnabled(boolean enabled) {
+        bloomEnabled = enabled;
+        if (enabled && bloom == null) {
+            bloom = new long[BLOOM_BITS / 64];
+            // Seed with everything the LRU still remembers
+            for (String key : recent.keySet()) {
+                bloomAdd(key, false);
+            }
+            if (store != null) {
+                try {
+                    for (int i = 0; i < bloom.length; i++) {
+                        if (bloom[i] != 0) {
+                            store.putLong(KEY_BLOOM_WORD_PREFIX + i, bloom[i]);
+                        }
+                    }
+                    store.putBoolean(KEY_BLOOM_ENABLED, true);
+                    store.syncAsync();
+                } catch (IOException e) {
+                    BoostOpsLog.e(TAG, "Failed to persist Bloom filter: {}", e.getMessage());
+                }
+            }
+        } else if (!enabled && bloom != null) {
+            bloom = null;
+            if (store != null) {
+                try {
+                    store.remove(KEY_BLOOM_ENABLED);
+                    for (String key : store.getAll(KEY_BLOOM_WORD_PREFIX).keySet()) {
+                        store.remove(key);
+                    }
+                    store.syncAsync();
+                } catch (IOException e) {
+                    BoostOpsLog.e(TAG, "Failed to drop Bloom filter: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Check a delivery against every orderId and purchaseToken seen before
+     * Nothing is recorded; call record() once the purchase has been journaled
+     * @return true if the purchase was already delivered
+     */
+    synchronized boolean isDuplicate(String orderId, String purchaseToken) {
+        String orderKey = orderKeyFor(orderId);
+        String tokenKey = tokenKeyFor(purchaseToken);
+
+        if (orderKey != null && recent.containsKey(orderKey)) {
+            recent.get(orderKey);
+            orderIdHits.incrementAndGet();
+            return true;
+        }
+        if (tokenKey != null && recent.containsKey(tokenKey)) {
+            recent.get(tokenKey);
+            purchaseTokenHits.incrementAndGet();
+            return true;
+        }
+        if (bloomEnabled && bloom != null
+                && ((orderKey != null && bloomMightContain(orderKey))
+                    || (tokenKey != null && bloomMightContain(tokenKey)))) {
+            bloomHits.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remember a delivered purchase so later deliveries are reported as duplicates
+     */
+    synchronized void record(String orderId, String purchaseToken) {
+        String orderKey = orderKeyFor(orderId);
+        String tokenKey = tokenKeyFor(purchaseToken);
+        accepted.incrementAndGet();
+
+        if (orderKey == null && tokenKey == null) {
+            // Nothing to key on: cannot tell deliveries apart
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (orderKey != null) {
+            remember(orderKey, now);
+        }
+        if (tokenKey != null) {
+            remember(tokenKey, now);
+        }
+        trimToCapacity();
+        if (store != null) {
+            store.syncAsync();
+        }
+    }
+
+    /**
+     * Dedup counters as a JSON object
+     */
+    String statsJson() {
+        int size;
+        boolean bloomOn;
+        synchronized (this) {
+            size = recent.size();
+            bloomOn = bloomEnabled;
+        }
+        return BoostOpsJsonWriter.obtain()
+            .beginObject()
+            .field("accepted", accepted.get())
+            .field("duplicate_order_id", orderIdHits.get())
+            .field("duplicate_purchase_token", purchaseTokenHits.get())
+            .field("duplicate_bloom", bloomHits.get())
+            .field("indexed_keys", size)
+            .field("bloom_enabled", bloomOn)
+            .endObject()
+            .toString();
+    }
+
+    long getDuplicateCount() {
+        return orderIdHits.get() + purchaseTokenHits.get() + bloomHits.get();
+    }
+
+    private void remember(String key, long now) {
+        recent.put(key, now);
+        if (bloomEnabled && bloom != null) {
+            bloomAdd(key, true);
+        }
+        if (store != null) {
+            try {
+                store.putLong(KEY_PREFIX + key, now);
+            } catch (IOException e) {
+                BoostOpsLog.e(TAG, "Failed to persist dedup key: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void trimToCapacity() {
+        Iterator<Map.Entry<String, Long>> it = recent.entrySet().iterator();
+        while (recent.size() > capacity && it.hasNext()) {
+            String key = it.next().getKey();
+            it.remove();
+            if (store != null) {
+                try {
+                    store.remove(KEY_PREFIX + key);
+                } catch (IOException e) {
+                    BoostOpsLog.e(TAG, "Failed to evict dedup key: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the LRU from the store in first-seen order
+     */
+    private void restore() {
+        List<Map.Entry<String, Object>> entries = new ArrayList<>(store.getAll(KEY_PREFIX).entrySet());
+        Collections.sort(entries, (a, b) -> {
+            long left = a.getValue() instanceof Long ? (Long) a.getValue() : 0;
+            long right = b.getValue() instanceof Long ? (Long) b.getValue() : 0;
+            return left < right ? -1 : (left == right ? 0 : 1);
+        });
+        for (Map.Entry<String, Object> entry : entries) {
+            Object seenAt = entry.getValue();
+            recent.put(entry.getKey().substring(KEY_PREFIX.length()), seenAt instanceof Long ? (Long) seenAt : 0L);
+        }
+
+        if (store.getBoolean(KEY_BLOOM_ENABLED, false)) {
+            bloom = new long[BLOOM_BITS / 64];
+            for (Map.Entry<String, Object> entry : store.getAll(KEY_BLOOM_WORD_PREFIX).entrySet()) {
+                try {
+                    int index = Integer.parseInt(entry.getKey().substring(KEY_BLOOM_WORD_PREFIX.length()));
+                    if (index >= 0 && index < bloom.length && entry.getValue() instanceof Long) {
+                        bloom[index] = (Long) entry.getValue();
+                    }
+                } catch (NumberFormatException e) {
+                    BoostOpsLog.w(TAG, "Ignoring malformed Bloom filter key: {}", entry.getKey());
+                }
+            }
+            bloomEnabled = true;
+        }
+
+        BoostOpsLog.d(TAG, "Restored {} dedup key(s){}", recent.size(), (bloomEnabled ? " and Bloom filter" : ""));
+    }
+
+    /**
+     * Set the key's bits, writing back each word that changed when persist is set
+     */
+    private void bloomAdd(String key, boolean persist) {
+        int h1 = key.hashCode();
+        int h2 = secondaryHash(key);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+            int word = bit >>> 6;
+            long updated = bloom[word] | (1L << (bit & 63));
+            if (updated == bloom[word]) {
+                continue;
+            }
+            bloom[word] = updated;
+            if (persist && store != null) {
+                try {
+                    store.putLong(KEY_BLOOM_WORD_PREFIX + word, updated);
+                } catch (IOException e) {
+                    BoostOpsLog.e(TAG, "Failed to persist Bloom filter word: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private boolean bloomMightContain(String key) {
+        int h1 = key.hashCode();
+        int h2 = secondaryHash(key);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+            if ((bloom[bit >>> 6] & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a over the key's chars, forced odd so the probe sequence covers the table
+     */
+    private static String orderKeyFor(String orderId) {
+        return orderId != null && !orderId.isEmpty() ? "order:" + orderId : null;
+    }
+
+    private static String tokenKeyFor(String purchaseToken) {
+        return purchaseToken != null && !purchaseToken.isEmpty() ? "token:" + purchaseToken : null;
+    }
+
+    private static int secondaryHash(String key) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash | 1;
+    }
+}
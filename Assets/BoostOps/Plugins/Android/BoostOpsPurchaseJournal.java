@@ -0,0 +1,166 @@
+package com.boostops.sdk;
+
+import android.content.Context;
+
+import com.boostops.unity.BoostOpsKeyValueStore;
+import com.boostops.unity.BoostOpsLog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-ahead journal of captured purchases
+ *
+ * Every captured receipt is appended to a dedicated BoostOpsKeyValueStore log before
+ * Unity is notified, and stays there until C# acknowledges that TrackPurchase() has
+ * handled it. Entries still unacknowledged on the next launch are replayed, so a
+ * process death between capture and upload no longer loses the revenue event.
+ *
+ * Disk syncs are grouped through the store's sync window, so a burst of purchases
+ * costs one fsync rather than one per purchase.
+ *
+ * The journal is bounded: entries older than MAX_AGE_MS, and the oldest beyond
+ * MAX_ENTRIES, are pruned on open so a C# layer that never acknowledges cannot grow
+ * it without limit.
+ */
+final class BoostOpsPurchaseJournal {
+
+    private static final String TAG = "BoostOps.PurchaseJournal";
+    private static final String FILE_NAME = "purchase_journal.log";
+    private static final String KEY_PREFIX = "purchase.";
+
+    static final int MAX_ENTRIES = 100;
+    static final long MAX_AGE_MS = 30L * 24 * 60 * 60 * 1000;
+
+    private final BoostOpsKeyValueStore store;
+
+    private BoostOpsPurchaseJournal(BoostOpsKeyValueStore store) {
+        this.store = store;
+    }
+
+    static BoostOpsPurchaseJournal open(Context context) throws IOException {
+        BoostOpsPurchaseJournal journal = new BoostOpsPurchaseJournal(BoostOpsKeyValueStore.open(context, FILE_NAME));
+        journal.prune(System.currentTimeMillis());
+        return journal;
+    }
+
+    /**
+     * Record a captured purchase; durable once the returned handle completes
+     */
+    BoostOpsKeyValueStore.WriteHandle append(BoostOpsReceiptCache.CapturedPurchase purchase) throws IOException {
+        store.putString(KEY_PREFIX + purchase.slotKey, purchase.toJson());
+        if (store.getAll(KEY_PREFIX).size() > MAX_ENTRIES) {
+            prune(System.currentTimeMillis());
+        }
+        return store.syncAsync();
+    }
+
+    /**
+     * Find the journal ID of a pending purchase by its Google Play order ID
+     * @return The journalId, or null if no pending entry has that order ID
+     */
+    String findJournalId(String orderId) {
+        if (orderId == null || orderId.isEmpty()) {
+            return null;
+        }
+        for (BoostOpsReceiptCache.CapturedPurchase purchase : pending()) {
+            if (orderId.equals(purchase.orderId)) {
+                return purchase.slotKey;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mark a purchase as handled by C# so it is not replayed
+     * @return true if the entry was pending
+     */
+    boolean acknowledge(String journalId) {
+        if (journalId == null || !store.contains(KEY_PREFIX + journalId)) {
+            return false;
+        }
+        try {
+            store.remove(KEY_PREFIX + journalId);
+            store.syncAsync();
+            return true;
+        } catch (IOException e) {
+            BoostOpsLog.e(TAG, "Failed to acknowledge purchase: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Drop unreadable entries, entries past MAX_AGE_MS and the oldest beyond MAX_ENTRIES
+     */
+    void prune(long now) {
+        List<BoostOpsReceiptCache.CapturedPurchase> purchases = pending();
+        int excess = purchases.size() - MAX_ENTRIES;
+        int pruned = 0;
+        try {
+            for (String key : store.getAll(KEY_PREFIX).keySet()) {
+                if (!containsKey(purchases, key)) {
+                    store.remove(key);
+                    pruned++;
+                }
+            }
+            for (int i = 0; i < purchases.size(); i++) {
+                BoostOpsReceiptCache.CapturedPurchase purchase = purchases.get(i);
+                if (i < excess || now - purchase.capturedAtMs > MAX_AGE_MS) {
+                    store.remove(KEY_PREFIX + purchase.slotKey);
+                    pruned++;
+                }
+            }
+        } catch (IOException e) {
+            BoostOpsLog.e(TAG, "Failed to prune purchase journal: {}", e.getMessage());
+        }
+
+        if (pruned > 0) {
+            store.syncAsync();
+            BoostOpsLog.w(TAG, "Pruned {} stale purchase journal entries", pruned);
+        }
+    }
+
+    private static boolean containsKey(List<BoostOpsReceiptCache.CapturedPurchase> purchases, String key) {
+        for (BoostOpsReceiptCache.CapturedPurchase purchase : purchases) {
+            if (key.equals(KEY_PREFIX + purchase.slotKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unacknowledged purchases, oldest first
+     */
+    List<BoostOpsReceiptCache.CapturedPurchase> pending() {
+        List<BoostOpsReceiptCache.CapturedPurchase> purchases = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : store.getAll(KEY_PREFIX).entrySet()) {
+            BoostOpsReceiptCache.CapturedPurchase purchase =
+                BoostOpsReceiptCache.CapturedPurchase.fromJson((String) entry.getValue());
+            if (purchase != null) {
+                purchases.add(purchase);
+            } else {
+                BoostOpsLog.w(TAG, "Dropping unreadable journal entry: {}", entry.getKey());
+            }
+        }
+
+        Collections.sort(purchases, new Comparator<BoostOpsReceiptCache.CapturedPurchase>() {
+            @Override
+            public int compare(BoostOpsReceiptCache.CapturedPurchase a, BoostOpsReceiptCache.CapturedPurchase b) {
+                return a.capturedAtMs < b.capturedAtMs ? -1 : (a.capturedAtMs == b.capturedAtMs ? 0 : 1);
+            }
+        });
+        return purchases;
+    }
+
+    /**
+     * Sync pending journal writes immediately (pause/quit)
+     */
+    void flush() {
+        store.flush();
+    }
+}
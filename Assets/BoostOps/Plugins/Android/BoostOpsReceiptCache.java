@@ -0,0 +1,341 @@
+package com.boostops.sdk;
+
+import android.util.JsonReader;
+
+import com.boostops.unity.BoostOpsJsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounded multi-slot cache of captured purchases
+ *
+ * Each purchase gets its own slot keyed by orderId (falling back to purchaseToken, then
+ * productId plus capture time), so purchases made close together no longer overwrite
+ * each other, including repeat buys of a consumable without an orderId. Slots
+ * expire after a configurable TTL and the least recently used slot is evicted when the
+ * cache is full. Lookups are by productId, by orderId, or most recent.
+ *
+ * The most recent lookup has no key to tie it to a specific purchase, so it keeps the
+ * original 5 second window: a capture must not attach to an unrelated TrackPurchase()
+ * minutes later. Only keyed lookups see the longer TTL.
+ *
+ * The whole cache is one immutable State published through an AtomicReference: writers
+ * swap in a new State with compare-and-set, readers never lock and always see every
+ * field of a purchase from the same capture.
+ */
+final class BoostOpsReceiptCache {
+
+    static final int DEFAULT_CAPACITY = 16;
+    static final long DEFAULT_TTL_MS = 10 * 60 * 1000L;
+    static final long DEFAULT_MOST_RECENT_TTL_MS = 5000L;
+
+    /**
+     * Immutable captured purchase
+     */
+    static final class CapturedPurchase {
+        final String productId;
+        final String orderId;
+        final String purchaseToken;
+        final String purchaseData;
+        final String signature;
+        final long capturedAtMs;
+        final String slotKey;
+
+        CapturedPurchase(String productId, String orderId, String purchaseToken, String purchaseData,
+                         String signature, long capturedAtMs) {
+            this(productId, orderId, purchaseToken, purchaseData, signature, capturedAtMs,
+                slotKeyFor(orderId, purchaseToken, productId, capturedAtMs));
+        }
+
+        private CapturedPurchase(String productId, String orderId, String purchaseToken, String purchaseData,
+                                 String signature, long capturedAtMs, String slotKey) {
+            this.productId = productId;
+            this.orderId = orderId;
+            this.purchaseToken = purchaseToken;
+            this.purchaseData = purchaseData;
+            this.signature = signature;
+            this.capturedAtMs = capturedAtMs;
+            this.slotKey = slotKey;
+        }
+
+        /**
+         * Encode every field as one JSON object
+         */
+        String toJson() {
+            return BoostOpsJsonWriter.obtain()
+                .beginObject()
+                .field("journalId", slotKey)
+                .field("productId", productId)
+                .field("orderId", orderId)
+                .field("purchaseToken", purchaseToken)
+                .field("purchaseData", purchaseData)
+                .field("signature", signature)
+                .field("timestamp", capturedAtMs)
+                .endObject()
+                .toString();
+        }
+
+        /**
+         * Decode a purchase previously encoded with toJson()
+         * @return Purchase, or null if the JSON is malformed
+         */
+        static CapturedPurchase fromJson(String json) {
+            String productId = null;
+            String orderId = null;
+            String purchaseToken = null;
+            String purchaseData = null;
+            String signature = null;
+            long timestamp = 0;
+            String journalId = null;
+
+            JsonReader reader = new JsonReader(new StringReader(json));
+            try {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("journalId".equals(name)) {
+                        journalId = reader.nextString();
+                    } else if ("productId".equals(name)) {
+                        productId = reader.nextString();
+                    } else if ("orderId".equals(name)) {
+                        orderId = reader.nextString();
+                    } else if ("purchaseToken".equals(name)) {
+                        purchaseToken = reader.nextString();
+                    } else if ("purchaseData".equals(name)) {
+                        purchaseData = reader.nextString();
+                    } else if ("signature".equals(name)) {
+                        signature = reader.nextString();
+                    } else if ("timestamp".equals(name)) {
+                        timestamp = reader.nextLong();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } catch (IOException | IllegalStateException | NumberFormatException e) {
+                return null;
+            } finally {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                }
+            }
+
+            // Keep the stored key so entries journaled under an older key scheme stay acknowledgeable
+            if (journalId == null) {
+                journalId = slotKeyFor(orderId, purchaseToken, productId, timestamp);
+            }
+            return new CapturedPurchase(productId, orderId, purchaseToken, purchaseData, signature, timestamp,
+                journalId);
+        }
+    }
+
+    /**
+     * Immutable cache contents; slots are ordered most recently used first
+     */
+    private static final class State {
+        static final State EMPTY = new State(new CapturedPurchase[0], null);
+
+        final CapturedPurchase[] slots;
+        final CapturedPurchase latest;
+
+        State(CapturedPurchase[] slots, CapturedPurchase latest) {
+            this.slots = slots;
+            this.latest = latest;
+        }
+    }
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.EMPTY);
+
+    private volatile int capacity = DEFAULT_CAPACITY;
+    private volatile long ttlMs = DEFAULT_TTL_MS;
+    private volatile long mostRecentTtlMs = DEFAULT_MOST_RECENT_TTL_MS;
+
+    static String slotKeyFor(String orderId, String purchaseToken, String productId, long capturedAtMs) {
+        if (orderId != null && !orderId.isEmpty()) {
+            return "order:" + orderId;
+        }
+        if (purchaseToken != null && !purchaseToken.isEmpty()) {
+            return "token:" + purchaseToken;
+        }
+        // The product alone would merge repeat buys of a consumable into one slot
+        return "product:" + productId + ":" + capturedAtMs;
+    }
+
+    void setCapacity(int newCapacity) {
+        capacity = Math.max(1, newCapacity);
+        update(null);
+    }
+
+    void setTtlMs(long newTtlMs) {
+        ttlMs = Math.max(0, newTtlMs);
+    }
+
+    long getTtlMs() {
+        return ttlMs;
+    }
+
+    /**
+     * Set how long the unkeyed most recent lookup serves a capture (capped by the TTL)
+     */
+    void setMostRecentTtlMs(long newTtlMs) {
+        mostRecentTtlMs = Math.max(0, newTtlMs);
+    }
+
+    void put(CapturedPurchase purchase) {
+        update(purchase);
+    }
+
+    /**
+     * Most recently captured purchase, if it was captured within the most recent window
+     */
+    CapturedPurchase getMostRecent() {
+        State current = state.get();
+        CapturedPurchase latest = current.latest;
+        long window = Math.min(mostRecentTtlMs, ttlMs);
+        if (latest != null && System.currentTimeMillis() - latest.capturedAtMs <= window) {
+            return latest;
+        }
+        // The latest capture is too old, so every older one is too
+        return null;
+    }
+
+    /**
+     * Newest unexpired purchase of the given product
+     */
+    CapturedPurchase getByProductId(String productId) {
+        if (productId == null) {
+            return null;
+        }
+
+        State current = state.get();
+        long now = System.currentTimeMillis();
+        CapturedPurchase newest = null;
+        for (CapturedPurchase purchase : current.slots) {
+            if (productId.equals(purchase.productId) && !isExpired(purchase, now)
+                    && (newest == null || purchase.capturedAtMs >= newest.capturedAtMs)) {
+                newest = purchase;
+            }
+        }
+
+        if (newest != null) {
+            touch(current, newest);
+        }
+        return newest;
+    }
+
+    /**
+     * Unexpired purchase with the given order ID
+     */
+    CapturedPurchase getByOrderId(String orderId) {
+        if (orderId == null || orderId.isEmpty()) {
+            return null;
+        }
+
+        String key = slotKeyFor(orderId, null, null, 0);
+        State current = state.get();
+        long now = System.currentTimeMillis();
+        for (CapturedPurchase purchase : current.slots) {
+            if (key.equals(purchase.slotKey)) {
+                if (isExpired(purchase, now)) {
+                    return null;
+                }
+                touch(current, purchase);
+                return purchase;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return entries().size();
+    }
+
+    List<CapturedPurchase> entries() {
+        long now = System.currentTimeMillis();
+        List<CapturedPurchase> live = new ArrayList<>();
+        for (CapturedPurchase purchase : state.get().slots) {
+            if (!isExpired(purchase, now)) {
+                live.add(purchase);
+            }
+        }
+        return live;
+    }
+
+    void clear() {
+        state.set(State.EMPTY);
+    }
+
+    private boolean isExpired(CapturedPurchase purchase, long now) {
+        return now - purchase.capturedAtMs > ttlMs;
+    }
+
+    /**
+     * Insert a purchase (or just prune when null), retrying until the swap wins
+     */
+    private void update(CapturedPurchase added) {
+        while (true) {
+            State current = state.get();
+            State next = buildState(current, added);
+            if (state.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private State buildState(State current, CapturedPurchase added) {
+        long now = System.currentTimeMillis();
+        int limit = capacity;
+        CapturedPurchase[] slots = new CapturedPurchase[Math.min(limit, current.slots.length + 1)];
+        int count = 0;
+
+        if (added != null) {
+            slots[count++] = added;
+        }
+        for (CapturedPurchase purchase : current.slots) {
+            if (count == slots.length) {
+                break; // Remaining slots are the least recently used: evict
+            }
+            if (isExpired(purchase, now) || (added != null && added.slotKey.equals(purchase.slotKey))) {
+                continue;
+            }
+            slots[count++] = purchase;
+        }
+
+        if (count < slots.length) {
+            slots = Arrays.copyOf(slots, count);
+        }
+
+        CapturedPurchase latest = null;
+        for (CapturedPurchase purchase : slots) {
+            if (latest == null || purchase.capturedAtMs > latest.capturedAtMs) {
+                latest = purchase;
+            }
+        }
+        return new State(slots, latest);
+    }
+
+    /**
+     * Best-effort move of a slot to the front; a lost race just skips the LRU update
+     */
+    private void touch(State current, CapturedPurchase purchase) {
+        if (current.slots.length == 0 || current.slots[0] == purchase) {
+            return;
+        }
+
+        CapturedPurchase[] slots = new CapturedPurchase[current.slots.length];
+        slots[0] = purchase;
+        int count = 1;
+        for (CapturedPurchase other : current.slots) {
+            if (other != purchase) {
+                slots[count++] = other;
+            }
+        }
+        state.compareAndSet(current, new State(slots, current.latest));
+    }
+}
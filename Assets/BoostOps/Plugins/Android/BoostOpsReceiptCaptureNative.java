@@ -1,19 +1,31 @@
 package com.boostops.sdk;
 
-import android.util.Log;
-import com.unity3d.player.UnityPlayer;
-import org.json.JSONObject;
-import org.json.JSONException;
+import android.content.Context;
+import com.boostops.unity.BoostOpsContext;
+import com.boostops.unity.BoostOpsEventQueue;
+import com.boostops.unity.BoostOpsJsonWriter;
+import com.boostops.unity.BoostOpsLog;
+import com.boostops.unity.BoostOpsMessageBus;
+import com.boostops.unity.BoostOpsMetrics;
+import com.boostops.unity.BoostOpsNativeBuffer;
+import java.util.List;
 
 /**
  * Android receipt capture for automatic purchase enrichment
  * 
- * Caches the most recent Google Play purchase data (purchase token, order ID)
- * so it can be auto-injected into TrackPurchase() calls without manual parameter passing.
+ * Caches recent Google Play purchase data (purchase token, order ID) in a bounded
+ * multi-slot cache so it can be auto-injected into TrackPurchase() calls without
+ * manual parameter passing, even when several purchases complete close together.
  * 
  * This enables a clean 3-parameter API (amount, currency, productId)
  * while still capturing critical data for server-side receipt validation.
  * 
+ * Each capture is also written to a durable purchase journal. Once the C# layer opts in
+ * with setJournalReplayEnabled(true), unacknowledged entries are replayed on the next
+ * launch, so a crash before TrackPurchase() loses nothing. Replay is off by default: a
+ * C# layer that never calls acknowledgePurchase() would otherwise get the same purchases
+ * back on every launch.
+ * 
  * NOTE: This class provides a lightweight caching layer. It does NOT initialize
  * Google Play Billing Library (Unity IAP handles that). It only stores purchase
  * data that Unity IAP provides.
@@ -22,17 +34,29 @@ public class BoostOpsReceiptCaptureNative {
     private static final String TAG = "BoostOps.ReceiptCapture";
     private static final String UNITY_GAME_OBJECT = "BoostOpsManager";
     private static final String UNITY_CALLBACK = "OnNativeReceiptCaptured";
+    private static final String UNITY_REPLAY_CALLBACK = "OnNativePurchasesReplayed";
+    
+    // Metrics
+    private static final BoostOpsMetrics.Counter CAPTURED = BoostOpsMetrics.counter("receipt.captured");
+    private static final BoostOpsMetrics.Counter DUPLICATES = BoostOpsMetrics.counter("receipt.duplicates");
+    private static final BoostOpsMetrics.Counter CACHE_HITS = BoostOpsMetrics.counter("receipt.cache_hits");
+    private static final BoostOpsMetrics.Counter CACHE_MISSES = BoostOpsMetrics.counter("receipt.cache_misses");
+    private static final BoostOpsMetrics.Gauge CACHE_SIZE = BoostOpsMetrics.gauge("receipt.cache_size");
     
     private static BoostOpsReceiptCaptureNative instance;
     private static boolean isInitialized = false;
     
-    // Cached purchase data (most recent)
-    private static String cachedProductId = null;
-    private static String cachedOrderId = null;
-    private static String cachedPurchaseToken = null;
-    private static String cachedPurchaseData = null;  // Full JSON
-    private static String cachedSignature = null;
-    private static long cachedTimestamp = 0;
+    // Cached purchases, keyed by orderId with LRU eviction and TTL expiry
+    private static final BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+    
+    // Durable write-ahead journal of unacknowledged purchases
+    private static BoostOpsPurchaseJournal journal;
+    private static boolean replayEnabled = false;
+    private static boolean replayed = false;
+    
+    // Persistent index of orderIds/purchaseTokens already delivered to Unity
+    private static BoostOpsPurchaseDedup dedup;
+    private static boolean dedupOpenFailed = false;
     
     /**
      * Get singleton instance
@@ -50,15 +74,16 @@ public class BoostOpsReceiptCaptureNative {
      */
     public static void initialize() {
         if (isInitialized) {
-            Log.d(TAG, "Already initialized");
+            BoostOpsLog.d(TAG, "Already initialized");
             return;
         }
         
         try {
             isInitialized = true;
-            Log.d(TAG, "✅ Initialized (ready to cache purchases)");
+            replayJournal();
+            BoostOpsLog.d(TAG, "✅ Initialized (ready to cache purchases)");
         } catch (Exception ex) {
-            Log.e(TAG, "❌ Failed to initialize: " + ex.getMessage());
+            BoostOpsLog.e(TAG, "❌ Failed to initialize: {}", ex.getMessage());
         }
     }
     
@@ -74,149 +99,453 @@ public class BoostOpsReceiptCaptureNative {
     public static void cachePurchase(String productId, String orderId, String purchaseToken,
                                      String purchaseData, String signature) {
         try {
-            cachedProductId = productId;
-            cachedOrderId = orderId;
-            cachedPurchaseToken = purchaseToken;
-            cachedPurchaseData = purchaseData;
-            cachedSignature = signature;
-            cachedTimestamp = System.currentTimeMillis();
+            BoostOpsReceiptCache.CapturedPurchase purchase = new BoostOpsReceiptCache.CapturedPurchase(
+                productId, orderId, purchaseToken, purchaseData, signature, System.currentTimeMillis());
+            
+            // Check, journal and record as one step so concurrent deliveries cannot both pass
+            synchronized (BoostOpsReceiptCaptureNative.class) {
+                BoostOpsPurchaseDedup purchaseDedup = getDedup();
+                
+                // Unity IAP re-delivers pending purchases: keep the cache fresh for
+                // TrackPurchase(), but only the first delivery goes to C# and the queue
+                if (purchaseDedup.isDuplicate(orderId, purchaseToken)) {
+                    cache.put(purchase);
+                    CACHE_SIZE.set(cache.size());
+                    DUPLICATES.increment();
+                    BoostOpsLog.d(TAG, "🔁 Ignoring repeat delivery of purchase: productId={}", productId);
+                    return;
+                }
+                
+                cache.put(purchase);
+                CAPTURED.increment();
+                CACHE_SIZE.set(cache.size());
+                
+                // Journal before notifying Unity so the event survives a crash
+                BoostOpsPurchaseJournal purchaseJournal = getJournal();
+                if (purchaseJournal != null) {
+                    purchaseJournal.append(purchase);
+                }
+                
+                // Only mark the purchase seen once it is journaled, so a failed append
+                // lets the next re-delivery through instead of dropping it as a repeat
+                purchaseDedup.record(orderId, purchaseToken);
+            }
             
-            Log.d(TAG, String.format("📦 Cached purchase: productId=%s, orderId=%s..., hasToken=%b",
-                    productId,
-                    orderId != null ? orderId.substring(0, Math.min(12, orderId.length())) : "null",
-                    purchaseToken != null && !purchaseToken.isEmpty()));
+            // Binary copy for C# readers of the shared buffer (no-op unless enabled)
+            BoostOpsNativeBuffer.writeReceipt(purchase.slotKey, productId, orderId, purchaseToken,
+                purchaseData, signature, purchase.capturedAtMs);
+            
+            // Queue for native upload (no-op unless an event transport is configured)
+            BoostOpsEventQueue.enqueue(BoostOpsContext.get(), "purchase", purchase.toJson());
+            
+            BoostOpsLog.d(TAG, "📦 Cached purchase: productId={}, orderId={*}, hasToken={}",
+                    productId, orderId, purchaseToken != null && !purchaseToken.isEmpty());
             
             // Optional: Send callback to Unity
-            sendCacheCallbackToUnity(productId, orderId, purchaseToken, purchaseData, signature);
+            sendCacheCallbackToUnity(purchase);
             
         } catch (Exception ex) {
-            Log.e(TAG, "❌ Failed to cache purchase: " + ex.getMessage());
+            BoostOpsLog.e(TAG, "❌ Failed to cache purchase: {}", ex.getMessage());
         }
     }
     
     /**
-     * Get cached product ID
+     * Set how long a captured purchase stays available to productId/orderId lookups (default 10 minutes)
+     */
+    public static void setCacheTtlMs(long ttlMs) {
+        cache.setTtlMs(ttlMs);
+    }
+    
+    /**
+     * Set how long the no-argument "most recent" getters serve a capture (default 5 seconds)
+     */
+    public static void setMostRecentTtlMs(long ttlMs) {
+        cache.setMostRecentTtlMs(ttlMs);
+    }
+    
+    /**
+     * Set how many purchases are kept before the least recently used one is evicted
+     */
+    public static void setCacheCapacity(int capacity) {
+        cache.setCapacity(capacity);
+    }
+    
+    /**
+     * Get cached product ID (most recent purchase)
      */
     public static String getCachedProductId() {
-        if (isCacheExpired()) {
-            return null;
-        }
-        return cachedProductId;
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupMostRecent();
+        return entry != null ? entry.productId : null;
     }
     
     /**
-     * Get cached order ID
+     * Get cached order ID (most recent purchase)
      */
     public static String getCachedOrderId() {
-        if (isCacheExpired()) {
-            return null;
-        }
-        return cachedOrderId;
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupMostRecent();
+        return entry != null ? entry.orderId : null;
+    }
+    
+    /**
+     * Get cached order ID for a product
+     */
+    public static String getCachedOrderId(String productId) {
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupByProductId(productId);
+        return entry != null ? entry.orderId : null;
     }
     
     /**
-     * Get cached purchase token
+     * Get cached purchase token (most recent purchase)
      */
     public static String getCachedPurchaseToken() {
-        if (isCacheExpired()) {
-            return null;
-        }
-        return cachedPurchaseToken;
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupMostRecent();
+        return entry != null ? entry.purchaseToken : null;
     }
     
     /**
-     * Get cached purchase data (full JSON)
+     * Get cached purchase token for a product
+     */
+    public static String getCachedPurchaseToken(String productId) {
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupByProductId(productId);
+        return entry != null ? entry.purchaseToken : null;
+    }
+    
+    /**
+     * Get cached purchase token for an order
+     */
+    public static String getCachedPurchaseTokenForOrder(String orderId) {
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupByOrderId(orderId);
+        return entry != null ? entry.purchaseToken : null;
+    }
+    
+    /**
+     * Get cached purchase data (full JSON, most recent purchase)
      */
     public static String getCachedPurchaseData() {
-        if (isCacheExpired()) {
-            return null;
-        }
-        return cachedPurchaseData;
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupMostRecent();
+        return entry != null ? entry.purchaseData : null;
     }
     
     /**
-     * Get cached signature
+     * Get cached purchase data (full JSON) for a product
+     */
+    public static String getCachedPurchaseData(String productId) {
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupByProductId(productId);
+        return entry != null ? entry.purchaseData : null;
+    }
+    
+    /**
+     * Get cached signature (most recent purchase)
      */
     public static String getCachedSignature() {
-        if (isCacheExpired()) {
-            return null;
-        }
-        return cachedSignature;
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupMostRecent();
+        return entry != null ? entry.signature : null;
     }
     
     /**
-     * Check if cache is expired (5 seconds)
+     * Get cached signature for a product
      */
-    private static boolean isCacheExpired() {
-        if (cachedTimestamp == 0) {
-            return true;
+    public static String getCachedSignature(String productId) {
+        BoostOpsReceiptCache.CapturedPurchase entry = lookupByProductId(productId);
+        return entry != null ? entry.signature : null;
+    }
+    
+    /**
+     * Get every field of the most recent purchase in one call
+     * Prefer this over the individual getters: all fields come from the same capture
+     *
+     * @return JSON object (productId, orderId, purchaseToken, purchaseData, signature,
+     *         timestamp), or null if nothing is cached
+     */
+    public static String getCachedPurchase() {
+        BoostOpsReceiptCache.CapturedPurchase purchase = lookupMostRecent();
+        return purchase != null ? purchase.toJson() : null;
+    }
+    
+    /**
+     * Get every field of the newest cached purchase of a product in one call
+     */
+    public static String getCachedPurchase(String productId) {
+        BoostOpsReceiptCache.CapturedPurchase purchase = lookupByProductId(productId);
+        return purchase != null ? purchase.toJson() : null;
+    }
+    
+    /**
+     * Get every field of the cached purchase with the given order ID in one call
+     */
+    public static String getCachedPurchaseForOrder(String orderId) {
+        BoostOpsReceiptCache.CapturedPurchase purchase = lookupByOrderId(orderId);
+        return purchase != null ? purchase.toJson() : null;
+    }
+    
+    /**
+     * Cache lookups used by the getters, counted for the cache hit rate
+     */
+    private static BoostOpsReceiptCache.CapturedPurchase lookupMostRecent() {
+        return countLookup(cache.getMostRecent());
+    }
+    
+    private static BoostOpsReceiptCache.CapturedPurchase lookupByProductId(String productId) {
+        return countLookup(cache.getByProductId(productId));
+    }
+    
+    private static BoostOpsReceiptCache.CapturedPurchase lookupByOrderId(String orderId) {
+        return countLookup(cache.getByOrderId(orderId));
+    }
+    
+    private static BoostOpsReceiptCache.CapturedPurchase countLookup(BoostOpsReceiptCache.CapturedPurchase entry) {
+        if (entry != null) {
+            CACHE_HITS.increment();
+        } else {
+            CACHE_MISSES.increment();
         }
-        long age = System.currentTimeMillis() - cachedTimestamp;
-        return age > 5000;  // 5 seconds
+        return entry;
     }
     
     /**
      * Clear cached data
      */
     public static void clearCache() {
-        cachedProductId = null;
-        cachedOrderId = null;
-        cachedPurchaseToken = null;
-        cachedPurchaseData = null;
-        cachedSignature = null;
-        cachedTimestamp = 0;
-        Log.d(TAG, "🗑️ Cleared cache");
+        cache.clear();
+        CACHE_SIZE.set(0);
+        BoostOpsLog.d(TAG, "🗑️ Cleared cache");
     }
     
     /**
      * Get cache statistics (for debugging)
      */
     public static String getCacheStats() {
-        if (cachedTimestamp == 0) {
+        BoostOpsReceiptCache.CapturedPurchase entry = cache.getMostRecent();
+        if (entry == null) {
             return "Cache: empty";
         }
-        long age = System.currentTimeMillis() - cachedTimestamp;
-        return String.format("Cache: %s (age: %dms)", cachedProductId, age);
+        long age = System.currentTimeMillis() - entry.capturedAtMs;
+        return String.format("Cache: %d purchase(s), latest %s (age: %dms)", cache.size(), entry.productId, age);
+    }
+    
+    /**
+     * Replay unacknowledged purchases to Unity on launch (off by default)
+     * Only enable from a C# layer that acknowledges every purchase it handles; if called
+     * after initialize() the replay happens now
+     */
+    public static void setJournalReplayEnabled(boolean enabled) {
+        synchronized (BoostOpsReceiptCaptureNative.class) {
+            replayEnabled = enabled;
+        }
+        if (enabled && isInitialized) {
+            replayJournal();
+        }
+    }
+    
+    /**
+     * Acknowledge that C# has handled a captured purchase so it is not replayed
+     * 
+     * @param journalId The journalId from the capture callback or getCachedPurchase()
+     * @return true if the purchase was pending
+     */
+    public static boolean acknowledgePurchase(String journalId) {
+        BoostOpsPurchaseJournal purchaseJournal = getJournal();
+        return purchaseJournal != null && purchaseJournal.acknowledge(journalId);
+    }
+    
+    /**
+     * Acknowledge a captured purchase by its Google Play order ID
+     */
+    public static boolean acknowledgeOrder(String orderId) {
+        BoostOpsPurchaseJournal purchaseJournal = getJournal();
+        if (purchaseJournal == null) {
+            return false;
+        }
+        // Entries are keyed by slot key, which differs from the order ID for some purchases
+        String journalId = purchaseJournal.findJournalId(orderId);
+        return journalId != null && purchaseJournal.acknowledge(journalId);
+    }
+    
+    /**
+     * Get all captured purchases not yet acknowledged, oldest first
+     * @return JSON array of purchases (same fields as getCachedPurchase())
+     */
+    public static String getPendingPurchases() {
+        BoostOpsPurchaseJournal purchaseJournal = getJournal();
+        if (purchaseJournal == null) {
+            return "[]";
+        }
+        return encodePurchases(purchaseJournal.pending());
+    }
+    
+    /**
+     * Make pending journal writes durable now (call from OnApplicationPause/OnApplicationQuit)
+     */
+    public static void flushJournal() {
+        BoostOpsPurchaseJournal purchaseJournal = getJournal();
+        if (purchaseJournal != null) {
+            purchaseJournal.flush();
+        }
+    }
+    
+    /**
+     * Enable the Bloom filter fallback so purchases evicted from the dedup LRU are still
+     * recognized (trades a ~0.1% false positive rate for unbounded history)
+     */
+    public static void setDedupBloomFilterEnabled(boolean enabled) {
+        getDedup().setBloomFilterEnabled(enabled);
+    }
+    
+    /**
+     * Set how many orderIds/purchaseTokens the dedup index remembers
+     */
+    public static void setDedupCapacity(int capacity) {
+        getDedup().setCapacity(capacity);
+    }
+    
+    /**
+     * Get dedup hit counters
+     * @return JSON object (accepted, duplicate_order_id, duplicate_purchase_token,
+     *         duplicate_bloom, indexed_keys, bloom_enabled)
+     */
+    public static String getDedupStats() {
+        return getDedup().statsJson();
+    }
+    
+    /**
+     * Open the dedup index on first use
+     * Without a context a memory-only index is used until the persistent one can be
+     * opened; keys seen in the meantime are carried over
+     */
+    private static synchronized BoostOpsPurchaseDedup getDedup() {
+        if (dedup == null || (!dedup.isPersistent() && !dedupOpenFailed)) {
+            BoostOpsPurchaseDedup persistent = null;
+            try {
+                Context context = BoostOpsContext.get();
+                if (context != null) {
+                    persistent = BoostOpsPurchaseDedup.open(context);
+                }
+            } catch (Exception ex) {
+                // Not a missing context: stay in memory rather than retrying on every call
+                dedupOpenFailed = true;
+                BoostOpsLog.e(TAG, "❌ Failed to open dedup index: {}", ex.getMessage());
+            }
+            
+            if (persistent != null) {
+                if (dedup != null) {
+                    persistent.mergeFrom(dedup);
+                }
+                dedup = persistent;
+            } else if (dedup == null) {
+                BoostOpsLog.w(TAG, "⚠️ Using in-memory purchase dedup index until a context is available");
+                dedup = new BoostOpsPurchaseDedup(null);
+            }
+        }
+        return dedup;
+    }
+    
+    /**
+     * Open the purchase journal on first use
+     */
+    private static synchronized BoostOpsPurchaseJournal getJournal() {
+        if (journal == null) {
+            try {
+                Context context = BoostOpsContext.get();
+                if (context == null) {
+                    BoostOpsLog.w(TAG, "⚠️ No context yet, purchase journal unavailable");
+                    return null;
+                }
+                journal = BoostOpsPurchaseJournal.open(context);
+            } catch (Exception ex) {
+                BoostOpsLog.e(TAG, "❌ Failed to open purchase journal: {}", ex.getMessage());
+                return null;
+            }
+        }
+        return journal;
+    }
+    
+    /**
+     * Hand purchases left unacknowledged by a previous session back to Unity
+     */
+    private static void replayJournal() {
+        BoostOpsPurchaseJournal purchaseJournal;
+        synchronized (BoostOpsReceiptCaptureNative.class) {
+            if (!replayEnabled || replayed) {
+                return;
+            }
+            purchaseJournal = getJournal();
+            if (purchaseJournal == null) {
+                return;
+            }
+            replayed = true;
+        }
+        
+        List<BoostOpsReceiptCache.CapturedPurchase> pending = purchaseJournal.pending();
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        BoostOpsLog.d(TAG, "🔁 Replaying {} unacknowledged purchase(s)", pending.size());
+        BoostOpsMessageBus.postCritical(UNITY_GAME_OBJECT, UNITY_REPLAY_CALLBACK, encodePurchases(pending));
+    }
+    
+    private static String encodePurchases(List<BoostOpsReceiptCache.CapturedPurchase> purchases) {
+        BoostOpsJsonWriter writer = new BoostOpsJsonWriter();
+        writer.beginArray();
+        for (BoostOpsReceiptCache.CapturedPurchase purchase : purchases) {
+            writer.rawValue(purchase.toJson());
+        }
+        return writer.endArray().toString();
     }
     
     /**
      * Send cache callback to Unity (optional notification)
      */
-    private static void sendCacheCallbackToUnity(String productId, String orderId,
-                                                  String purchaseToken, String purchaseData,
-                                                  String signature) {
+    private static void sendCacheCallbackToUnity(BoostOpsReceiptCache.CapturedPurchase purchase) {
         try {
             // Build JSON payload for Unity
-            JSONObject payload = new JSONObject();
-            payload.put("productId", productId != null ? productId : "");
-            payload.put("orderId", orderId != null ? orderId : "");
-            payload.put("purchaseToken", purchaseToken != null ? purchaseToken : "");
-            payload.put("signature", signature != null ? signature : "");
-            payload.put("timestamp", System.currentTimeMillis());
+            String payload = BoostOpsJsonWriter.obtain()
+                .beginObject()
+                .field("productId", purchase.productId != null ? purchase.productId : "")
+                .field("orderId", purchase.orderId != null ? purchase.orderId : "")
+                .field("purchaseToken", purchase.purchaseToken != null ? purchase.purchaseToken : "")
+                .field("signature", purchase.signature != null ? purchase.signature : "")
+                .field("journalId", purchase.slotKey)
+                .field("timestamp", purchase.capturedAtMs)
+                .endObject()
+                .toString();
             
-            // Send to Unity (if GameObject exists)
-            UnityPlayer.UnitySendMessage(UNITY_GAME_OBJECT, UNITY_CALLBACK, payload.toString());
+            // Send to Unity through the shared message bus (if GameObject exists)
+            BoostOpsMessageBus.postCritical(UNITY_GAME_OBJECT, UNITY_CALLBACK, payload);
             
-        } catch (JSONException ex) {
-            Log.e(TAG, "Failed to build callback JSON: " + ex.getMessage());
         } catch (Exception ex) {
             // GameObject might not exist - that's OK, cache still works
-            Log.d(TAG, "Unity callback skipped (GameObject not found)");
+            BoostOpsLog.d(TAG, "Unity callback skipped: {}", ex.getMessage());
         }
     }
     
+    /**
+     * Extract productId, orderId, purchaseToken, purchaseTime and quantity in one pass
+     * Helper method for Unity IAP integration
+     * 
+     * @param purchaseDataJson Full purchase JSON data from Google Play
+     * @return JSON object with the extracted fields, or null if the purchase data is malformed
+     */
+    public static String extractPurchaseFields(String purchaseDataJson) {
+        BoostOpsPurchaseData data = BoostOpsPurchaseData.parse(purchaseDataJson);
+        if (data == null) {
+            BoostOpsLog.e(TAG, "Failed to parse purchase data");
+            return null;
+        }
+        return data.toJson();
+    }
+    
     /**
      * Parse product ID from purchase data JSON
      * Helper method for Unity IAP integration
      */
     public static String extractProductIdFromPurchaseData(String purchaseDataJson) {
-        try {
-            JSONObject json = new JSONObject(purchaseDataJson);
-            return json.optString("productId", null);
-        } catch (Exception ex) {
-            Log.e(TAG, "Failed to parse productId from purchase data: " + ex.getMessage());
+        BoostOpsPurchaseData data = BoostOpsPurchaseData.parse(purchaseDataJson);
+        if (data == null) {
+            BoostOpsLog.e(TAG, "Failed to parse productId from purchase data");
             return null;
         }
+        return data.productId;
     }
     
     /**
@@ -224,13 +553,11 @@ public class BoostOpsReceiptCaptureNative {
      * Helper method for Unity IAP integration
      */
     public static String extractOrderIdFromPurchaseData(String purchaseDataJson) {
-        try {
-            JSONObject json = new JSONObject(purchaseDataJson);
-            return json.optString("orderId", null);
-        } catch (Exception ex) {
-            Log.e(TAG, "Failed to parse orderId from purchase data: " + ex.getMessage());
+        BoostOpsPurchaseData data = BoostOpsPurchaseData.parse(purchaseDataJson);
+        if (data == null) {
+            BoostOpsLog.e(TAG, "Failed to parse orderId from purchase data");
             return null;
         }
+        return data.orderId;
     }
 }
-
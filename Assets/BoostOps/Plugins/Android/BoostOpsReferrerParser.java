@@ -0,0 +1,253 @@
+package com.boostops.unity.referrer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass parser for Google Play install referrer query strings
+ *
+ * Walks the referrer once with a cursor, matches keys against the fixed set of
+ * attribution parameters BoostOps uses and percent-decodes each kept value exactly
+ * once. Unknown parameters are skipped without allocating.
+ */
+public final class BoostOpsReferrerParser {
+
+    // Known parameter slots (index into the array returned by parse())
+    public static final int UTM_SOURCE = 0;
+    public static final int UTM_MEDIUM = 1;
+    public static final int UTM_CAMPAIGN = 2;
+    public static final int UTM_TERM = 3;
+    public static final int UTM_CONTENT = 4;
+    public static final int CAMPAIGN_ID = 5;
+    public static final int SOURCE_APP_ID = 6;
+    public static final int BOOST_REFERRER = 7;
+    public static final int CLICK_ID = 8;
+    public static final int SOURCE_STORE_ID = 9;
+    public static final int SOURCE_PROJECT_ID = 10;
+    public static final int TARGET_STORE_ID = 11;
+    public static final int TARGET_PROJECT_ID = 12;
+
+    static final String[] KEYS = {
+        "utm_source",
+        "utm_medium",
+        "utm_campaign",
+        "utm_term",
+        "utm_content",
+        "campaign_id",
+        "source_app_id",
+        "boost_referrer",
+        "click_id",
+        "source_store_id",
+        "source_project_id",
+        "target_store_id",
+        "target_project_id"
+    };
+
+    public static final int KEY_COUNT = KEYS.length;
+
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    // Key slots grouped by length so a lookup compares at most a couple of candidates
+    private static final int[][] KEYS_BY_LENGTH;
+
+    static {
+        int maxLength = 0;
+        for (String key : KEYS) {
+            maxLength = Math.max(maxLength, key.length());
+        }
+
+        int[] counts = new int[maxLength + 1];
+        for (String key : KEYS) {
+            counts[key.length()]++;
+        }
+
+        KEYS_BY_LENGTH = new int[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            KEYS_BY_LENGTH[length] = new int[counts[length]];
+        }
+
+        int[] fill = new int[maxLength + 1];
+        for (int slot = 0; slot < KEYS.length; slot++) {
+            int length = KEYS[slot].length();
+            KEYS_BY_LENGTH[length][fill[length]++] = slot;
+        }
+    }
+
+    private BoostOpsReferrerParser() {
+    }
+
+    /**
+     * Get parameter name for a slot index
+     */
+    public static String keyAt(int slot) {
+        return KEYS[slot];
+    }
+
+    /**
+     * Parse a referrer query string into known parameter slots
+     *
+     * @param referrer Raw referrer from ReferrerDetails.getInstallReferrer()
+     * @return Array of KEY_COUNT values; unknown or absent parameters are null
+     */
+    public static String[] parse(String referrer) {
+        String[] values = new String[KEY_COUNT];
+
+        if (referrer == null || referrer.isEmpty()) {
+            return values;
+        }
+
+        // Some referrers arrive fully URL-encoded ("utm_source%3Dgoogle%26utm_medium%3Dcpc")
+        // Unwrap that outer layer once so pairs can be split on literal '&' and '='
+        if (referrer.indexOf('=') < 0 && indexOfEncodedEquals(referrer) >= 0) {
+            referrer = decode(referrer, 0, referrer.length());
+        }
+
+        int length = referrer.length();
+        int pairStart = 0;
+
+        while (pairStart <= length) {
+            int pairEnd = referrer.indexOf('&', pairStart);
+            if (pairEnd < 0) {
+                pairEnd = length;
+            }
+
+            int equals = indexOf(referrer, '=', pairStart, pairEnd);
+            if (equals > pairStart) {
+                int slot = matchKey(referrer, pairStart, equals);
+                if (slot >= 0) {
+                    values[slot] = decode(referrer, equals + 1, pairEnd);
+                }
+            }
+
+            pairStart = pairEnd + 1;
+        }
+
+        return values;
+    }
+
+    /**
+     * Match the key in [start, end) against known parameter names
+     * @return Slot index or -1 if the key is not one BoostOps keeps
+     */
+    static int matchKey(String source, int start, int end) {
+        if (indexOf(source, '%', start, end) >= 0) {
+            // Rare: percent-encoded key, decode it once before matching
+            // A malformed escape survives decoding and then matches no key
+            String decoded = decode(source, start, end);
+            return matchDecodedKey(decoded, 0, decoded.length());
+        }
+        return matchDecodedKey(source, start, end);
+    }
+
+    private static int matchDecodedKey(String source, int start, int end) {
+        int length = end - start;
+        if (length >= KEYS_BY_LENGTH.length) {
+            return -1;
+        }
+
+        for (int slot : KEYS_BY_LENGTH[length]) {
+            if (source.regionMatches(start, KEYS[slot], 0, length)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Percent-decode [start, end) of source exactly once
+     * Malformed escapes are kept literally; '+' is not treated as a space (matches Uri.decode)
+     * Lone surrogates and invalid escaped UTF-8 become U+FFFD
+     */
+    static String decode(String source, int start, int end) {
+        if (!needsDecoding(source, start, end)) {
+            return source.substring(start, end);
+        }
+
+        byte[] buffer = new byte[(end - start) * 3];
+        int size = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '%' && i + 2 < end) {
+                int high = hexValue(source.charAt(i + 1));
+                int low = hexValue(source.charAt(i + 2));
+                if (high >= 0 && low >= 0) {
+                    buffer[size++] = (byte) ((high << 4) | low);
+                    i += 2;
+                    continue;
+                }
+            }
+
+            if (c < 0x80) {
+                buffer[size++] = (byte) c;
+                continue;
+            }
+
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(source.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, source.charAt(++i));
+            } else if (Character.isSurrogate(c)) {
+                codePoint = REPLACEMENT_CHARACTER;
+            }
+            size = appendUtf8(codePoint, buffer, size);
+        }
+
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private static int appendUtf8(int codePoint, byte[] buffer, int size) {
+        if (codePoint < 0x800) {
+            buffer[size++] = (byte) (0xC0 | (codePoint >> 6));
+            buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            buffer[size++] = (byte) (0xE0 | (codePoint >> 12));
+            buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+        return size;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int indexOf(String source, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * True if [start, end) has an escape or a surrogate that decode() must rewrite
+     */
+    private static boolean needsDecoding(String source, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '%' || Character.isSurrogate(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOfEncodedEquals(String source) {
+        int index = source.indexOf("%3D");
+        return index >= 0 ? index : source.indexOf("%3d");
+    }
+}
@@ -0,0 +1,256 @@
+package com.boostops.unity;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.Random;
+
+/**
+ * Retry scheduler with exponential backoff, jitter and a bounded attempt count
+ *
+ * Attempts are posted to the shared boostops-io looper instead of the caller's
+ * thread, so retries never compete with the Unity main thread for frame time.
+ * Clock and executor are injectable so backoff timing can be driven by a fake clock.
+ */
+public class BoostOpsRetryScheduler {
+
+    /**
+     * Monotonic time source (milliseconds)
+     */
+    public interface Clock {
+        long elapsedRealtime();
+    }
+
+    /**
+     * Delayed task executor used to run retry attempts
+     */
+    public interface DelayedExecutor {
+        void postDelayed(Runnable task, long delayMs);
+        void cancel(Runnable task);
+    }
+
+    public static final Clock SYSTEM_CLOCK = SystemClock::elapsedRealtime;
+
+    // Defaults tuned for Play Install Referrer: 1s, 2s, 4s ... capped at 60s, 8 attempts
+    public static final long DEFAULT_INITIAL_DELAY_MS = 1000;
+    public static final long DEFAULT_MAX_DELAY_MS = 60000;
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+    public static final double DEFAULT_JITTER = 0.2;
+    public static final int DEFAULT_MAX_ATTEMPTS = 8;
+
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final double multiplier;
+    private final double jitter;
+    private final int maxAttempts;
+    private final Clock clock;
+    private final DelayedExecutor executor;
+    private final Random random;
+
+    private Runnable pendingTask;
+    private int attemptCount = 0;
+    private long startTimeMs = -1;
+    private long timeToSuccessMs = -1;
+    private boolean finished = false;
+
+    /**
+     * Create a scheduler with default backoff settings on the shared boostops-io looper
+     */
+    public static BoostOpsRetryScheduler createDefault() {
+        return new BoostOpsRetryScheduler(
+            DEFAULT_INITIAL_DELAY_MS,
+            DEFAULT_MAX_DELAY_MS,
+            DEFAULT_MULTIPLIER,
+            DEFAULT_JITTER,
+            DEFAULT_MAX_ATTEMPTS,
+            SYSTEM_CLOCK,
+            IO_EXECUTOR,
+            new Random()
+        );
+    }
+
+    public BoostOpsRetryScheduler(long initialDelayMs, long maxDelayMs, double multiplier,
+                                  double jitter, int maxAttempts, Clock clock,
+                                  DelayedExecutor executor, Random random) {
+        this.initialDelayMs = Math.max(0, initialDelayMs);
+        this.maxDelayMs = Math.max(this.initialDelayMs, maxDelayMs);
+        this.multiplier = Math.max(1.0, multiplier);
+        this.jitter = Math.min(1.0, Math.max(0.0, jitter));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.clock = clock;
+        this.executor = executor;
+        this.random = random;
+    }
+
+    /**
+     * Mark the start of the operation being retried (first attempt)
+     * Subsequent calls are ignored so the time-to-success covers all attempts
+     */
+    public synchronized void markStarted() {
+        if (startTimeMs < 0) {
+            startTimeMs = clock.elapsedRealtime();
+        }
+    }
+
+    /**
+     * Schedule the next retry attempt with backoff
+     *
+     * @param attempt Work to run when the delay elapses
+     * @return false if the operation already finished or max attempts are exhausted
+     */
+    public synchronized boolean scheduleRetry(final Runnable attempt) {
+        if (finished || attemptCount >= maxAttempts) {
+            return false;
+        }
+
+        markStarted();
+        long delay = computeDelay(attemptCount);
+        attemptCount++;
+
+        if (pendingTask != null) {
+            executor.cancel(pendingTask);
+        }
+
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                synchronized (BoostOpsRetryScheduler.this) {
+                    if (pendingTask != this || finished) {
+                        return;
+                    }
+                    pendingTask = null;
+                }
+                attempt.run();
+            }
+        };
+        pendingTask = task;
+        executor.postDelayed(task, delay);
+        return true;
+    }
+
+    /**
+     * Run work on the scheduler's executor without counting it as a retry
+     */
+    public void post(Runnable task) {
+        executor.postDelayed(task, 0);
+    }
+
+    /**
+     * Compute the delay before the given (zero-based) retry
+     * Exponential growth capped at maxDelayMs, with +/- jitter applied
+     */
+    long computeDelay(int retryIndex) {
+        double base = initialDelayMs * Math.pow(multiplier, retryIndex);
+        if (base > maxDelayMs) {
+            base = maxDelayMs;
+        }
+
+        if (jitter > 0) {
+            double spread = base * jitter;
+            base = base - spread + (random.nextDouble() * 2 * spread);
+        }
+
+        return Math.max(0, Math.min(maxDelayMs, (long) base));
+    }
+
+    /**
+     * Record success: cancel any pending retry and capture total time-to-success
+     */
+    public synchronized void onSuccess() {
+        if (finished) {
+            return;
+        }
+        if (startTimeMs >= 0) {
+            timeToSuccessMs = clock.elapsedRealtime() - startTimeMs;
+        }
+        finish();
+    }
+
+    /**
+     * Cancel any pending retry and stop scheduling new ones
+     */
+    public synchronized void cancel() {
+        finish();
+    }
+
+    /**
+     * Reset attempt count and timing so the scheduler can be reused for a new operation
+     */
+    public synchronized void reset() {
+        finish();
+        finished = false;
+        attemptCount = 0;
+        startTimeMs = -1;
+        timeToSuccessMs = -1;
+    }
+
+    private void finish() {
+        finished = true;
+        if (pendingTask != null) {
+            executor.cancel(pendingTask);
+            pendingTask = null;
+        }
+    }
+
+    /**
+     * Number of retries scheduled so far (excludes the initial attempt)
+     */
+    public synchronized int getRetryCount() {
+        return attemptCount;
+    }
+
+    /**
+     * Time from the first attempt to success in milliseconds, or -1 if not succeeded
+     */
+    public synchronized long getTimeToSuccessMs() {
+        return timeToSuccessMs;
+    }
+
+    /**
+     * Whether the scheduler has finished (succeeded or cancelled)
+     */
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Whether all retry attempts have been used up
+     */
+    public synchronized boolean isExhausted() {
+        return attemptCount >= maxAttempts;
+    }
+
+    /**
+     * Executor backed by the shared boostops-io thread (resolved per call, so it is created lazily)
+     */
+    public static final DelayedExecutor IO_EXECUTOR = new DelayedExecutor() {
+        @Override
+        public void postDelayed(Runnable task, long delayMs) {
+            BoostOpsExecutors.ioHandler().postDelayed(task, delayMs);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            BoostOpsExecutors.ioHandler().removeCallbacks(task);
+        }
+    };
+
+    /**
+     * Wrap a Looper as a DelayedExecutor
+     */
+    public static DelayedExecutor handlerExecutor(Looper looper) {
+        final Handler handler = new Handler(looper);
+        return new DelayedExecutor() {
+            @Override
+            public void postDelayed(Runnable task, long delayMs) {
+                handler.postDelayed(task, delayMs);
+            }
+
+            @Override
+            public void cancel(Runnable task) {
+                handler.removeCallbacks(task);
+            }
+        };
+    }
+}
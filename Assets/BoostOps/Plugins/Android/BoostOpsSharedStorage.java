@@ -5,13 +5,25 @@ import android.content.SharedPreferences;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.Signature;
-import android.util.Log;
+import android.util.Base64;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 /**
  * BoostOps cross-app persistent storage for Android
- * Uses SharedPreferences with signature-based cross-app sharing
+ * Backed by the memory-mapped BoostOpsKeyValueStore; values written by earlier SDK
+ * versions to signature-named SharedPreferences are migrated on first use
+ * Also exposes typed namespaced values (string, long, boolean, bytes) with batched
+ * getMany/putMany so Unity can hydrate all SDK state in one JNI crossing
  * Similar patterns to Branch and AppsFlyer for maximum compatibility
  */
 public class BoostOpsSharedStorage {
@@ -20,126 +32,349 @@ public class BoostOpsSharedStorage {
     private static final String PREFS_NAME = "boostops_shared_data";
     private static final String KEY_BOOSTOPS_ID = "boostops_id";
     private static final String KEY_SIGNATURE_HASH = "signature_hash";
+    private static final String KEY_STORED_TIMESTAMP = "stored_timestamp";
+    private static final String MIGRATION_MARKER = "migration.shared_storage";
+    private static final long COMMIT_TIMEOUT_MS = 2000;
     
-    private static Context applicationContext;
-    private static String cachedSignatureHash;
+    // Typed namespaced values and their batch encoding
+    private static final String NAMESPACE_PREFIX = "app.";
+    private static final String TYPE_STRING = "s";
+    private static final String TYPE_LONG = "l";
+    private static final String TYPE_BOOLEAN = "b";
+    private static final String TYPE_BYTES = "y";
+    private static final String TYPE_NULL = "n";
+    // Marks a batch value that does not match its declared type
+    private static final Object INVALID_VALUE = new Object();
+    
+    private static final String[][] LEGACY_KEYS = {
+        { KEY_BOOSTOPS_ID, BoostOpsKeyValueStore.KEY_BOOSTOPS_ID },
+        { KEY_SIGNATURE_HASH, BoostOpsKeyValueStore.KEY_SIGNATURE_HASH },
+        { KEY_STORED_TIMESTAMP, BoostOpsKeyValueStore.KEY_STORED_TIMESTAMP }
+    };
+    
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    
+    // Metrics
+    private static final BoostOpsMetrics.Histogram DURABLE_WRITE = BoostOpsMetrics.histogram("storage.durable_write_ms");
+    private static final BoostOpsMetrics.Counter DURABLE_WRITE_FAILURES = BoostOpsMetrics.counter("storage.durable_write_failures");
+    private static final BoostOpsMetrics.Histogram SIGNATURE_HASH = BoostOpsMetrics.histogram("storage.signature_hash_ms");
+    
+    private static volatile String cachedSignatureHash;
+    private static volatile boolean legacyMigrated = false;
     
     /**
      * Initialize the storage system with application context
      * Must be called before any other operations
+     * The signing certificate hash is precomputed in the background so the first
+     * store/retrieve call does not pay for PackageManager and SHA-256
      */
     public static void initialize(Context context) {
-        applicationContext = context.getApplicationContext();
-        Log.d(TAG, "BoostOps SharedStorage initialized");
+        BoostOpsContext.initialize(context);
+        BoostOpsExecutors.execute(BoostOpsSharedStorage::precomputeSignatureHash);
+        BoostOpsLog.d(TAG, "BoostOps SharedStorage initialized");
     }
     
     /**
      * Get application signature hash for cross-app validation
      * Apps signed with the same certificate can share data
+     *
+     * Served from memory or from the value persisted on an earlier launch; only computed
+     * inline when neither exists yet (first launch before the precompute finished)
      */
     private static String getSignatureHash() {
-        if (cachedSignatureHash != null) {
-            return cachedSignatureHash;
+        String hash = cachedSignatureHash;
+        if (hash != null) {
+            return hash;
+        }
+        
+        try {
+            hash = BoostOpsKeyValueStore.getDefault(BoostOpsContext.get())
+                .getString(BoostOpsKeyValueStore.KEY_SIGNING_CERT_HASH, null);
+        } catch (Exception e) {
+            BoostOpsLog.w(TAG, "Failed to read persisted signature hash: {}", e.getMessage());
         }
         
+        if (hash == null) {
+            return computeSignatureHash();
+        }
+        
+        cachedSignatureHash = hash;
+        return hash;
+    }
+    
+    /**
+     * Background task: verify the persisted hash still matches the installed version
+     * and recompute it after an app update
+     */
+    private static void precomputeSignatureHash() {
         try {
-            PackageManager pm = applicationContext.getPackageManager();
-            PackageInfo packageInfo = pm.getPackageInfo(
-                applicationContext.getPackageName(), 
-                PackageManager.GET_SIGNATURES
-            );
+            BoostOpsKeyValueStore store = BoostOpsKeyValueStore.getDefault(BoostOpsContext.get());
+            long versionCode = getVersionCode();
+            String persisted = store.getString(BoostOpsKeyValueStore.KEY_SIGNING_CERT_HASH, null);
             
-            if (packageInfo.signatures != null && packageInfo.signatures.length > 0) {
-                Signature signature = packageInfo.signatures[0];
-                MessageDigest md = MessageDigest.getInstance("SHA-256");
-                md.update(signature.toByteArray());
-                
-                byte[] digest = md.digest();
-                StringBuilder hexString = new StringBuilder();
-                for (byte b : digest) {
-                    String hex = Integer.toHexString(0xff & b);
-                    if (hex.length() == 1) {
-                        hexString.append('0');
-                    }
-                    hexString.append(hex);
+            if (persisted != null
+                    && store.getLong(BoostOpsKeyValueStore.KEY_SIGNING_CERT_VERSION, -1) == versionCode) {
+                cachedSignatureHash = persisted;
+                return;
+            }
+            
+            computeSignatureHash();
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Failed to precompute signature hash: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Hash the signing certificates and persist the result keyed by version code
+     * Synchronized so a foreground caller and the precompute never hash twice
+     */
+    private static synchronized String computeSignatureHash() {
+        Context context = BoostOpsContext.get();
+        if (context == null) {
+            BoostOpsLog.e(TAG, "Cannot generate signature hash: storage not initialized");
+            return null;
+        }
+        
+        long start = BoostOpsMetrics.now();
+        try {
+            PackageManager pm = context.getPackageManager();
+            String packageName = context.getPackageName();
+            PackageInfo packageInfo;
+            Signature[] signatures;
+            
+            if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.P) {
+                packageInfo = pm.getPackageInfo(packageName, PackageManager.GET_SIGNING_CERTIFICATES);
+                signatures = getSigningCertificates(packageInfo);
+            } else {
+                packageInfo = pm.getPackageInfo(packageName, PackageManager.GET_SIGNATURES);
+                signatures = packageInfo.signatures;
+            }
+            
+            if (signatures == null || signatures.length == 0) {
+                return null;
+            }
+            
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            if (signatures.length == 1) {
+                md.update(signatures[0].toByteArray());
+            } else {
+                // Multiple signers: hash every certificate digest in a stable order
+                String[] digests = new String[signatures.length];
+                for (int i = 0; i < signatures.length; i++) {
+                    digests[i] = toHex(MessageDigest.getInstance("SHA-256").digest(signatures[i].toByteArray()));
+                }
+                Arrays.sort(digests);
+                for (String digest : digests) {
+                    md.update(digest.getBytes(StandardCharsets.US_ASCII));
                 }
-                
-                cachedSignatureHash = hexString.toString();
-                Log.d(TAG, "Generated signature hash: " + cachedSignatureHash.substring(0, 8) + "...");
-                return cachedSignatureHash;
             }
+            
+            String hash = toHex(md.digest());
+            cachedSignatureHash = hash;
+            
+            BoostOpsKeyValueStore store = BoostOpsKeyValueStore.getDefault(context);
+            store.putLong(BoostOpsKeyValueStore.KEY_SIGNING_CERT_VERSION, getVersionCode(packageInfo));
+            store.putString(BoostOpsKeyValueStore.KEY_SIGNING_CERT_HASH, hash);
+            store.syncAsync();
+            
+            BoostOpsLog.d(TAG, "Generated signature hash: {*}", hash);
+            return hash;
         } catch (PackageManager.NameNotFoundException | NoSuchAlgorithmException e) {
-            Log.e(TAG, "Failed to generate signature hash: " + e.getMessage());
+            BoostOpsLog.e(TAG, "Failed to generate signature hash: {}", e.getMessage());
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "Failed to persist signature hash: {}", e.getMessage());
+            return cachedSignatureHash;
+        } finally {
+            SIGNATURE_HASH.recordSince(start);
         }
         
         return null;
     }
     
     /**
-     * Get SharedPreferences instance for BoostOps data
+     * Signing certificates from SigningInfo (API 28+)
+     * With key rotation the original certificate is used so the hash stays stable
+     * across rotations, matching what GET_SIGNATURES reported
+     */
+    private static Signature[] getSigningCertificates(PackageInfo packageInfo) {
+        if (packageInfo.signingInfo == null) {
+            return null;
+        }
+        if (packageInfo.signingInfo.hasMultipleSigners()) {
+            return packageInfo.signingInfo.getApkContentsSigners();
+        }
+        Signature[] history = packageInfo.signingInfo.getSigningCertificateHistory();
+        if (history == null || history.length == 0) {
+            return null;
+        }
+        return new Signature[] { history[0] };
+    }
+    
+    private static long getVersionCode() throws PackageManager.NameNotFoundException {
+        Context context = BoostOpsContext.get();
+        PackageInfo packageInfo = context.getPackageManager()
+            .getPackageInfo(context.getPackageName(), 0);
+        return getVersionCode(packageInfo);
+    }
+    
+    @SuppressWarnings("deprecation")
+    private static long getVersionCode(PackageInfo packageInfo) {
+        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.P) {
+            return packageInfo.getLongVersionCode();
+        }
+        return packageInfo.versionCode;
+    }
+    
+    /**
+     * Lowercase hex encoding via lookup table
+     */
+    static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            out[i * 2] = HEX_DIGITS[v >>> 4];
+            out[i * 2 + 1] = HEX_DIGITS[v & 0x0F];
+        }
+        return new String(out);
+    }
+    
+    /**
+     * Hash that named the legacy preferences file: SHA-256 of the first GET_SIGNATURES entry
+     * Kept separate from getSignatureHash(), whose multi-signer and rotation handling would
+     * point the migration at a file that was never written
+     */
+    @SuppressWarnings("deprecation")
+    private static String getLegacySignatureHash(Context context) {
+        try {
+            PackageInfo packageInfo = context.getPackageManager()
+                .getPackageInfo(context.getPackageName(), PackageManager.GET_SIGNATURES);
+            if (packageInfo.signatures == null || packageInfo.signatures.length == 0) {
+                return null;
+            }
+            
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(packageInfo.signatures[0].toByteArray());
+            return toHex(md.digest());
+        } catch (PackageManager.NameNotFoundException | NoSuchAlgorithmException e) {
+            BoostOpsLog.e(TAG, "Failed to generate legacy signature hash: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Get the legacy SharedPreferences instance for BoostOps data (migration source)
      * Uses signature-based naming for cross-app sharing
      */
     private static SharedPreferences getBoostOpsPreferences() {
-        String signatureHash = getSignatureHash();
+        Context context = BoostOpsContext.get();
+        String signatureHash = getLegacySignatureHash(context);
         String prefsName;
         
         if (signatureHash != null) {
             // Use signature hash for cross-app sharing (similar to Branch pattern)
             prefsName = "boostops_" + signatureHash.substring(0, 8);
-            Log.d(TAG, "Using cross-app preferences: " + prefsName);
+            BoostOpsLog.d(TAG, "Using cross-app preferences: {}", prefsName);
         } else {
             // Fallback to app-specific preferences
-            prefsName = PREFS_NAME + "_" + applicationContext.getPackageName();
-            Log.w(TAG, "Using app-specific preferences (no cross-app sharing): " + prefsName);
+            prefsName = PREFS_NAME + "_" + context.getPackageName();
+            BoostOpsLog.w(TAG, "Using app-specific preferences (no cross-app sharing): {}", prefsName);
         }
         
-        return applicationContext.getSharedPreferences(prefsName, Context.MODE_PRIVATE);
+        return context.getSharedPreferences(prefsName, Context.MODE_PRIVATE);
+    }
+    
+    /**
+     * Get the BoostOps store, migrating legacy SharedPreferences values on first use
+     */
+    private static BoostOpsKeyValueStore getStore() throws Exception {
+        BoostOpsKeyValueStore store = BoostOpsKeyValueStore.getDefault(BoostOpsContext.get());
+        if (!legacyMigrated) {
+            store.migrateFrom(getBoostOpsPreferences(), MIGRATION_MARKER, LEGACY_KEYS);
+            legacyMigrated = true;
+        }
+        return store;
+    }
+    
+    /**
+     * Make an async write durable now
+     * The pending sync is run inline rather than waiting out the sync window, so the
+     * synchronous API never pays the coalescing delay
+     */
+    private static boolean awaitDurable(BoostOpsKeyValueStore.WriteHandle handle) throws Exception {
+        if (handle == null) {
+            DURABLE_WRITE_FAILURES.increment();
+            return false;
+        }
+        long start = BoostOpsMetrics.now();
+        getStore().flush();
+        boolean durable = handle.await(COMMIT_TIMEOUT_MS);
+        DURABLE_WRITE.recordSince(start);
+        if (!durable) {
+            DURABLE_WRITE_FAILURES.increment();
+        }
+        return durable;
     }
     
     /**
-     * Store BoostOps ID in shared storage
+     * Store BoostOps ID in shared storage and wait until it is durable
      * @param boostopsId The BoostOps ID to store
      * @return true if successful, false otherwise
      */
     public static boolean storeBoostOpsId(String boostopsId) {
-        if (boostopsId == null || boostopsId.trim().isEmpty()) {
-            Log.e(TAG, "Cannot store empty BoostOps ID");
+        try {
+            boolean success = awaitDurable(storeBoostOpsIdAsync(boostopsId));
+            
+            if (success) {
+                BoostOpsLog.d(TAG, "✅ Successfully stored BoostOps ID in BoostOps store");
+            } else {
+                BoostOpsLog.e(TAG, "❌ Failed to sync BoostOps ID to BoostOps store");
+            }
+            
+            return success;
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "❌ Exception storing BoostOps ID: {}", e.getMessage());
             return false;
         }
+    }
+    
+    /**
+     * Store BoostOps ID without waiting for disk
+     * The new value is visible to retrieveBoostOpsId() immediately; writes made within the
+     * sync window are made durable together
+     *
+     * @param boostopsId The BoostOps ID to store
+     * @return Handle completed once the write is on disk, or null if the write was rejected
+     */
+    public static BoostOpsKeyValueStore.WriteHandle storeBoostOpsIdAsync(String boostopsId) {
+        if (boostopsId == null || boostopsId.trim().isEmpty()) {
+            BoostOpsLog.e(TAG, "Cannot store empty BoostOps ID");
+            return null;
+        }
         
-        if (applicationContext == null) {
-            Log.e(TAG, "Storage not initialized. Call initialize() first.");
-            return false;
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
+            return null;
         }
         
         try {
-            SharedPreferences prefs = getBoostOpsPreferences();
-            SharedPreferences.Editor editor = prefs.edit();
-            
-            // Store the BoostOps ID
-            editor.putString(KEY_BOOSTOPS_ID, boostopsId);
+            BoostOpsKeyValueStore store = getStore();
             
             // Store signature hash for validation
             String signatureHash = getSignatureHash();
             if (signatureHash != null) {
-                editor.putString(KEY_SIGNATURE_HASH, signatureHash);
+                store.putString(BoostOpsKeyValueStore.KEY_SIGNATURE_HASH, signatureHash);
             }
             
             // Store timestamp for debugging
-            editor.putLong("stored_timestamp", System.currentTimeMillis());
-            
-            boolean success = editor.commit();
+            store.putLong(BoostOpsKeyValueStore.KEY_STORED_TIMESTAMP, System.currentTimeMillis());
             
-            if (success) {
-                Log.d(TAG, "✅ Successfully stored BoostOps ID in SharedPreferences");
-            } else {
-                Log.e(TAG, "❌ Failed to commit BoostOps ID to SharedPreferences");
-            }
+            // Store the BoostOps ID
+            store.putString(BoostOpsKeyValueStore.KEY_BOOSTOPS_ID, boostopsId);
             
-            return success;
+            return store.syncAsync();
         } catch (Exception e) {
-            Log.e(TAG, "❌ Exception storing BoostOps ID: " + e.getMessage());
-            return false;
+            BoostOpsLog.e(TAG, "❌ Exception storing BoostOps ID: {}", e.getMessage());
+            return null;
         }
     }
     
@@ -148,70 +383,423 @@ public class BoostOpsSharedStorage {
      * @return BoostOps ID if found, null otherwise
      */
     public static String retrieveBoostOpsId() {
-        if (applicationContext == null) {
-            Log.e(TAG, "Storage not initialized. Call initialize() first.");
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
             return null;
         }
         
         try {
-            SharedPreferences prefs = getBoostOpsPreferences();
-            String storedId = prefs.getString(KEY_BOOSTOPS_ID, null);
+            BoostOpsKeyValueStore store = getStore();
+            String storedId = store.getString(BoostOpsKeyValueStore.KEY_BOOSTOPS_ID, null);
             
             if (storedId != null && !storedId.trim().isEmpty()) {
                 // Validate signature hash if available
-                String storedSignatureHash = prefs.getString(KEY_SIGNATURE_HASH, null);
+                String storedSignatureHash = store.getString(BoostOpsKeyValueStore.KEY_SIGNATURE_HASH, null);
                 String currentSignatureHash = getSignatureHash();
                 
                 if (storedSignatureHash != null && currentSignatureHash != null) {
                     if (!storedSignatureHash.equals(currentSignatureHash)) {
-                        Log.w(TAG, "⚠️ Signature mismatch. Stored ID may be from different developer.");
+                        BoostOpsLog.w(TAG, "⚠️ Signature mismatch. Stored ID may be from different developer.");
                         // Could decide to return null here for security, but being permissive for now
                     }
                 }
                 
-                Log.d(TAG, "✅ Successfully retrieved BoostOps ID from SharedPreferences");
+                BoostOpsLog.d(TAG, "✅ Successfully retrieved BoostOps ID from BoostOps store");
                 return storedId;
             } else {
-                Log.d(TAG, "BoostOps ID not found in SharedPreferences (first launch)");
+                BoostOpsLog.d(TAG, "BoostOps ID not found in BoostOps store (first launch)");
                 return null;
             }
         } catch (Exception e) {
-            Log.e(TAG, "❌ Exception retrieving BoostOps ID: " + e.getMessage());
+            BoostOpsLog.e(TAG, "❌ Exception retrieving BoostOps ID: {}", e.getMessage());
             return null;
         }
     }
     
     /**
-     * Delete BoostOps ID from shared storage
+     * Delete BoostOps ID from shared storage and wait until the delete is durable
      * @return true if successful, false otherwise
      */
     public static boolean deleteBoostOpsId() {
-        if (applicationContext == null) {
-            Log.e(TAG, "Storage not initialized. Call initialize() first.");
+        try {
+            boolean success = awaitDurable(deleteBoostOpsIdAsync());
+            
+            if (success) {
+                BoostOpsLog.d(TAG, "✅ Successfully deleted BoostOps ID from BoostOps store");
+            } else {
+                BoostOpsLog.e(TAG, "❌ Failed to delete BoostOps ID from BoostOps store");
+            }
+            
+            return success;
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "❌ Exception deleting BoostOps ID: {}", e.getMessage());
             return false;
         }
+    }
+    
+    /**
+     * Delete BoostOps ID without waiting for disk
+     * @return Handle completed once the delete is on disk, or null if it failed
+     */
+    public static BoostOpsKeyValueStore.WriteHandle deleteBoostOpsIdAsync() {
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
+            return null;
+        }
         
         try {
-            SharedPreferences prefs = getBoostOpsPreferences();
-            SharedPreferences.Editor editor = prefs.edit();
+            BoostOpsKeyValueStore store = getStore();
             
-            editor.remove(KEY_BOOSTOPS_ID);
-            editor.remove(KEY_SIGNATURE_HASH);
-            editor.remove("stored_timestamp");
+            store.remove(BoostOpsKeyValueStore.KEY_BOOSTOPS_ID);
+            store.remove(BoostOpsKeyValueStore.KEY_SIGNATURE_HASH);
+            store.remove(BoostOpsKeyValueStore.KEY_STORED_TIMESTAMP);
             
-            boolean success = editor.commit();
+            return store.syncAsync();
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "❌ Exception deleting BoostOps ID: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Make all pending writes durable now (call from OnApplicationPause/OnApplicationQuit)
+     */
+    public static void flush() {
+        if (BoostOpsContext.get() == null) {
+            return;
+        }
+        
+        try {
+            getStore().flush();
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "❌ Exception flushing BoostOps store: {}", e.getMessage());
+        }
+    }
+    
+    // ---- Typed namespaced values ----
+    
+    /**
+     * Build the store key for a caller-supplied namespace/key pair
+     * App values live under their own prefix so they can never overwrite SDK state
+     */
+    private static String namespacedKey(String namespace, String key) {
+        if (namespace == null || namespace.isEmpty() || namespace.indexOf('.') >= 0) {
+            throw new IllegalArgumentException("Invalid namespace: " + namespace);
+        }
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Key must not be empty");
+        }
+        return NAMESPACE_PREFIX + namespace + "." + key;
+    }
+    
+    public static boolean putString(String namespace, String key, String value) {
+        return putValue(namespace, key, value);
+    }
+    
+    public static boolean putLong(String namespace, String key, long value) {
+        return putValue(namespace, key, value);
+    }
+    
+    public static boolean putBoolean(String namespace, String key, boolean value) {
+        return putValue(namespace, key, value);
+    }
+    
+    public static boolean putBytes(String namespace, String key, byte[] value) {
+        return putValue(namespace, key, value);
+    }
+    
+    public static String getString(String namespace, String key, String defaultValue) {
+        Object value = getValue(namespace, key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+    
+    public static long getLong(String namespace, String key, long defaultValue) {
+        Object value = getValue(namespace, key);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+    
+    public static boolean getBoolean(String namespace, String key, boolean defaultValue) {
+        Object value = getValue(namespace, key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+    
+    public static byte[] getBytes(String namespace, String key) {
+        Object value = getValue(namespace, key);
+        return value instanceof byte[] ? ((byte[]) value).clone() : null;
+    }
+    
+    public static boolean contains(String namespace, String key) {
+        return getValue(namespace, key) != null;
+    }
+    
+    public static boolean remove(String namespace, String key) {
+        return putValue(namespace, key, null);
+    }
+    
+    /**
+     * Write a batch of typed values in one call and one sync
+     *
+     * The whole payload is parsed and validated before anything is written, so a
+     * malformed entry leaves the store untouched.
+     *
+     * @param namespace Namespace shared by all keys in the batch
+     * @param payload JSON array of {"k":key,"t":type,"v":value} entries, where type is
+     *                "s" (string), "l" (long), "b" (boolean), "y" (base64 bytes) or
+     *                "n" (remove the key); fields may come in any order
+     * @return true if the batch was valid and every entry was applied
+     */
+    public static boolean putMany(String namespace, String payload) {
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
+            return false;
+        }
+        if (payload == null) {
+            return false;
+        }
+        
+        List<String> keys = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        JsonReader reader = new JsonReader(new StringReader(payload));
+        try {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String key = null;
+                String type = null;
+                Object rawValue = null;
+                
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("k".equals(name)) {
+                        key = reader.nextString();
+                    } else if ("t".equals(name)) {
+                        type = reader.nextString();
+                    } else if ("v".equals(name)) {
+                        rawValue = readRawValue(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                
+                Object value = toTypedValue(type, rawValue);
+                if (key == null || value == INVALID_VALUE) {
+                    BoostOpsLog.w(TAG, "Rejecting batch for namespace {}: malformed entry {}", namespace, key);
+                    return false;
+                }
+                keys.add(namespacedKey(namespace, key));
+                values.add(value);
+            }
+            reader.endArray();
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "❌ Unreadable batch for namespace {}: {}", namespace, e.getMessage());
+            return false;
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+        
+        BoostOpsKeyValueStore store = null;
+        try {
+            store = getStore();
+            for (int i = 0; i < keys.size(); i++) {
+                writeValue(store, keys.get(i), values.get(i));
+            }
+            return true;
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "❌ Exception applying batch to namespace {}: {}", namespace, e.getMessage());
+            return false;
+        } finally {
+            // Entries written before a failure still need to reach disk
+            if (store != null) {
+                store.syncAsync();
+            }
+        }
+    }
+    
+    /**
+     * Read a batch of typed values in one call
+     *
+     * @param keysPayload JSON array of key names
+     * @return JSON array of {"k","t","v"} entries for the keys that exist (same format as putMany);
+     *         empty when no keys are given
+     */
+    public static String getMany(String namespace, String keysPayload) {
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
+            return null;
+        }
+        if (keysPayload == null || keysPayload.isEmpty()) {
+            return "[]";
+        }
+        
+        JsonReader reader = new JsonReader(new StringReader(keysPayload));
+        BoostOpsJsonWriter writer = null;
+        try {
+            BoostOpsKeyValueStore store = getStore();
+            writer = BoostOpsJsonWriter.obtain().beginArray();
             
-            if (success) {
-                Log.d(TAG, "✅ Successfully deleted BoostOps ID from SharedPreferences");
-            } else {
-                Log.e(TAG, "❌ Failed to delete BoostOps ID from SharedPreferences");
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String key = reader.nextString();
+                writeEntry(writer, key, store.get(namespacedKey(namespace, key)));
             }
+            reader.endArray();
             
-            return success;
+            return writer.endArray().toString();
         } catch (Exception e) {
-            Log.e(TAG, "❌ Exception deleting BoostOps ID: " + e.getMessage());
+            BoostOpsLog.e(TAG, "❌ Exception reading batch from namespace {}: {}", namespace, e.getMessage());
+            return null;
+        } finally {
+            if (writer != null) {
+                writer.release();
+            }
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+    
+    /**
+     * Read every value in a namespace in one call (session start hydration)
+     * @return JSON array of {"k","t","v"} entries
+     */
+    public static String getNamespace(String namespace) {
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
+            return null;
+        }
+        
+        BoostOpsJsonWriter writer = null;
+        try {
+            namespacedKey(namespace, "_");
+            String prefix = NAMESPACE_PREFIX + namespace + ".";
+            writer = BoostOpsJsonWriter.obtain().beginArray();
+            for (Map.Entry<String, Object> entry : getStore().getAll(prefix).entrySet()) {
+                writeEntry(writer, entry.getKey().substring(prefix.length()), entry.getValue());
+            }
+            return writer.endArray().toString();
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "❌ Exception reading namespace {}: {}", namespace, e.getMessage());
+            return null;
+        } finally {
+            if (writer != null) {
+                writer.release();
+            }
+        }
+    }
+    
+    private static boolean putValue(String namespace, String key, Object value) {
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
             return false;
         }
+        
+        try {
+            BoostOpsKeyValueStore store = getStore();
+            writeValue(store, namespacedKey(namespace, key), value);
+            store.syncAsync();
+            return true;
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "❌ Exception writing {}.{}: {}", namespace, key, e.getMessage());
+            return false;
+        }
+    }
+    
+    private static Object getValue(String namespace, String key) {
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
+            return null;
+        }
+        
+        try {
+            return getStore().get(namespacedKey(namespace, key));
+        } catch (Exception e) {
+            BoostOpsLog.e(TAG, "❌ Exception reading {}.{}: {}", namespace, key, e.getMessage());
+            return null;
+        }
+    }
+    
+    private static void writeValue(BoostOpsKeyValueStore store, String storeKey, Object value) throws IOException {
+        if (value == null) {
+            store.remove(storeKey);
+        } else if (value instanceof String) {
+            store.putString(storeKey, (String) value);
+        } else if (value instanceof Long) {
+            store.putLong(storeKey, (Long) value);
+        } else if (value instanceof Boolean) {
+            store.putBoolean(storeKey, (Boolean) value);
+        } else if (value instanceof byte[]) {
+            store.putBytes(storeKey, (byte[]) value);
+        }
+    }
+    
+    /**
+     * Read a batch value before its type is known: a String (strings and numbers),
+     * a Boolean, null, or INVALID_VALUE for arrays and objects
+     */
+    private static Object readRawValue(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        } else if (token == JsonToken.BOOLEAN) {
+            return reader.nextBoolean();
+        } else if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        reader.skipValue();
+        return INVALID_VALUE;
+    }
+    
+    /**
+     * Convert a raw batch value to its declared type
+     * @return The value (null for "n"), or INVALID_VALUE if it does not match the type
+     */
+    private static Object toTypedValue(String type, Object rawValue) {
+        if (TYPE_NULL.equals(type)) {
+            return null;
+        }
+        if (TYPE_BOOLEAN.equals(type)) {
+            return rawValue instanceof Boolean ? rawValue : INVALID_VALUE;
+        }
+        if (!(rawValue instanceof String)) {
+            return INVALID_VALUE;
+        }
+        
+        String text = (String) rawValue;
+        try {
+            if (TYPE_STRING.equals(type)) {
+                return text;
+            } else if (TYPE_LONG.equals(type)) {
+                return Long.parseLong(text);
+            } else if (TYPE_BYTES.equals(type)) {
+                return Base64.decode(text, Base64.NO_WRAP);
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException or bad base64
+        }
+        return INVALID_VALUE;
+    }
+    
+    private static void writeEntry(BoostOpsJsonWriter writer, String key, Object value) {
+        if (value == null) {
+            return;
+        }
+        writer.beginObject().field("k", key);
+        if (value instanceof String) {
+            writer.field("t", TYPE_STRING).field("v", (String) value);
+        } else if (value instanceof Long) {
+            writer.field("t", TYPE_LONG).field("v", (Long) value);
+        } else if (value instanceof Boolean) {
+            writer.field("t", TYPE_BOOLEAN).field("v", (Boolean) value);
+        } else if (value instanceof byte[]) {
+            writer.field("t", TYPE_BYTES).field("v", Base64.encodeToString((byte[]) value, Base64.NO_WRAP));
+        }
+        writer.endObject();
     }
     
     /**
@@ -219,19 +807,18 @@ public class BoostOpsSharedStorage {
      * @return true if exists, false otherwise
      */
     public static boolean boostOpsIdExists() {
-        if (applicationContext == null) {
-            Log.e(TAG, "Storage not initialized. Call initialize() first.");
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
             return false;
         }
         
         try {
-            SharedPreferences prefs = getBoostOpsPreferences();
-            boolean exists = prefs.contains(KEY_BOOSTOPS_ID);
+            boolean exists = getStore().contains(BoostOpsKeyValueStore.KEY_BOOSTOPS_ID);
             
-            Log.d(TAG, "BoostOps ID exists in SharedPreferences: " + exists);
+            BoostOpsLog.d(TAG, "BoostOps ID exists in BoostOps store: {}", exists);
             return exists;
         } catch (Exception e) {
-            Log.e(TAG, "❌ Exception checking BoostOps ID existence: " + e.getMessage());
+            BoostOpsLog.e(TAG, "❌ Exception checking BoostOps ID existence: {}", e.getMessage());
             return false;
         }
     }
@@ -240,30 +827,31 @@ public class BoostOpsSharedStorage {
      * Debug function: Log all stored BoostOps data
      */
     public static void debugStoredData() {
-        if (applicationContext == null) {
-            Log.e(TAG, "Storage not initialized. Call initialize() first.");
+        if (BoostOpsContext.get() == null) {
+            BoostOpsLog.e(TAG, "Storage not initialized. Call initialize() first.");
             return;
         }
         
-        Log.d(TAG, "=== DEBUG: BoostOps Stored Data ===");
+        BoostOpsLog.d(TAG, "=== DEBUG: BoostOps Stored Data ===");
         
         try {
-            SharedPreferences prefs = getBoostOpsPreferences();
+            BoostOpsKeyValueStore store = getStore();
             
-            String storedId = prefs.getString(KEY_BOOSTOPS_ID, null);
-            String storedSignatureHash = prefs.getString(KEY_SIGNATURE_HASH, null);
-            long storedTimestamp = prefs.getLong("stored_timestamp", 0);
+            String storedId = store.getString(BoostOpsKeyValueStore.KEY_BOOSTOPS_ID, null);
+            String storedSignatureHash = store.getString(BoostOpsKeyValueStore.KEY_SIGNATURE_HASH, null);
+            long storedTimestamp = store.getLong(BoostOpsKeyValueStore.KEY_STORED_TIMESTAMP, 0);
             
-            Log.d(TAG, "BoostOps ID: " + (storedId != null ? storedId.substring(0, Math.min(20, storedId.length())) + "..." : "null"));
-            Log.d(TAG, "Signature Hash: " + (storedSignatureHash != null ? storedSignatureHash.substring(0, 8) + "..." : "null"));
-            Log.d(TAG, "Stored Timestamp: " + storedTimestamp);
-            Log.d(TAG, "Current Signature: " + (getSignatureHash() != null ? getSignatureHash().substring(0, 8) + "..." : "null"));
+            BoostOpsLog.d(TAG, "BoostOps ID: {*}", storedId);
+            BoostOpsLog.d(TAG, "Signature Hash: {*}", storedSignatureHash);
+            BoostOpsLog.d(TAG, "Stored Timestamp: {}", storedTimestamp);
+            BoostOpsLog.d(TAG, "Store Log Size: {} bytes", store.getLogSize());
+            BoostOpsLog.d(TAG, "Current Signature: {*}", getSignatureHash());
             
         } catch (Exception e) {
-            Log.e(TAG, "❌ Exception during debug: " + e.getMessage());
+            BoostOpsLog.e(TAG, "❌ Exception during debug: {}", e.getMessage());
         }
         
-        Log.d(TAG, "=== END DEBUG ===");
+        BoostOpsLog.d(TAG, "=== END DEBUG ===");
     }
 }
 
@@ -280,18 +868,17 @@ class BoostOpsUnityPlugin {
      */
     public static void initializeStorage() {
         try {
-            // Get Unity's current activity
-            Class<?> unityPlayerClass = Class.forName("com.unity3d.player.UnityPlayer");
-            android.app.Activity currentActivity = (android.app.Activity) unityPlayerClass.getField("currentActivity").get(null);
+            // Application context from the shared holder (never the activity itself)
+            Context context = BoostOpsContext.get();
             
-            if (currentActivity != null) {
-                BoostOpsSharedStorage.initialize(currentActivity.getApplicationContext());
-                Log.d(TAG, "✅ Storage initialized with Unity activity context");
+            if (context != null) {
+                BoostOpsSharedStorage.initialize(context);
+                BoostOpsLog.d(TAG, "✅ Storage initialized with Unity activity context");
             } else {
-                Log.e(TAG, "❌ Unity current activity is null");
+                BoostOpsLog.e(TAG, "❌ Unity current activity is null");
             }
         } catch (Exception e) {
-            Log.e(TAG, "❌ Failed to initialize storage: " + e.getMessage());
+            BoostOpsLog.e(TAG, "❌ Failed to initialize storage: {}", e.getMessage());
         }
     }
     
@@ -323,6 +910,41 @@ class BoostOpsUnityPlugin {
         return BoostOpsSharedStorage.boostOpsIdExists();
     }
     
+    /**
+     * Store BoostOps ID without waiting for disk (Unity callable)
+     */
+    public static BoostOpsKeyValueStore.WriteHandle storeBoostOpsIdAsync(String boostopsId) {
+        return BoostOpsSharedStorage.storeBoostOpsIdAsync(boostopsId);
+    }
+    
+    /**
+     * Flush pending writes on pause/quit (Unity callable)
+     */
+    public static void flush() {
+        BoostOpsSharedStorage.flush();
+    }
+    
+    /**
+     * Write a typed batch in one JNI crossing (Unity callable)
+     */
+    public static boolean putMany(String namespace, String payload) {
+        return BoostOpsSharedStorage.putMany(namespace, payload);
+    }
+    
+    /**
+     * Read a typed batch in one JNI crossing (Unity callable)
+     */
+    public static String getMany(String namespace, String keysPayload) {
+        return BoostOpsSharedStorage.getMany(namespace, keysPayload);
+    }
+    
+    /**
+     * Read a whole namespace in one JNI crossing (Unity callable)
+     */
+    public static String getNamespace(String namespace) {
+        return BoostOpsSharedStorage.getNamespace(namespace);
+    }
+    
     /**
      * Debug stored data (Unity callable)
      */
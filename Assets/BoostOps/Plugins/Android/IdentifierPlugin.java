@@ -1,17 +1,19 @@
 package com.boostops.unity;
 
 import android.content.Context;
-import android.util.Log;
+import android.os.SystemClock;
 import com.google.android.gms.ads.identifier.AdvertisingIdClient;
 import com.google.android.gms.appset.AppSet;
 import com.google.android.gms.appset.AppSetIdClient;
 import com.google.android.gms.appset.AppSetIdInfo;
 import com.google.android.gms.tasks.Task;
-import com.unity3d.player.UnityPlayer;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Android Identifier Plugin for BoostOps Unity SDK
@@ -24,156 +26,500 @@ public class IdentifierPlugin {
     private static final String TAG = "BoostOps-Identifiers";
     private static final int TIMEOUT_SECONDS = 5;
     
+    // Status codes for identifier requests and getAllIdentifiers() fields
+    public static final int STATUS_OK = 0;
+    public static final int STATUS_TIMEOUT = 1;
+    public static final int STATUS_OPTED_OUT = 2;
+    public static final int STATUS_UNAVAILABLE = 3;
+    
+    // Extra time a synchronous wrapper waits beyond the request's own timeout
+    private static final long SYNC_WAIT_MARGIN_MS = 250;
+    
+    // Metrics
+    private static final BoostOpsMetrics.Histogram APP_SET_ID_FETCH = BoostOpsMetrics.histogram("identifier.app_set_id_fetch_ms");
+    private static final BoostOpsMetrics.Histogram GAID_FETCH = BoostOpsMetrics.histogram("identifier.gaid_fetch_ms");
+    private static final BoostOpsMetrics.Histogram BUNDLE_TIME = BoostOpsMetrics.histogram("identifier.bundle_ms");
+    private static final BoostOpsMetrics.Counter TIMEOUTS = BoostOpsMetrics.counter("identifier.timeouts");
+    private static final BoostOpsMetrics.Counter FETCH_FAILURES = BoostOpsMetrics.counter("identifier.fetch_failures");
+    
     /**
-     * Get Android App Set ID
-     * Developer-scoped identifier that persists across app installs from the same developer
-     * Used for cross-app attribution within the same developer portfolio
-     * 
-     * @return App Set ID or null if unavailable
+     * Callback for non-blocking identifier requests
+     * Implement from C# with AndroidJavaProxy("com.boostops.unity.IdentifierPlugin$IdentifierCallback")
      */
-    public static String getAppSetId() {
-        Log.d(TAG, "Getting Android App Set ID...");
+    public interface IdentifierCallback {
+        /**
+         * @param identifier Identifier name ("app_set_id", "gaid", "click_id", "locale" or "all")
+         * @param value Identifier value (JSON bundle for "all"), or null
+         * @param status One of the STATUS_* codes
+         */
+        void onIdentifierResult(String identifier, String value, int status);
+    }
+    
+    /**
+     * Pollable handle for a non-blocking identifier request
+     * Completes exactly once, on an SDK background thread or inline if the value was cached
+     */
+    public static final class IdentifierRequest {
+        private final String identifier;
+        private final IdentifierCallback callback;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        private volatile String value;
+        private volatile int status = STATUS_TIMEOUT;
         
-        try {
-            Context context = getUnityContext();
-            if (context == null) {
-                Log.e(TAG, "Unity context is null, cannot get App Set ID");
-                return null;
+        IdentifierRequest(String identifier, IdentifierCallback callback) {
+            this.identifier = identifier;
+            this.callback = callback;
+        }
+        
+        public String getIdentifier() {
+            return identifier;
+        }
+        
+        public boolean isDone() {
+            return completed.get();
+        }
+        
+        public String getValue() {
+            return value;
+        }
+        
+        public int getStatus() {
+            return status;
+        }
+        
+        /**
+         * Block until the request completes (used by the synchronous getters)
+         * @return Value, or null if unavailable or not completed in time
+         */
+        public String await(long timeoutMs) {
+            try {
+                done.await(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                BoostOpsLog.e(TAG, "{} request interrupted: {}", identifier, e.getMessage());
+                Thread.currentThread().interrupt();
             }
+            return value;
+        }
+        
+        boolean complete(String newValue, int newStatus) {
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            value = newValue;
+            status = newStatus;
+            done.countDown();
             
-            // App Set ID API uses Tasks, need to block until result is ready
-            final AtomicReference<String> appSetIdResult = new AtomicReference<>(null);
-            final CountDownLatch latch = new CountDownLatch(1);
-            
-            AppSetIdClient client = AppSet.getClient(context);
-            Task<AppSetIdInfo> task = client.getAppSetIdInfo();
-            
-            task.addOnSuccessListener(appSetIdInfo -> {
+            if (callback != null) {
                 try {
-                    if (appSetIdInfo != null) {
-                        String appSetId = appSetIdInfo.getId();
-                        int scope = appSetIdInfo.getScope();
-                        
-                        Log.d(TAG, "✅ App Set ID retrieved successfully");
-                        Log.d(TAG, "App Set ID Scope: " + 
-                            (scope == AppSetIdInfo.SCOPE_APP ? "APP" : "DEVELOPER"));
-                        
-                        appSetIdResult.set(appSetId);
-                    } else {
-                        Log.w(TAG, "App Set ID info is null");
-                    }
+                    callback.onIdentifierResult(identifier, newValue, newStatus);
                 } catch (Exception e) {
-                    Log.e(TAG, "Error processing App Set ID result: " + e.getMessage());
-                } finally {
-                    latch.countDown();
+                    BoostOpsLog.e(TAG, "Identifier callback failed: {}", e.getMessage());
                 }
-            });
-            
-            task.addOnFailureListener(exception -> {
-                Log.e(TAG, "Failed to get App Set ID: " + exception.getMessage());
-                latch.countDown();
-            });
-            
-            // Wait for result with timeout
-            boolean completed = latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            if (!completed) {
-                Log.w(TAG, "App Set ID request timed out after " + TIMEOUT_SECONDS + " seconds");
-                return null;
             }
-            
-            return appSetIdResult.get();
-            
-        } catch (InterruptedException e) {
-            Log.e(TAG, "App Set ID request interrupted: " + e.getMessage());
-            Thread.currentThread().interrupt();
-            return null;
-        } catch (Exception e) {
-            Log.e(TAG, "Unexpected error getting App Set ID: " + e.getMessage());
-            return null;
+            return true;
         }
     }
     
+    /**
+     * Get Android App Set ID
+     * Developer-scoped identifier that persists across app installs from the same developer
+     * Used for cross-app attribution within the same developer portfolio
+     * 
+     * Thin blocking wrapper over requestAppSetId(); only the first lookup on an install waits
+     * 
+     * @return App Set ID or null if unavailable
+     */
+    public static String getAppSetId() {
+        BoostOpsLog.d(TAG, "Getting Android App Set ID...");
+        return requestAppSetId(null).await(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS) + SYNC_WAIT_MARGIN_MS);
+    }
+    
     /**
      * Get Google Advertising ID (GAID)
      * User-resettable advertising identifier
      * Returns null if user has opted out of personalized ads or limit ad tracking is enabled
      * 
+     * Thin blocking wrapper over requestGoogleAdvertisingId(); only the first lookup on an install waits
+     * 
      * Note: Google is planning to deprecate GAID in the future
      * 
      * @return GAID or null if unavailable/opted out
      */
     public static String getGoogleAdvertisingId() {
-        Log.d(TAG, "Getting Google Advertising ID (GAID)...");
+        BoostOpsLog.d(TAG, "Getting Google Advertising ID (GAID)...");
+        return requestGoogleAdvertisingId(null).await(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS) + SYNC_WAIT_MARGIN_MS);
+    }
+    
+    /**
+     * Get all identifiers in one call (App Set ID, GAID, click ID, locale)
+     * Play Services lookups run in parallel under one shared deadline, so the worst case
+     * is the slowest lookup rather than the sum
+     * 
+     * @return JSON with each value plus a "status" object of per-field status codes
+     */
+    public static String getAllIdentifiers() {
+        return getAllIdentifiers(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    }
+    
+    /**
+     * Get all identifiers in one call with a custom shared deadline
+     */
+    public static String getAllIdentifiers(long timeoutMs) {
+        BoostOpsLog.d(TAG, "Getting all identifiers...");
+        return requestAllIdentifiers(null, timeoutMs).await(timeoutMs + SYNC_WAIT_MARGIN_MS);
+    }
+    
+    /**
+     * Request App Set ID without blocking the calling thread
+     * @param callback Optional callback, may be null when polling the returned handle
+     */
+    public static IdentifierRequest requestAppSetId(IdentifierCallback callback) {
+        return requestPlayServicesIdentifier(BoostOpsIdentifierCache.APP_SET_ID,
+            IdentifierPlugin::fetchAppSetId, callback);
+    }
+    
+    /**
+     * Request GAID without blocking the calling thread
+     * Completes with STATUS_OPTED_OUT when Limit Ad Tracking is enabled
+     * @param callback Optional callback, may be null when polling the returned handle
+     */
+    public static IdentifierRequest requestGoogleAdvertisingId(IdentifierCallback callback) {
+        return requestPlayServicesIdentifier(BoostOpsIdentifierCache.GAID,
+            BoostOpsIdentifierCache.async(IdentifierPlugin::fetchAdvertisingId), callback);
+    }
+    
+    /**
+     * Request the install referrer click ID without blocking the calling thread
+     */
+    public static IdentifierRequest requestInstallReferrerClickId(IdentifierCallback callback) {
+        final IdentifierRequest request = new IdentifierRequest("click_id", callback);
+        runOnExecutor(request, () -> {
+            String clickId = getInstallReferrerClickId();
+            request.complete(clickId, clickId != null ? STATUS_OK : STATUS_UNAVAILABLE);
+        });
+        return request;
+    }
+    
+    /**
+     * Request the device locale without blocking the calling thread
+     */
+    public static IdentifierRequest requestDeviceLocale(IdentifierCallback callback) {
+        final IdentifierRequest request = new IdentifierRequest("locale", callback);
+        runOnExecutor(request, () -> {
+            String locale = getDeviceLocale();
+            request.complete(locale, locale != null ? STATUS_OK : STATUS_UNAVAILABLE);
+        });
+        return request;
+    }
+    
+    /**
+     * Request the full identifier bundle without blocking the calling thread
+     * The value passed to the callback is the same JSON returned by getAllIdentifiers()
+     */
+    public static IdentifierRequest requestAllIdentifiers(IdentifierCallback callback) {
+        return requestAllIdentifiers(callback, TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    }
+    
+    /**
+     * Request the full identifier bundle with a custom shared deadline
+     */
+    public static IdentifierRequest requestAllIdentifiers(IdentifierCallback callback, long timeoutMs) {
+        return collectIdentifiers(getUnityContext(), IdentifierPlugin::fetchAppSetId,
+            BoostOpsIdentifierCache.async(IdentifierPlugin::fetchAdvertisingId), timeoutMs, callback);
+    }
+    
+    /**
+     * Collect the identifier bundle using the given Play Services fetchers
+     * Separated from requestAllIdentifiers() so fake providers can be supplied
+     *
+     * The bundle status is STATUS_OK when any field has a value; otherwise STATUS_TIMEOUT
+     * if a lookup overran the deadline, STATUS_OPTED_OUT if GAID was withheld by Limit Ad
+     * Tracking, and STATUS_UNAVAILABLE when nothing could be read
+     */
+    static IdentifierRequest collectIdentifiers(final Context context,
+                                                BoostOpsIdentifierCache.AsyncFetcher appSetFetcher,
+                                                BoostOpsIdentifierCache.AsyncFetcher gaidFetcher,
+                                                long timeoutMs, IdentifierCallback callback) {
+        final IdentifierRequest request = new IdentifierRequest("all", callback);
+        final long start = SystemClock.elapsedRealtime();
+        // Slots: App Set ID, GAID, then the local click ID / locale read
+        final AtomicReferenceArray<BoostOpsIdentifierCache.Snapshot> results = new AtomicReferenceArray<>(2);
+        final AtomicReferenceArray<String> localValues = new AtomicReferenceArray<>(2);
+        final AtomicIntegerArray finished = new AtomicIntegerArray(3);
+        final AtomicInteger pending = new AtomicInteger(3);
+        final AtomicBoolean building = new AtomicBoolean(false);
+        final Runnable[] deadline = new Runnable[1];
         
-        try {
-            Context context = getUnityContext();
-            if (context == null) {
-                Log.e(TAG, "Unity context is null, cannot get GAID");
-                return null;
+        // Builds the bundle once: when every lookup finishes or the shared deadline passes
+        final Runnable finish = () -> {
+            if (!building.compareAndSet(false, true)) {
+                return;
             }
-            
-            // AdvertisingIdClient.getAdvertisingIdInfo() must be called on a background thread
-            // We'll run it synchronously with a timeout since Unity will call this from a worker thread
-            final AtomicReference<String> gaidResult = new AtomicReference<>(null);
-            final AtomicReference<Exception> exceptionRef = new AtomicReference<>(null);
-            final CountDownLatch latch = new CountDownLatch(1);
-            
-            // Run on background thread
-            new Thread(() -> {
-                try {
-                    AdvertisingIdClient.Info adInfo = AdvertisingIdClient.getAdvertisingIdInfo(context);
-                    
-                    if (adInfo != null) {
-                        boolean isLimitAdTrackingEnabled = adInfo.isLimitAdTrackingEnabled();
-                        
-                        if (isLimitAdTrackingEnabled) {
-                            Log.d(TAG, "⚠️ User has enabled Limit Ad Tracking - GAID not available");
-                            gaidResult.set(null);
-                        } else {
-                            String gaid = adInfo.getId();
-                            
-                            // Check for zero/invalid GAID
-                            if (gaid != null && !gaid.equals("00000000-0000-0000-0000-000000000000")) {
-                                Log.d(TAG, "✅ GAID retrieved successfully");
-                                gaidResult.set(gaid);
-                            } else {
-                                Log.w(TAG, "GAID is zero or invalid");
-                                gaidResult.set(null);
-                            }
-                        }
-                    } else {
-                        Log.w(TAG, "AdvertisingIdClient returned null info");
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error getting GAID: " + e.getMessage());
-                    exceptionRef.set(e);
-                } finally {
-                    latch.countDown();
+            BoostOpsExecutors.ioHandler().removeCallbacks(deadline[0]);
+            runOnExecutor(request, () -> completeBundle(request, results, localValues, finished, start));
+        };
+        deadline[0] = finish;
+        
+        // Click ID and locale are read while the Play Services lookups are in flight
+        runOnExecutor(request, () -> {
+            localValues.set(0, getInstallReferrerClickId());
+            localValues.set(1, getDeviceLocale());
+            finished.set(2, 1);
+            if (pending.decrementAndGet() == 0) {
+                finish.run();
+            }
+        });
+        
+        String[] names = { BoostOpsIdentifierCache.APP_SET_ID, BoostOpsIdentifierCache.GAID };
+        BoostOpsIdentifierCache.AsyncFetcher[] fetchers = { appSetFetcher, gaidFetcher };
+        
+        for (int i = 0; i < names.length; i++) {
+            final int index = i;
+            BoostOpsIdentifierCache.Callback onSnapshot = snapshot -> {
+                results.set(index, snapshot);
+                finished.set(index, 1);
+                if (pending.decrementAndGet() == 0) {
+                    finish.run();
                 }
-            }).start();
+            };
             
-            // Wait for result with timeout
-            boolean completed = latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            if (!completed) {
-                Log.w(TAG, "GAID request timed out after " + TIMEOUT_SECONDS + " seconds");
-                return null;
+            if (context == null) {
+                onSnapshot.onSnapshot(null);
+            } else {
+                BoostOpsIdentifierCache.getAsync(context, names[i], fetchers[i], onSnapshot);
             }
-            
-            // Check if an exception occurred
-            if (exceptionRef.get() != null) {
-                throw exceptionRef.get();
+        }
+        
+        if (!building.get()) {
+            BoostOpsExecutors.ioHandler().postDelayed(finish, Math.max(0, timeoutMs));
+        }
+        return request;
+    }
+    
+    private static void completeBundle(IdentifierRequest request,
+                                       AtomicReferenceArray<BoostOpsIdentifierCache.Snapshot> results,
+                                       AtomicReferenceArray<String> localValues,
+                                       AtomicIntegerArray finished, long start) {
+        BoostOpsIdentifierCache.Snapshot appSet = results.get(0);
+        BoostOpsIdentifierCache.Snapshot gaid = results.get(1);
+        int appSetStatus = snapshotStatus(appSet, finished.get(0) == 1);
+        int gaidStatus = snapshotStatus(gaid, finished.get(1) == 1);
+        if (appSetStatus == STATUS_TIMEOUT) {
+            TIMEOUTS.increment();
+        }
+        if (gaidStatus == STATUS_TIMEOUT) {
+            TIMEOUTS.increment();
+        }
+        BUNDLE_TIME.record(SystemClock.elapsedRealtime() - start);
+        
+        // Local reads are fast; only read them here if the deadline beat them
+        boolean localDone = finished.get(2) == 1;
+        String clickId = localDone ? localValues.get(0) : getInstallReferrerClickId();
+        String locale = localDone ? localValues.get(1) : getDeviceLocale();
+        int clickIdStatus = clickId != null ? STATUS_OK : STATUS_UNAVAILABLE;
+        int localeStatus = locale != null ? STATUS_OK : STATUS_UNAVAILABLE;
+        String appSetId = appSetStatus == STATUS_OK ? appSet.value : null;
+        String gaidValue = gaidStatus == STATUS_OK ? gaid.value : null;
+        
+        // Binary copy for C# readers of the shared buffer (no-op unless enabled)
+        BoostOpsNativeBuffer.writeIdentifiers(appSetId, gaidValue, clickId, locale,
+            appSetStatus, gaidStatus, clickIdStatus, localeStatus);
+        
+        String bundle = BoostOpsJsonWriter.obtain()
+            .beginObject()
+            .field("app_set_id", appSetId)
+            .field("gaid", gaidValue)
+            .field("click_id", clickId)
+            .field("locale", locale)
+            .name("status").beginObject()
+                .field("app_set_id", appSetStatus)
+                .field("gaid", gaidStatus)
+                .field("click_id", clickIdStatus)
+                .field("locale", localeStatus)
+            .endObject()
+            .field("elapsed_ms", SystemClock.elapsedRealtime() - start)
+            .endObject()
+            .toString();
+        
+        request.complete(bundle, bundleStatus(appSetStatus, gaidStatus, clickIdStatus, localeStatus));
+    }
+    
+    private static int bundleStatus(int appSetStatus, int gaidStatus, int clickIdStatus, int localeStatus) {
+        if (appSetStatus == STATUS_OK || gaidStatus == STATUS_OK
+                || clickIdStatus == STATUS_OK || localeStatus == STATUS_OK) {
+            return STATUS_OK;
+        }
+        if (appSetStatus == STATUS_TIMEOUT || gaidStatus == STATUS_TIMEOUT) {
+            return STATUS_TIMEOUT;
+        }
+        if (gaidStatus == STATUS_OPTED_OUT) {
+            return STATUS_OPTED_OUT;
+        }
+        return STATUS_UNAVAILABLE;
+    }
+    
+    /**
+     * Shared request path for App Set ID and GAID
+     * Served from BoostOpsIdentifierCache; completes with STATUS_TIMEOUT if the lookup overruns
+     */
+    private static IdentifierRequest requestPlayServicesIdentifier(String name,
+                                                                   BoostOpsIdentifierCache.AsyncFetcher fetcher,
+                                                                   IdentifierCallback callback) {
+        final IdentifierRequest request = new IdentifierRequest(name, callback);
+        
+        Context context = getUnityContext();
+        if (context == null) {
+            BoostOpsLog.e(TAG, "Unity context is null, cannot get {}", name);
+            request.complete(null, STATUS_UNAVAILABLE);
+            return request;
+        }
+        
+        final Runnable timeout = () -> {
+            if (request.complete(null, STATUS_TIMEOUT)) {
+                TIMEOUTS.increment();
             }
-            
-            return gaidResult.get();
-            
-        } catch (InterruptedException e) {
-            Log.e(TAG, "GAID request interrupted: " + e.getMessage());
-            Thread.currentThread().interrupt();
-            return null;
+        };
+        BoostOpsExecutors.ioHandler().postDelayed(timeout, TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        
+        BoostOpsIdentifierCache.getAsync(context, name, fetcher, snapshot -> {
+            BoostOpsExecutors.ioHandler().removeCallbacks(timeout);
+            int status = snapshotStatus(snapshot, true);
+            request.complete(status == STATUS_OK ? snapshot.value : null, status);
+        });
+        return request;
+    }
+    
+    private static void runOnExecutor(IdentifierRequest request, Runnable task) {
+        if (!BoostOpsExecutors.execute(task)) {
+            request.complete(null, STATUS_UNAVAILABLE);
+        }
+    }
+    
+    private static int snapshotStatus(BoostOpsIdentifierCache.Snapshot snapshot, boolean finished) {
+        if (snapshot == null) {
+            return finished ? STATUS_UNAVAILABLE : STATUS_TIMEOUT;
+        }
+        if (snapshot.limitAdTracking) {
+            return STATUS_OPTED_OUT;
+        }
+        return snapshot.value != null ? STATUS_OK : STATUS_UNAVAILABLE;
+    }
+    
+
+    /**
+     * Force identifiers to be re-fetched on next access (e.g. after returning from settings)
+     */
+    public static void invalidateIdentifierCache() {
+        BoostOpsIdentifierCache.invalidate(BoostOpsIdentifierCache.APP_SET_ID);
+        BoostOpsIdentifierCache.invalidate(BoostOpsIdentifierCache.GAID);
+    }
+    
+    /**
+     * Start App Set ID and GAID lookups ahead of the first Unity request
+     * Called by BoostOpsInitProvider at process start; results wait in BoostOpsIdentifierCache
+     */
+    public static void prefetchIdentifiers(Context context) {
+        if (context == null) {
+            return;
+        }
+        BoostOpsContext.initialize(context);
+        Context appContext = BoostOpsContext.get();
+        BoostOpsIdentifierCache.hydrate(appContext);
+        
+        BoostOpsIdentifierCache.Callback ignore = snapshot -> { };
+        BoostOpsIdentifierCache.getAsync(appContext, BoostOpsIdentifierCache.APP_SET_ID,
+            IdentifierPlugin::fetchAppSetId, ignore);
+        BoostOpsIdentifierCache.getAsync(appContext, BoostOpsIdentifierCache.GAID,
+            BoostOpsIdentifierCache.async(IdentifierPlugin::fetchAdvertisingId), ignore);
+    }
+    
+    /**
+     * Set identifier cache time-to-live (Unity callable)
+     */
+    public static void setIdentifierCacheTtlSeconds(long ttlSeconds) {
+        BoostOpsIdentifierCache.setTtlMs(TimeUnit.SECONDS.toMillis(ttlSeconds));
+    }
+    
+    /**
+     * Fetch App Set ID from Play Services without blocking
+     * The Task listeners report back on the io thread; BoostOpsIdentifierCache abandons
+     * the lookup if neither fires
+     */
+    static void fetchAppSetId(Context context, final BoostOpsIdentifierCache.Callback done) {
+        final long start = BoostOpsMetrics.now();
+        
+        AppSetIdClient client = AppSet.getClient(context);
+        Task<AppSetIdInfo> task = client.getAppSetIdInfo();
+        
+        task.addOnSuccessListener(BoostOpsExecutors.IO, appSetIdInfo -> {
+            APP_SET_ID_FETCH.recordSince(start);
+            BoostOpsIdentifierCache.Snapshot snapshot = null;
+            try {
+                if (appSetIdInfo != null) {
+                    String appSetId = appSetIdInfo.getId();
+                    int scope = appSetIdInfo.getScope();
+                    
+                    BoostOpsLog.d(TAG, "✅ App Set ID retrieved successfully");
+                    BoostOpsLog.d(TAG, "App Set ID Scope: {}", (scope == AppSetIdInfo.SCOPE_APP ? "APP" : "DEVELOPER"));
+                    
+                    snapshot = new BoostOpsIdentifierCache.Snapshot(appSetId, false, System.currentTimeMillis());
+                } else {
+                    BoostOpsLog.w(TAG, "App Set ID info is null");
+                }
+            } catch (Exception e) {
+                BoostOpsLog.e(TAG, "Error processing App Set ID result: {}", e.getMessage());
+            }
+            done.onSnapshot(snapshot);
+        });
+        
+        task.addOnFailureListener(BoostOpsExecutors.IO, exception -> {
+            APP_SET_ID_FETCH.recordSince(start);
+            FETCH_FAILURES.increment();
+            BoostOpsLog.e(TAG, "Failed to get App Set ID: {}", exception.getMessage());
+            done.onSnapshot(null);
+        });
+    }
+    
+    /**
+     * Fetch GAID and Limit Ad Tracking state from Play Services
+     * Blocking: AdvertisingIdClient must run on a background thread
+     * 
+     * @return Snapshot (value null when LAT is enabled or GAID is zeroed), or null on failure
+     */
+    static BoostOpsIdentifierCache.Snapshot fetchAdvertisingId(Context context) throws Exception {
+        long start = BoostOpsMetrics.now();
+        AdvertisingIdClient.Info adInfo;
+        try {
+            adInfo = AdvertisingIdClient.getAdvertisingIdInfo(context);
         } catch (Exception e) {
-            Log.e(TAG, "Unexpected error getting GAID: " + e.getMessage());
+            FETCH_FAILURES.increment();
+            throw e;
+        } finally {
+            GAID_FETCH.recordSince(start);
+        }
+        long now = System.currentTimeMillis();
+        
+        if (adInfo == null) {
+            BoostOpsLog.w(TAG, "AdvertisingIdClient returned null info");
             return null;
         }
+        
+        if (adInfo.isLimitAdTrackingEnabled()) {
+            BoostOpsLog.d(TAG, "⚠️ User has enabled Limit Ad Tracking - GAID not available");
+            return new BoostOpsIdentifierCache.Snapshot(null, true, now);
+        }
+        
+        String gaid = adInfo.getId();
+        
+        // Check for zero/invalid GAID
+        if (gaid != null && !gaid.equals("00000000-0000-0000-0000-000000000000")) {
+            BoostOpsLog.d(TAG, "✅ GAID retrieved successfully");
+            return new BoostOpsIdentifierCache.Snapshot(gaid, false, now);
+        }
+        
+        BoostOpsLog.w(TAG, "GAID is zero or invalid");
+        return new BoostOpsIdentifierCache.Snapshot(null, false, now);
     }
     
     /**
@@ -181,41 +527,28 @@ public class IdentifierPlugin {
      * This is extracted from the Google Play Install Referrer
      * 
      * Note: This method relies on the Install Referrer having been processed
-     * by BoostOpsInstallReferrerNative first
+     * by BoostOpsInstallReferrerNative first (this launch or a previous one)
+     * Served from BoostOpsAttributionState in memory
      * 
      * @return Install Referrer Click ID or null if unavailable
      */
     public static String getInstallReferrerClickId() {
-        Log.d(TAG, "Getting Install Referrer Click ID...");
+        BoostOpsLog.d(TAG, "Getting Install Referrer Click ID...");
         
         try {
-            Context context = getUnityContext();
-            if (context == null) {
-                Log.e(TAG, "Unity context is null, cannot get Install Referrer Click ID");
-                return null;
-            }
-            
-            // The install referrer data should have been processed and stored
-            // by BoostOpsInstallReferrerNative during app initialization
-            // We'll retrieve it from SharedPreferences where it was cached
-            
-            android.content.SharedPreferences prefs = context.getSharedPreferences(
-                "boostops_attribution", 
-                Context.MODE_PRIVATE
-            );
-            
-            String clickId = prefs.getString("install_referrer_click_id", null);
+            // Published by BoostOpsInstallReferrerNative, or restored from its persisted snapshot
+            String clickId = BoostOpsAttributionState.getClickId();
             
             if (clickId != null && !clickId.isEmpty()) {
-                Log.d(TAG, "✅ Install Referrer Click ID retrieved from cache");
+                BoostOpsLog.d(TAG, "✅ Install Referrer Click ID retrieved from cache");
                 return clickId;
             } else {
-                Log.d(TAG, "Install Referrer Click ID not available (may be organic install)");
+                BoostOpsLog.d(TAG, "Install Referrer Click ID not available (may be organic install)");
                 return null;
             }
             
         } catch (Exception e) {
-            Log.e(TAG, "Error getting Install Referrer Click ID: " + e.getMessage());
+            BoostOpsLog.e(TAG, "Error getting Install Referrer Click ID: {}", e.getMessage());
             return null;
         }
     }
@@ -227,12 +560,12 @@ public class IdentifierPlugin {
      * @return Locale string in format "en_US" or null if unavailable
      */
     public static String getDeviceLocale() {
-        Log.d(TAG, "Getting device locale...");
+        BoostOpsLog.d(TAG, "Getting device locale...");
         
         try {
             Context context = getUnityContext();
             if (context == null) {
-                Log.e(TAG, "Unity context is null, cannot get locale");
+                BoostOpsLog.e(TAG, "Unity context is null, cannot get locale");
                 return null;
             }
             
@@ -252,15 +585,15 @@ public class IdentifierPlugin {
                     localeString = language;
                 }
                 
-                Log.d(TAG, "✅ Device locale: " + localeString);
+                BoostOpsLog.d(TAG, "✅ Device locale: {}", localeString);
                 return localeString;
             } else {
-                Log.w(TAG, "System locale is null");
+                BoostOpsLog.w(TAG, "System locale is null");
                 return null;
             }
             
         } catch (Exception e) {
-            Log.e(TAG, "Error getting device locale: " + e.getMessage());
+            BoostOpsLog.e(TAG, "Error getting device locale: {}", e.getMessage());
             return null;
         }
     }
@@ -271,18 +604,11 @@ public class IdentifierPlugin {
      * @return Application context or null if Unity Player is not available
      */
     private static Context getUnityContext() {
-        try {
-            if (UnityPlayer.currentActivity != null) {
-                return UnityPlayer.currentActivity.getApplicationContext();
-            }
-            
-            Log.e(TAG, "UnityPlayer.currentActivity is null");
-            return null;
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting Unity context: " + e.getMessage());
-            return null;
+        Context context = BoostOpsContext.get();
+        if (context == null) {
+            BoostOpsLog.e(TAG, "UnityPlayer.currentActivity is null");
         }
+        return context;
     }
 }
 
@@ -0,0 +1,9 @@
+package android.app;
+
+import android.content.Context;
+
+/**
+ * JVM stand-in for android.app.Activity; tests subclass it
+ */
+public abstract class Activity extends Context {
+}
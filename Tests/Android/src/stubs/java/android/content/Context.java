@@ -0,0 +1,25 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * JVM stand-in for the parts of android.content.Context the plugin uses; tests subclass it
+ */
+public abstract class Context {
+
+    public static final int MODE_PRIVATE = 0;
+
+    public abstract Context getApplicationContext();
+
+    public abstract SharedPreferences getSharedPreferences(String name, int mode);
+
+    public abstract File getFilesDir();
+
+    public String getPackageName() {
+        return "com.boostops.test";
+    }
+
+    public android.content.pm.PackageManager getPackageManager() {
+        throw new UnsupportedOperationException("No PackageManager in JVM tests");
+    }
+}
@@ -0,0 +1,12 @@
+package android.content.pm;
+
+public class PackageInfo {
+
+    public Signature[] signatures;
+    public SigningInfo signingInfo;
+    public int versionCode;
+
+    public long getLongVersionCode() {
+        return versionCode;
+    }
+}
@@ -0,0 +1,18 @@
+package android.content.pm;
+
+public abstract class PackageManager {
+
+    public static final int GET_SIGNATURES = 64;
+    public static final int GET_SIGNING_CERTIFICATES = 0x08000000;
+
+    public abstract PackageInfo getPackageInfo(String packageName, int flags) throws NameNotFoundException;
+
+    public static class NameNotFoundException extends Exception {
+        public NameNotFoundException() {
+        }
+
+        public NameNotFoundException(String name) {
+            super(name);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package android.content.pm;
+
+public class SigningInfo {
+
+    private final Signature[] signers;
+
+    public SigningInfo(Signature[] signers) {
+        this.signers = signers;
+    }
+
+    public boolean hasMultipleSigners() {
+        return signers.length > 1;
+    }
+
+    public Signature[] getApkContentsSigners() {
+        return signers;
+    }
+
+    public Signature[] getSigningCertificateHistory() {
+        return signers;
+    }
+}
@@ -0,0 +1,53 @@
+package android.net;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JVM stand-in for android.net.Uri; only decode() is provided
+ */
+public abstract class Uri {
+
+    /**
+     * Same contract as Uri.decode: %XX escapes are decoded as UTF-8, '+' is kept and
+     * malformed escapes become U+FFFD
+     */
+    public static String decode(String s) {
+        if (s == null) {
+            return null;
+        }
+        if (s.indexOf('%') < 0) {
+            return s;
+        }
+
+        StringBuilder out = new StringBuilder(s.length());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int i = 0;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (c != '%') {
+                out.append(c);
+                i++;
+                continue;
+            }
+
+            bytes.reset();
+            while (i < s.length() && s.charAt(i) == '%') {
+                int high = i + 1 < s.length() ? Character.digit(s.charAt(i + 1), 16) : -1;
+                int low = i + 2 < s.length() ? Character.digit(s.charAt(i + 2), 16) : -1;
+                if (high < 0 || low < 0) {
+                    break;
+                }
+                bytes.write((high << 4) | low);
+                i += 3;
+            }
+            if (bytes.size() > 0) {
+                out.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+            } else {
+                out.append('\uFFFD');
+                i++;
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package android.os;
+
+/**
+ * JVM stand-in for android.os.Build; reports API 28
+ */
+public final class Build {
+
+    private Build() {
+    }
+
+    public static final class VERSION {
+        public static final int SDK_INT = 28;
+    }
+
+    public static final class VERSION_CODES {
+        public static final int N = 24;
+        public static final int O = 26;
+        public static final int P = 28;
+    }
+}
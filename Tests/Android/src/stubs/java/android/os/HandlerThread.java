@@ -0,0 +1,39 @@
+package android.os;
+
+/**
+ * JVM stand-in for android.os.HandlerThread
+ */
+public class HandlerThread extends Thread {
+
+    private Looper looper;
+
+    public HandlerThread(String name, int priority) {
+        super(name);
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        Looper.prepare();
+        synchronized (this) {
+            looper = Looper.myLooper();
+            notifyAll();
+        }
+        Looper.loop();
+    }
+
+    /**
+     * Wait for the thread to start and return its looper
+     */
+    public synchronized Looper getLooper() {
+        while (looper == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return looper;
+    }
+}
@@ -0,0 +1,107 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for android.os.Looper: runs posted tasks in time order on one thread
+ */
+public final class Looper {
+
+    private static final ThreadLocal<Looper> CURRENT = new ThreadLocal<>();
+
+    private final Thread thread;
+    private final List<Task> queue = new ArrayList<>();
+    private long nextSequence;
+
+    private static final class Task {
+        final Handler handler;
+        final Runnable runnable;
+        final long when;
+        final long sequence;
+
+        Task(Handler handler, Runnable runnable, long when, long sequence) {
+            this.handler = handler;
+            this.runnable = runnable;
+            this.when = when;
+            this.sequence = sequence;
+        }
+    }
+
+    private Looper(Thread thread) {
+        this.thread = thread;
+    }
+
+    /**
+     * Create the calling thread's looper
+     */
+    public static void prepare() {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("Only one Looper may be created per thread");
+        }
+        CURRENT.set(new Looper(Thread.currentThread()));
+    }
+
+    public static Looper myLooper() {
+        return CURRENT.get();
+    }
+
+    public static Looper getMainLooper() {
+        throw new UnsupportedOperationException("No main looper on the JVM");
+    }
+
+    /**
+     * Run the calling thread's queue forever
+     */
+    public static void loop() {
+        Looper looper = myLooper();
+        if (looper == null) {
+            throw new IllegalStateException("No Looper; Looper.prepare() wasn't called on this thread");
+        }
+        while (true) {
+            looper.next().run();
+        }
+    }
+
+    public Thread getThread() {
+        return thread;
+    }
+
+    synchronized void enqueue(Handler handler, Runnable runnable, long when) {
+        Task task = new Task(handler, runnable, when, nextSequence++);
+        int index = queue.size();
+        while (index > 0 && queue.get(index - 1).when > when) {
+            index--;
+        }
+        queue.add(index, task);
+        notifyAll();
+    }
+
+    synchronized void remove(Handler handler, Runnable runnable) {
+        for (int i = queue.size() - 1; i >= 0; i--) {
+            Task task = queue.get(i);
+            if (task.handler == handler && task.runnable == runnable) {
+                queue.remove(i);
+            }
+        }
+    }
+
+    private synchronized Runnable next() {
+        while (true) {
+            long now = SystemClock.uptimeMillis();
+            if (!queue.isEmpty() && queue.get(0).when <= now) {
+                return queue.remove(0).runnable;
+            }
+            try {
+                if (queue.isEmpty()) {
+                    wait();
+                } else {
+                    wait(Math.max(1, queue.get(0).when - now));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Looper interrupted", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package android.os;
+
+/**
+ * JVM stand-in for android.os.Process: thread priorities are ignored
+ */
+public class Process {
+
+    public static final int THREAD_PRIORITY_BACKGROUND = 10;
+
+    public static void setThreadPriority(int priority) {
+    }
+}
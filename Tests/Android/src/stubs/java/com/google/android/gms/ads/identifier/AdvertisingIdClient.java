@@ -0,0 +1,33 @@
+package com.google.android.gms.ads.identifier;
+
+import android.content.Context;
+
+import java.io.IOException;
+
+/**
+ * JVM stand-in for Play Services AdvertisingIdClient; tests pass their own fetchers instead
+ */
+public class AdvertisingIdClient {
+
+    public static Info getAdvertisingIdInfo(Context context) throws IOException {
+        throw new IOException("Play Services are not available on the JVM");
+    }
+
+    public static class Info {
+        private final String id;
+        private final boolean limitAdTracking;
+
+        public Info(String id, boolean limitAdTracking) {
+            this.id = id;
+            this.limitAdTracking = limitAdTracking;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public boolean isLimitAdTrackingEnabled() {
+            return limitAdTracking;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.google.android.gms.appset;
+
+import android.content.Context;
+
+/**
+ * JVM stand-in for Play Services AppSet; tests pass their own fetchers instead
+ */
+public final class AppSet {
+
+    private AppSet() {
+    }
+
+    public static AppSetIdClient getClient(Context context) {
+        throw new UnsupportedOperationException("Play Services are not available on the JVM");
+    }
+}
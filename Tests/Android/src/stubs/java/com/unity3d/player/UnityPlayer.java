@@ -0,0 +1,33 @@
+package com.unity3d.player;
+
+import android.app.Activity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JVM stand-in for Unity's UnityPlayer
+ *
+ * UnitySendMessage records each call as {gameObject, method, message}, or throws
+ * sendFailure when a test sets one (e.g. UnsatisfiedLinkError before Unity loads).
+ */
+public class UnityPlayer {
+
+    public static Activity currentActivity;
+
+    public static final List<String[]> sentMessages = Collections.synchronizedList(new ArrayList<String[]>());
+
+    public static volatile Throwable sendFailure;
+
+    public static void UnitySendMessage(String gameObject, String method, String message) {
+        Throwable failure = sendFailure;
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        sentMessages.add(new String[] { gameObject, method, message });
+    }
+}
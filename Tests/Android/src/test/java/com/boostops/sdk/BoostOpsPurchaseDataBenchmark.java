@@ -0,0 +1,92 @@
+package com.boostops.sdk;
+
+import com.boostops.unity.BenchmarkSupport;
+
+import org.json.JSONObject;
+
+/**
+ * BoostOpsPurchaseData against the previous extraction, one JSONObject per field
+ *
+ * Run from Tests/Android with: gradle purchaseDataBenchmark
+ * The previous helpers are copied from the baseline ReceiptCaptureNative; C# called
+ * extractProductIdFromPurchaseData() and extractOrderIdFromPurchaseData() per purchase.
+ */
+public final class BoostOpsPurchaseDataBenchmark {
+
+    private static final int OPERATIONS = 50000;
+
+    // Shape of Purchase.getOriginalJson() from Play Billing 5+
+    private static final String PURCHASE_JSON = "{\"orderId\":\"GPA.3345-6789-0123-45678\","
+        + "\"packageName\":\"com.example.game\",\"productId\":\"com.example.game.gems_1000\","
+        + "\"purchaseTime\":1700000000000,\"purchaseState\":0,"
+        + "\"purchaseToken\":\"opaque-token-abcdefghijklmnopqrstuvwxyz.AO-J1OxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
+        + "abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ\","
+        + "\"quantity\":1,\"acknowledged\":false}";
+
+    // Play Billing 4 order: fields of interest after a large developer payload
+    private static final String PURCHASE_JSON_LATE_FIELDS;
+
+    static {
+        StringBuilder payload = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            payload.append("{\\\"level\\\":").append(i).append(",\\\"reward\\\":\\\"chest\\\"}");
+        }
+        PURCHASE_JSON_LATE_FIELDS = "{\"packageName\":\"com.example.game\",\"purchaseState\":0,"
+            + "\"developerPayload\":\"" + payload + "\",\"acknowledged\":false,"
+            + "\"productIds\":[\"com.example.game.gems_1000\"],\"quantity\":2,"
+            + "\"purchaseTime\":1700000000000,\"orderId\":\"GPA.3345-6789-0123-45678\","
+            + "\"purchaseToken\":\"opaque-token\"}";
+    }
+
+    private BoostOpsPurchaseDataBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        run("Purchase JSON (" + PURCHASE_JSON.length() + " chars)", PURCHASE_JSON);
+        run("Purchase JSON with developer payload (" + PURCHASE_JSON_LATE_FIELDS.length() + " chars)",
+            PURCHASE_JSON_LATE_FIELDS);
+        run("Malformed purchase JSON", "{\"orderId\":\"GPA.1\",\"productId\":");
+    }
+
+    private static void run(String title, final String json) throws Exception {
+        BenchmarkSupport.header(title);
+        BenchmarkSupport.measure("previous: productId + orderId", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() {
+                BenchmarkSupport.sink = extractProductIdWithJsonObject(json);
+                BenchmarkSupport.sink = extractOrderIdWithJsonObject(json);
+            }
+        });
+        BenchmarkSupport.measure("BoostOpsPurchaseData.parse", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() {
+                BenchmarkSupport.sink = BoostOpsPurchaseData.parse(json);
+            }
+        });
+        BenchmarkSupport.measure("BoostOpsPurchaseData.parse + toJson", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() {
+                BoostOpsPurchaseData data = BoostOpsPurchaseData.parse(json);
+                BenchmarkSupport.sink = data != null ? data.toJson() : null;
+            }
+        });
+    }
+
+    private static String extractProductIdWithJsonObject(String purchaseDataJson) {
+        try {
+            JSONObject json = new JSONObject(purchaseDataJson);
+            return json.optString("productId", null);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static String extractOrderIdWithJsonObject(String purchaseDataJson) {
+        try {
+            JSONObject json = new JSONObject(purchaseDataJson);
+            return json.optString("orderId", null);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.boostops.sdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class BoostOpsPurchaseDataTest {
+
+    @Test
+    public void extractsEveryField() {
+        BoostOpsPurchaseData data = BoostOpsPurchaseData.parse("{\"orderId\":\"GPA.1\",\"packageName\":\"com.game\","
+            + "\"productId\":\"gems\",\"purchaseTime\":1700000000000,\"purchaseState\":0,"
+            + "\"purchaseToken\":\"tok\",\"quantity\":3,\"acknowledged\":false}");
+
+        assertEquals("gems", data.productId);
+        assertEquals("GPA.1", data.orderId);
+        assertEquals("tok", data.purchaseToken);
+        assertEquals(1700000000000L, data.purchaseTime);
+        assertEquals(3, data.quantity);
+    }
+
+    @Test
+    public void usesTheFirstEntryOfProductIds() {
+        BoostOpsPurchaseData data = BoostOpsPurchaseData.parse(
+            "{\"productIds\":[\"bundle\",\"extra\"],\"orderId\":\"GPA.2\"}");
+
+        assertEquals("bundle", data.productId);
+        assertEquals("GPA.2", data.orderId);
+    }
+
+    @Test
+    public void keepsDefaultsForMissingAndNullFields() {
+        BoostOpsPurchaseData data = BoostOpsPurchaseData.parse(
+            "{\"orderId\":null,\"productIds\":[],\"nested\":{\"quantity\":9}}");
+
+        assertNull(data.productId);
+        assertNull(data.orderId);
+        assertNull(data.purchaseToken);
+        assertEquals(0, data.purchaseTime);
+        assertEquals(1, data.quantity);
+    }
+
+    @Test
+    public void stopsOnceEveryFieldIsSeen() {
+        // Anything after the fifth field is never read, even when it is malformed
+        BoostOpsPurchaseData data = BoostOpsPurchaseData.parse("{\"productId\":\"a\",\"orderId\":\"b\","
+            + "\"purchaseToken\":\"c\",\"purchaseTime\":1,\"quantity\":2, this is not JSON");
+
+        assertEquals("a", data.productId);
+        assertEquals(2, data.quantity);
+    }
+
+    @Test
+    public void rejectsInputThatIsNotAnObject() {
+        assertNull(BoostOpsPurchaseData.parse(null));
+        assertNull(BoostOpsPurchaseData.parse(""));
+        assertNull(BoostOpsPurchaseData.parse("[1,2]"));
+        assertNull(BoostOpsPurchaseData.parse("{\"purchaseTime\":\"later\"}"));
+        assertNull(BoostOpsPurchaseData.parse("{\"orderId\":"));
+    }
+
+    @Test
+    public void encodesCompactJson() {
+        BoostOpsPurchaseData data = BoostOpsPurchaseData.parse(
+            "{\"productId\":\"gems\",\"purchaseToken\":\"tok\",\"purchaseTime\":5}");
+
+        assertEquals("{\"productId\":\"gems\",\"purchaseToken\":\"tok\",\"purchaseTime\":5,\"quantity\":1}",
+            data.toJson());
+    }
+}
@@ -0,0 +1,77 @@
+package com.boostops.sdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.boostops.unity.BoostOpsContext;
+import com.boostops.unity.BoostOpsMessageBus;
+import com.boostops.unity.TestContext;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BoostOpsPurchaseJournalTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static TestContext context;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        context = new TestContext(folder.newFolder("files"));
+        BoostOpsContext.initialize(context);
+        BoostOpsMessageBus.setPollingMode(true);
+    }
+
+    @Test
+    public void repeatConsumablesWithoutOrderIdsAreJournaledSeparately() throws Exception {
+        BoostOpsPurchaseJournal journal = BoostOpsPurchaseJournal.open(context);
+        long now = System.currentTimeMillis();
+        BoostOpsReceiptCache.CapturedPurchase first =
+            new BoostOpsReceiptCache.CapturedPurchase("potion", null, null, "data-1", "sig", now);
+        BoostOpsReceiptCache.CapturedPurchase second =
+            new BoostOpsReceiptCache.CapturedPurchase("potion", null, null, "data-2", "sig", now + 1);
+        journal.append(first);
+        journal.append(second);
+
+        assertEquals(2, journal.pending().size());
+
+        assertTrue(journal.acknowledge(first.slotKey));
+        assertEquals(1, journal.pending().size());
+        assertEquals("data-2", journal.pending().get(0).purchaseData);
+        assertTrue(journal.acknowledge(second.slotKey));
+    }
+
+    @Test
+    public void replayWaitsForTheCSharpOptIn() throws Exception {
+        BoostOpsReceiptCaptureNative.cachePurchase("gems", "GPA.1", "token-1", "{}", "sig");
+        BoostOpsReceiptCaptureNative.cachePurchase("gems", "GPA.2", "token-2", "{}", "sig");
+        BoostOpsMessageBus.drain();
+
+        // Without the opt-in a C# layer that never acknowledges is not sent the journal again
+        BoostOpsReceiptCaptureNative.initialize();
+        assertNull(BoostOpsMessageBus.drain());
+
+        BoostOpsReceiptCaptureNative.setJournalReplayEnabled(true);
+        JsonArray batch = JsonParser.parseString(BoostOpsMessageBus.drain()).getAsJsonArray();
+        assertEquals(1, batch.size());
+        JsonObject message = batch.get(0).getAsJsonObject();
+        assertEquals("OnNativePurchasesReplayed", message.get("method").getAsString());
+        assertEquals(2, JsonParser.parseString(message.get("payload").getAsString()).getAsJsonArray().size());
+
+        // Replay happens once per process
+        BoostOpsReceiptCaptureNative.setJournalReplayEnabled(true);
+        assertNull(BoostOpsMessageBus.drain());
+
+        assertTrue(BoostOpsReceiptCaptureNative.acknowledgeOrder("GPA.1"));
+        assertTrue(BoostOpsReceiptCaptureNative.acknowledgeOrder("GPA.2"));
+        assertEquals("[]", BoostOpsReceiptCaptureNative.getPendingPurchases());
+    }
+}
@@ -0,0 +1,108 @@
+package com.boostops.sdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BoostOpsReceiptCacheConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int PURCHASES_PER_WRITER = 200;
+
+    @Test
+    public void concurrentWritersLoseNoPurchasesAndReadersSeeWholeRecords() throws Exception {
+        final BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        cache.setCapacity(WRITERS * PURCHASES_PER_WRITER);
+        final long now = System.currentTimeMillis();
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            writers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    for (int i = 0; i < PURCHASES_PER_WRITER; i++) {
+                        String orderId = "GPA." + writer + "." + i;
+                        cache.put(new BoostOpsReceiptCache.CapturedPurchase("product-" + writer, orderId,
+                            "token-" + orderId, "data-" + orderId, "sig-" + orderId, now + i));
+                    }
+                }
+            }));
+        }
+
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                await(start);
+                try {
+                    while (writing.get()) {
+                        checkConsistent(cache.getMostRecent());
+                        for (int w = 0; w < WRITERS; w++) {
+                            checkConsistent(cache.getByProductId("product-" + w));
+                        }
+                        for (BoostOpsReceiptCache.CapturedPurchase purchase : cache.entries()) {
+                            checkConsistent(purchase);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        });
+
+        reader.start();
+        for (Thread thread : writers) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : writers) {
+            thread.join();
+        }
+        writing.set(false);
+        reader.join();
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(WRITERS * PURCHASES_PER_WRITER, cache.size());
+        for (int w = 0; w < WRITERS; w++) {
+            for (int i = 0; i < PURCHASES_PER_WRITER; i++) {
+                assertNotNull(cache.getByOrderId("GPA." + w + "." + i));
+            }
+        }
+    }
+
+    /**
+     * Every field of a record must come from the same capture
+     */
+    private static void checkConsistent(BoostOpsReceiptCache.CapturedPurchase purchase) {
+        if (purchase == null) {
+            return;
+        }
+        String orderId = purchase.orderId;
+        assertEquals("token-" + orderId, purchase.purchaseToken);
+        assertEquals("data-" + orderId, purchase.purchaseData);
+        assertEquals("sig-" + orderId, purchase.signature);
+        assertTrue(purchase.productId.startsWith("product-"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.boostops.sdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class BoostOpsReceiptCacheTest {
+
+    private static BoostOpsReceiptCache.CapturedPurchase purchase(String productId, String orderId, long capturedAtMs) {
+        return new BoostOpsReceiptCache.CapturedPurchase(productId, orderId, "token-" + orderId,
+            "data-" + orderId, "sig-" + orderId, capturedAtMs);
+    }
+
+    @Test
+    public void keepsPurchasesMadeCloseTogetherInSeparateSlots() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        long now = System.currentTimeMillis();
+        cache.put(purchase("gems", "GPA.1", now));
+        cache.put(purchase("gems", "GPA.2", now + 1));
+        cache.put(purchase("coins", "GPA.3", now + 2));
+
+        assertEquals(3, cache.size());
+        assertEquals("GPA.1", cache.getByOrderId("GPA.1").orderId);
+        assertEquals("GPA.2", cache.getByProductId("gems").orderId);
+        assertEquals("GPA.3", cache.getMostRecent().orderId);
+    }
+
+    @Test
+    public void sameOrderReplacesItsSlot() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        long now = System.currentTimeMillis();
+        cache.put(purchase("gems", "GPA.1", now));
+        cache.put(new BoostOpsReceiptCache.CapturedPurchase("gems", "GPA.1", "token-new", "data-new", "sig", now + 1));
+
+        assertEquals(1, cache.size());
+        assertEquals("data-new", cache.getByOrderId("GPA.1").purchaseData);
+    }
+
+    @Test
+    public void slotKeyFallsBackToTokenThenProduct() {
+        assertEquals("order:GPA.1", BoostOpsReceiptCache.slotKeyFor("GPA.1", "t", "p", 1234L));
+        assertEquals("token:t", BoostOpsReceiptCache.slotKeyFor("", "t", "p", 1234L));
+        assertEquals("product:p:1234", BoostOpsReceiptCache.slotKeyFor(null, null, "p", 1234L));
+    }
+
+    @Test
+    public void repeatConsumablesWithoutOrderIdsKeepSeparateSlots() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        long now = System.currentTimeMillis();
+        cache.put(new BoostOpsReceiptCache.CapturedPurchase("coins", null, null, "data", "sig", now));
+        cache.put(new BoostOpsReceiptCache.CapturedPurchase("coins", null, null, "data", "sig", now + 1));
+
+        assertEquals(2, cache.size());
+        assertEquals(now + 1, cache.getByProductId("coins").capturedAtMs);
+    }
+
+    @Test
+    public void fromJsonKeepsTheStoredJournalId() {
+        BoostOpsReceiptCache.CapturedPurchase decoded = BoostOpsReceiptCache.CapturedPurchase.fromJson(
+            "{\"journalId\":\"product:coins\",\"productId\":\"coins\",\"timestamp\":1234}");
+
+        assertEquals("product:coins", decoded.slotKey);
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedSlot() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        cache.setCapacity(2);
+        long now = System.currentTimeMillis();
+        cache.put(purchase("a", "1", now));
+        cache.put(purchase("b", "2", now + 1));
+
+        // Reading slot 1 makes slot 2 the least recently used
+        assertNotNull(cache.getByOrderId("1"));
+        cache.put(purchase("c", "3", now + 2));
+
+        assertNotNull(cache.getByOrderId("1"));
+        assertNull(cache.getByOrderId("2"));
+        assertNotNull(cache.getByOrderId("3"));
+    }
+
+    @Test
+    public void shrinkingCapacityTrimsImmediately() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            cache.put(purchase("p", "o" + i, now + i));
+        }
+
+        cache.setCapacity(2);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getByOrderId("o4"));
+        assertNotNull(cache.getByOrderId("o3"));
+    }
+
+    @Test
+    public void expiredSlotsAreNotReturned() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        cache.setTtlMs(60000);
+        long now = System.currentTimeMillis();
+        cache.put(purchase("old", "1", now - 120000));
+        cache.put(purchase("new", "2", now));
+
+        assertNull(cache.getByOrderId("1"));
+        assertNull(cache.getByProductId("old"));
+        assertEquals(1, cache.size());
+        assertEquals("2", cache.getMostRecent().orderId);
+
+        cache.clear();
+        cache.put(purchase("stale", "3", now - 120000));
+        assertNull(cache.getMostRecent());
+    }
+
+    @Test
+    public void staleMostRecentLookupReturnsNull() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        long now = System.currentTimeMillis();
+        cache.put(purchase("gems", "GPA.1", now - BoostOpsReceiptCache.DEFAULT_MOST_RECENT_TTL_MS - 1000));
+
+        // Too old to attach to an unkeyed TrackPurchase(), still there for keyed lookups
+        assertNull(cache.getMostRecent());
+        assertEquals("GPA.1", cache.getByOrderId("GPA.1").orderId);
+        assertEquals("GPA.1", cache.getByProductId("gems").orderId);
+
+        cache.put(purchase("coins", "GPA.2", now));
+        assertEquals("GPA.2", cache.getMostRecent().orderId);
+    }
+
+    @Test
+    public void mostRecentWindowIsConfigurableAndCappedByTheTtl() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        long now = System.currentTimeMillis();
+        cache.put(purchase("gems", "GPA.1", now - 30000));
+
+        cache.setMostRecentTtlMs(60000);
+        assertEquals("GPA.1", cache.getMostRecent().orderId);
+
+        cache.setTtlMs(10000);
+        assertNull(cache.getMostRecent());
+    }
+
+    @Test
+    public void clearEmptiesTheCache() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        cache.put(purchase("p", "1", System.currentTimeMillis()));
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertNull(cache.getMostRecent());
+    }
+
+    @Test
+    public void jsonRoundTripKeepsEveryField() {
+        BoostOpsReceiptCache.CapturedPurchase original = new BoostOpsReceiptCache.CapturedPurchase(
+            "gems", "GPA.1", "token", "{\"orderId\":\"GPA.1\"}", "sig/==", 1234L);
+
+        String json = original.toJson();
+        BoostOpsReceiptCache.CapturedPurchase decoded = BoostOpsReceiptCache.CapturedPurchase.fromJson(json);
+
+        assertEquals("gems", decoded.productId);
+        assertEquals("GPA.1", decoded.orderId);
+        assertEquals("token", decoded.purchaseToken);
+        assertEquals("{\"orderId\":\"GPA.1\"}", decoded.purchaseData);
+        assertEquals("sig/==", decoded.signature);
+        assertEquals(1234L, decoded.capturedAtMs);
+        assertEquals(original.slotKey, decoded.slotKey);
+    }
+
+    @Test
+    public void fromJsonRejectsMalformedInput() {
+        assertNull(BoostOpsReceiptCache.CapturedPurchase.fromJson("{\"orderId\":"));
+        assertNull(BoostOpsReceiptCache.CapturedPurchase.fromJson("{\"timestamp\":\"soon\"}"));
+    }
+
+    @Test
+    public void lookupsWithoutKeysReturnNull() {
+        BoostOpsReceiptCache cache = new BoostOpsReceiptCache();
+        BoostOpsReceiptCache.CapturedPurchase only = purchase("p", "1", System.currentTimeMillis());
+        cache.put(only);
+
+        assertNull(cache.getByOrderId(null));
+        assertNull(cache.getByOrderId(""));
+        assertNull(cache.getByProductId(null));
+        assertSame(only, cache.getByProductId("p"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.boostops.unity;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Shared timing loop for the desktop JVM microbenchmarks in this module
+ *
+ * Each case is warmed up first, then timed over several rounds and the best round is
+ * reported together with the bytes allocated per operation on the calling thread.
+ * Numbers come from a desktop JVM, not a device, so only the ratios between cases are
+ * meaningful.
+ */
+public final class BenchmarkSupport {
+
+    /**
+     * Work for one operation
+     */
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * Written by operations so the JIT cannot drop their results
+     */
+    public static volatile Object sink;
+
+    private BenchmarkSupport() {
+    }
+
+    public static void header(String title) {
+        System.out.println();
+        System.out.println(title);
+        System.out.println(String.format(Locale.US, "  %-44s %10s %10s", "case", "ns/op", "bytes/op"));
+    }
+
+    /**
+     * Time the operation and print one result line
+     */
+    public static void measure(String name, int operations, Operation operation) throws Exception {
+        loop(operation, operations);
+
+        double bestNanos = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            loop(operation, operations);
+            bestNanos = Math.min(bestNanos, (double) (System.nanoTime() - start) / operations);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        loop(operation, operations);
+        double bytes = allocatedBefore < 0 ? Double.NaN : (double) (allocatedBytes() - allocatedBefore) / operations;
+
+        System.out.println(String.format(Locale.US, "  %-44s %10.1f %10.1f", name, bestNanos, bytes));
+    }
+
+    private static void loop(Operation operation, int operations) throws Exception {
+        for (int i = 0; i < operations; i++) {
+            operation.run();
+        }
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
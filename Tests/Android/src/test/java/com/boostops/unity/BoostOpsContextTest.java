@@ -0,0 +1,102 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.unity3d.player.UnityPlayer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Field;
+
+public class BoostOpsContextTest {
+
+    private final TestContext application = new TestContext(new File("unused"));
+
+    /**
+     * Activity whose application context is configurable
+     */
+    private static final class TestActivity extends Activity {
+        private final Context application;
+
+        TestActivity(Context application) {
+            this.application = application;
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return application;
+        }
+
+        @Override
+        public SharedPreferences getSharedPreferences(String name, int mode) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public File getFilesDir() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Before
+    @After
+    public void clearHolder() throws Exception {
+        Field field = BoostOpsContext.class.getDeclaredField("applicationContext");
+        field.setAccessible(true);
+        field.set(null, null);
+        UnityPlayer.currentActivity = null;
+    }
+
+    @Test
+    public void storesTheApplicationContextNeverTheActivity() {
+        BoostOpsContext.initialize(new TestActivity(application));
+
+        assertSame(application, BoostOpsContext.get());
+    }
+
+    @Test
+    public void ignoresAnActivityWithoutApplicationContext() {
+        BoostOpsContext.initialize(new TestActivity(null));
+
+        assertNull(BoostOpsContext.get());
+    }
+
+    @Test
+    public void firstContextWins() {
+        TestContext other = new TestContext(new File("other"));
+        BoostOpsContext.initialize(application);
+        BoostOpsContext.initialize(other);
+
+        assertSame(application, BoostOpsContext.get());
+    }
+
+    @Test
+    public void fallsBackToUnityCurrentActivity() {
+        assertNull(BoostOpsContext.get());
+
+        UnityPlayer.currentActivity = new TestActivity(application);
+
+        assertSame(application, BoostOpsContext.get());
+        assertTrue(BoostOpsContext.isAvailable());
+
+        // The holder keeps the application context after the activity is gone
+        UnityPlayer.currentActivity = null;
+        assertSame(application, BoostOpsContext.get());
+    }
+
+    @Test
+    public void ignoresNull() {
+        BoostOpsContext.initialize(null);
+
+        assertNull(BoostOpsContext.get());
+    }
+}
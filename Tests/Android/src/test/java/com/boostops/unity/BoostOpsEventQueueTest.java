@@ -0,0 +1,229 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+public class BoostOpsEventQueueTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static TestContext context;
+
+    private RecordingTransport transport;
+
+    /**
+     * Transport that hands each batch to the test, which completes it
+     */
+    private static final class RecordingTransport implements BoostOpsEventQueue.Transport {
+        final BlockingQueue<Batch> batches = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(byte[] gzippedBatch, int eventCount, BoostOpsEventQueue.Result result) {
+            batches.add(new Batch(gzippedBatch, eventCount, result));
+        }
+
+        Batch next(long timeoutMs) throws InterruptedException {
+            return batches.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static final class Batch {
+        final JsonArray events;
+        final int eventCount;
+        final BoostOpsEventQueue.Result result;
+
+        Batch(byte[] gzipped, int eventCount, BoostOpsEventQueue.Result result) {
+            this.events = JsonParser.parseString(gunzip(gzipped)).getAsJsonArray();
+            this.eventCount = eventCount;
+            this.result = result;
+        }
+
+        JsonObject event(int index) {
+            return events.get(index).getAsJsonObject();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        if (context == null) {
+            context = new TestContext(folder.newFolder("files"));
+        }
+        BoostOpsEventQueue.setMaxQueuedEvents(BoostOpsEventQueue.DEFAULT_MAX_QUEUED_EVENTS);
+        BoostOpsEventQueue.setBatchLimits(50, 60000);
+        transport = new RecordingTransport();
+        BoostOpsEventQueue.setTransport(context, transport);
+        awaitIo();
+
+        // Deliver anything an earlier test left behind
+        while (BoostOpsEventQueue.getPendingCount() > 0) {
+            BoostOpsEventQueue.flush();
+            complete(transport.next(2000), true, false);
+        }
+    }
+
+    @Test
+    public void sendsABatchOnceTheSizeLimitIsReached() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(3, 60000);
+
+        BoostOpsEventQueue.enqueue(context, "purchase", "{\"n\":1}");
+        BoostOpsEventQueue.enqueue(context, "purchase", "[1,2]");
+        awaitIo();
+        assertNull(transport.next(100));
+        BoostOpsEventQueue.enqueue(context, "custom", "not json");
+
+        Batch batch = transport.next(2000);
+        assertNotNull(batch);
+        assertEquals(3, batch.eventCount);
+        assertEquals(3, batch.events.size());
+        assertEquals("purchase", batch.event(0).get("type").getAsString());
+        assertTrue(batch.event(0).get("timestamp").getAsLong() > 0);
+        assertEquals(1, batch.event(0).getAsJsonObject("payload").get("n").getAsInt());
+        assertEquals(2, batch.event(1).getAsJsonArray("payload").size());
+        // Unparseable payloads travel as a JSON string instead of corrupting the batch
+        assertEquals("not json", batch.event(2).get("payload").getAsString());
+
+        complete(batch, true, false);
+        assertEquals(0, BoostOpsEventQueue.getPendingCount());
+    }
+
+    @Test
+    public void sendsOnceTheOldestEventIsOldEnough() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(50, 200);
+
+        BoostOpsEventQueue.enqueue(context, "purchase", "{}");
+
+        Batch batch = transport.next(3000);
+        assertNotNull(batch);
+        assertEquals(1, batch.eventCount);
+        complete(batch, true, false);
+    }
+
+    @Test
+    public void keepsEventsAfterARetryableFailureAndRetries() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(1, 60000);
+
+        BoostOpsEventQueue.enqueue(context, "purchase", "{\"id\":\"a\"}");
+        Batch failed = transport.next(2000);
+        complete(failed, false, true);
+        assertEquals(1, BoostOpsEventQueue.getPendingCount());
+
+        // The first retry is due after 1s +/- 20%
+        Batch retried = transport.next(3000);
+        assertNotNull(retried);
+        assertEquals("a", retried.event(0).getAsJsonObject("payload").get("id").getAsString());
+        complete(retried, true, false);
+        assertEquals(0, BoostOpsEventQueue.getPendingCount());
+    }
+
+    @Test
+    public void dropsEventsTheServerRejects() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(1, 60000);
+
+        BoostOpsEventQueue.enqueue(context, "purchase", "{}");
+        complete(transport.next(2000), false, false);
+
+        assertEquals(0, BoostOpsEventQueue.getPendingCount());
+    }
+
+    @Test
+    public void dropsTheOldestEventsWhenTheQueueIsFull() throws Exception {
+        BoostOpsEventQueue.setMaxQueuedEvents(2);
+
+        BoostOpsEventQueue.enqueue(context, "e", "1");
+        BoostOpsEventQueue.enqueue(context, "e", "2");
+        BoostOpsEventQueue.enqueue(context, "e", "3");
+        awaitIo();
+        assertEquals(2, BoostOpsEventQueue.getPendingCount());
+
+        BoostOpsEventQueue.flush();
+        Batch batch = transport.next(2000);
+        assertEquals(2, batch.eventCount);
+        assertEquals(2, batch.event(0).get("payload").getAsInt());
+        assertEquals(3, batch.event(1).get("payload").getAsInt());
+        complete(batch, true, false);
+    }
+
+    @Test
+    public void queuesTheInstallReferrerEventOnce() throws Exception {
+        BoostOpsEventQueue.enqueueInstallReferrer(context, "{\"click_id\":\"c1\"}");
+        BoostOpsEventQueue.enqueueInstallReferrer(context, "{\"click_id\":\"c1\"}");
+        awaitIo();
+        assertEquals(1, BoostOpsEventQueue.getPendingCount());
+
+        // Setting the transport again must not queue it from the persisted snapshot either
+        BoostOpsKeyValueStore.getDefault(context).putString(BoostOpsKeyValueStore.KEY_REFERRER_PAYLOAD, "{}");
+        BoostOpsEventQueue.setTransport(context, transport);
+        awaitIo();
+        assertEquals(1, BoostOpsEventQueue.getPendingCount());
+
+        BoostOpsEventQueue.flush();
+        Batch batch = transport.next(2000);
+        assertEquals("install_referrer", batch.event(0).get("type").getAsString());
+        assertEquals("c1", batch.event(0).getAsJsonObject("payload").get("click_id").getAsString());
+        complete(batch, true, false);
+    }
+
+    @Test
+    public void ignoresEventsWithoutATransport() throws Exception {
+        BoostOpsEventQueue.setTransport(context, null);
+        assertFalse(BoostOpsEventQueue.isEnabled());
+
+        BoostOpsEventQueue.enqueue(context, "purchase", "{}");
+        awaitIo();
+
+        assertEquals(0, BoostOpsEventQueue.getPendingCount());
+    }
+
+    /**
+     * Report a batch result and wait until the io thread has applied it
+     */
+    private static void complete(Batch batch, boolean success, boolean retryable) throws Exception {
+        assertNotNull("expected a batch", batch);
+        batch.result.onComplete(success, retryable);
+        awaitIo();
+    }
+
+    /**
+     * Wait until everything already posted to the io thread has run
+     */
+    private static void awaitIo() throws Exception {
+        BoostOpsExecutors.callOnIo(() -> null, 2000);
+    }
+
+    private static String gunzip(byte[] gzipped) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                out.write(chunk, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * BoostOpsEventQueue with the built-in HTTP transport against a local server
+ */
+public class BoostOpsHttpTransportTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static TestContext context;
+    private static FakeEventServer server;
+
+    /**
+     * Result that keeps the last outcome reported by the transport
+     */
+    private static final class RecordingResult implements BoostOpsEventQueue.Result {
+        Boolean success;
+        Boolean retryable;
+
+        @Override
+        public void onComplete(boolean success, boolean retryable) {
+            this.success = success;
+            this.retryable = retryable;
+        }
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        context = new TestContext(folder.newFolder("files"));
+        server = new FakeEventServer();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        BoostOpsEventQueue.setTransport(context, null);
+        server.stop();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(50, 60000);
+        BoostOpsEventQueue.configure(context, server.url());
+        awaitIo();
+
+        // Deliver anything an earlier test left behind
+        while (BoostOpsEventQueue.getPendingCount() > 0) {
+            BoostOpsEventQueue.flush();
+            assertNotNull(server.next(2000));
+            awaitPending(0);
+        }
+    }
+
+    @Test
+    public void postsGzippedBatchesOnceTheSizeLimitIsReached() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(3, 60000);
+
+        BoostOpsEventQueue.enqueue(context, "purchase", "{\"productId\":\"gems\"}");
+        BoostOpsEventQueue.enqueue(context, "purchase", "{\"productId\":\"coins\"}");
+        awaitIo();
+        assertNull(server.next(200));
+        BoostOpsEventQueue.enqueue(context, "custom", "{\"n\":3}");
+
+        FakeEventServer.Request request = server.next(3000);
+        assertNotNull(request);
+        assertEquals("POST", request.method);
+        assertEquals("gzip", request.contentEncoding);
+        assertEquals("application/json", request.contentType);
+        assertEquals("3", request.eventCountHeader);
+        assertEquals(3, request.events.size());
+        assertEquals("gems", request.events.get(0).getAsJsonObject()
+            .getAsJsonObject("payload").get("productId").getAsString());
+        assertEquals("custom", request.events.get(2).getAsJsonObject().get("type").getAsString());
+        awaitPending(0);
+    }
+
+    @Test
+    public void splitsTheQueueIntoBatchesOfTheSizeLimit() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(2, 60000);
+
+        for (int i = 0; i < 5; i++) {
+            BoostOpsEventQueue.enqueue(context, "e", String.valueOf(i));
+        }
+
+        assertEquals(2, server.next(3000).events.size());
+        assertEquals(2, server.next(3000).events.size());
+        // The fifth event waits for the size or age limit
+        assertNull(server.next(300));
+        assertEquals(1, BoostOpsEventQueue.getPendingCount());
+
+        BoostOpsEventQueue.flush();
+        FakeEventServer.Request last = server.next(3000);
+        assertEquals(1, last.events.size());
+        assertEquals(4, last.events.get(0).getAsJsonObject().get("payload").getAsInt());
+        awaitPending(0);
+    }
+
+    @Test
+    public void postsOnceTheOldestEventReachesTheAgeLimit() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(50, 300);
+
+        long enqueuedAt = System.currentTimeMillis();
+        BoostOpsEventQueue.enqueue(context, "purchase", "{}");
+
+        FakeEventServer.Request request = server.next(3000);
+        assertNotNull(request);
+        assertEquals(1, request.events.size());
+        assertTrue(request.receivedAtMs - enqueuedAt >= 250);
+        awaitPending(0);
+    }
+
+    @Test
+    public void retriesServerErrorsAndRateLimitsWithBackoff() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(1, 60000);
+        server.respondWith(503, 429);
+
+        BoostOpsEventQueue.enqueue(context, "purchase", "{\"id\":\"a\"}");
+
+        FakeEventServer.Request first = server.next(3000);
+        FakeEventServer.Request second = server.next(3000);
+        FakeEventServer.Request third = server.next(5000);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotNull(third);
+        // Backoff is 1s then 2s, each +/- 20% jitter
+        assertTrue(second.receivedAtMs - first.receivedAtMs >= 750);
+        assertTrue(third.receivedAtMs - second.receivedAtMs >= 1550);
+        assertEquals("a", third.events.get(0).getAsJsonObject()
+            .getAsJsonObject("payload").get("id").getAsString());
+        awaitPending(0);
+        assertNull(server.next(300));
+    }
+
+    @Test
+    public void dropsBatchesTheServerRejects() throws Exception {
+        BoostOpsEventQueue.setBatchLimits(1, 60000);
+        server.respondWith(400);
+
+        BoostOpsEventQueue.enqueue(context, "purchase", "{}");
+
+        assertNotNull(server.next(3000));
+        awaitPending(0);
+        assertNull(server.next(1500));
+    }
+
+    @Test
+    public void mapsStatusCodesToRetryDecisions() throws Exception {
+        BoostOpsHttpTransport transport = new BoostOpsHttpTransport(server.url());
+        byte[] body = gzip("[{\"type\":\"e\"}]");
+
+        assertResult(transport, body, 200, true, false);
+        assertResult(transport, body, 408, false, true);
+        assertResult(transport, body, 429, false, true);
+        assertResult(transport, body, 500, false, true);
+        assertResult(transport, body, 404, false, false);
+
+        // Nothing listens on port 1
+        RecordingResult unreachable = new RecordingResult();
+        new BoostOpsHttpTransport("http://127.0.0.1:1/events").send(body, 1, unreachable);
+        assertEquals(Boolean.FALSE, unreachable.success);
+        assertEquals(Boolean.TRUE, unreachable.retryable);
+    }
+
+    private static void assertResult(BoostOpsHttpTransport transport, byte[] body, int status,
+                                     boolean success, boolean retryable) throws Exception {
+        server.respondWith(status);
+        RecordingResult result = new RecordingResult();
+        transport.send(body, 1, result);
+        assertNotNull(server.next(2000));
+        assertEquals("HTTP " + status, success, result.success);
+        assertEquals("HTTP " + status, retryable, result.retryable);
+    }
+
+    /**
+     * Wait until the queue has applied upload results down to the expected count
+     */
+    private static void awaitPending(int expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (BoostOpsEventQueue.getPendingCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, BoostOpsEventQueue.getPendingCount());
+    }
+
+    /**
+     * Wait until everything already posted to the io thread has run
+     */
+    private static void awaitIo() throws Exception {
+        BoostOpsExecutors.callOnIo(() -> null, 2000);
+    }
+
+    private static byte[] gzip(String json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+package com.boostops.unity;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * BoostOpsJsonWriter against building the same payloads with org.json's JSONObject
+ *
+ * Run from Tests/Android with: gradle jsonWriterBenchmark
+ * org.json here is the Maven artifact, not Android's copy; both build a map per object.
+ */
+public final class BoostOpsJsonWriterBenchmark {
+
+    private static final int OPERATIONS = 50000;
+    private static final int BATCH_SIZE = 10;
+
+    private BoostOpsJsonWriterBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.header("Attribution payload (20 fields)");
+        BenchmarkSupport.measure("JSONObject", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() throws Exception {
+                BenchmarkSupport.sink = attributionWithJsonObject();
+            }
+        });
+        BenchmarkSupport.measure("BoostOpsJsonWriter", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() {
+                BenchmarkSupport.sink = attributionWithWriter();
+            }
+        });
+
+        BenchmarkSupport.header("Message bus batch (" + BATCH_SIZE + " messages)");
+        BenchmarkSupport.measure("JSONArray of JSONObject", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() throws Exception {
+                BenchmarkSupport.sink = batchWithJsonObject();
+            }
+        });
+        BenchmarkSupport.measure("BoostOpsJsonWriter", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() {
+                BenchmarkSupport.sink = batchWithWriter();
+            }
+        });
+    }
+
+    private static String attributionWithJsonObject() throws Exception {
+        JSONObject data = new JSONObject();
+        data.put("raw_referrer", "utm_source=google&utm_medium=cpc&utm_campaign=summer&click_id=abc123");
+        data.put("click_timestamp", 1700000000L);
+        data.put("install_timestamp", 1700000100L);
+        data.put("instant_experience", false);
+        data.put("utm_source", "google");
+        data.put("utm_medium", "cpc");
+        data.put("utm_campaign", "summer");
+        data.put("utm_term", "shoes");
+        data.put("utm_content", "banner/a");
+        data.put("campaign_id", "c-42");
+        data.put("source_app_id", "com.example.source");
+        data.put("boost_referrer", "boostops");
+        data.put("click_id", "abc123");
+        data.put("source_store_id", "store-1");
+        data.put("source_project_id", "project-1");
+        data.put("target_store_id", "store-2");
+        data.put("target_project_id", "project-2");
+        data.put("attribution_source", "install_referrer_api");
+        data.put("sdk_version", "1.0.0");
+        data.put("timestamp", 1700000200L);
+        return data.toString();
+    }
+
+    private static String attributionWithWriter() {
+        return BoostOpsJsonWriter.obtain()
+            .beginObject()
+            .field("raw_referrer", "utm_source=google&utm_medium=cpc&utm_campaign=summer&click_id=abc123")
+            .field("click_timestamp", 1700000000L)
+            .field("install_timestamp", 1700000100L)
+            .field("instant_experience", false)
+            .field("utm_source", "google")
+            .field("utm_medium", "cpc")
+            .field("utm_campaign", "summer")
+            .field("utm_term", "shoes")
+            .field("utm_content", "banner/a")
+            .field("campaign_id", "c-42")
+            .field("source_app_id", "com.example.source")
+            .field("boost_referrer", "boostops")
+            .field("click_id", "abc123")
+            .field("source_store_id", "store-1")
+            .field("source_project_id", "project-1")
+            .field("target_store_id", "store-2")
+            .field("target_project_id", "project-2")
+            .field("attribution_source", "install_referrer_api")
+            .field("sdk_version", "1.0.0")
+            .field("timestamp", 1700000200L)
+            .endObject()
+            .toString();
+    }
+
+    private static String batchWithJsonObject() throws Exception {
+        JSONArray batch = new JSONArray();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            JSONObject message = new JSONObject();
+            message.put("target", "BoostOpsReceiptCaptureNative");
+            message.put("method", "OnNativePurchaseCaptured");
+            message.put("payload", "{\"productId\":\"gems_100\",\"orderId\":\"GPA.1234-5678\"}");
+            batch.put(message);
+        }
+        return batch.toString();
+    }
+
+    private static String batchWithWriter() {
+        BoostOpsJsonWriter writer = BoostOpsJsonWriter.obtain().beginArray();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            writer.beginObject()
+                .field("target", "BoostOpsReceiptCaptureNative")
+                .field("method", "OnNativePurchaseCaptured")
+                .field("payload", "{\"productId\":\"gems_100\",\"orderId\":\"GPA.1234-5678\"}")
+                .endObject();
+        }
+        return writer.endArray().toString();
+    }
+}
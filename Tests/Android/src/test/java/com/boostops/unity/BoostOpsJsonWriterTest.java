@@ -0,0 +1,122 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class BoostOpsJsonWriterTest {
+
+    @Test
+    public void writesFieldsInInsertionOrder() {
+        String json = new BoostOpsJsonWriter()
+            .beginObject()
+            .field("s", "text")
+            .field("n", 42L)
+            .field("b", true)
+            .endObject()
+            .toString();
+
+        assertEquals("{\"s\":\"text\",\"n\":42,\"b\":true}", json);
+    }
+
+    @Test
+    public void omitsNullStringFields() {
+        String json = new BoostOpsJsonWriter()
+            .beginObject()
+            .field("a", (String) null)
+            .field("b", "x")
+            .field("c", (String) null)
+            .endObject()
+            .toString();
+
+        assertEquals("{\"b\":\"x\"}", json);
+    }
+
+    @Test
+    public void writesNestedContainersAndArrays() {
+        String json = new BoostOpsJsonWriter()
+            .beginObject()
+            .name("list").beginArray().value("a").value((String) null).value(7).endArray()
+            .name("empty").beginObject().endObject()
+            .name("raw").rawValue("{\"x\":1}")
+            .endObject()
+            .toString();
+
+        assertEquals("{\"list\":[\"a\",null,7],\"empty\":{},\"raw\":{\"x\":1}}", json);
+    }
+
+    @Test
+    public void escapesLikeAndroidJsonStringer() {
+        String json = new BoostOpsJsonWriter()
+            .beginArray()
+            .value("quote\" backslash\\ slash/ tab\t nl\n cr\r bs\b ff\f ctl\u0001 é")
+            .endArray()
+            .toString();
+
+        assertEquals("[\"quote\\\" backslash\\\\ slash\\/ tab\\t nl\\n cr\\r bs\\b ff\\f ctl\\u0001 é\"]", json);
+    }
+
+    @Test
+    public void obtainReusesTheThreadWriterAfterToString() {
+        BoostOpsJsonWriter first = BoostOpsJsonWriter.obtain();
+        first.beginObject().field("a", 1L).endObject().toString();
+
+        BoostOpsJsonWriter second = BoostOpsJsonWriter.obtain();
+        assertSame(first, second);
+        assertEquals("[]", second.beginArray().endArray().toString());
+    }
+
+    @Test
+    public void nestedObtainDoesNotResetTheOuterDocument() {
+        BoostOpsJsonWriter outer = BoostOpsJsonWriter.obtain().beginObject().field("a", "1");
+
+        BoostOpsJsonWriter inner = BoostOpsJsonWriter.obtain();
+        assertNotSame(outer, inner);
+        String nested = inner.beginObject().field("b", "2").endObject().toString();
+
+        String json = outer.name("nested").rawValue(nested).endObject().toString();
+        assertEquals("{\"a\":\"1\",\"nested\":{\"b\":\"2\"}}", json);
+
+        // toString() released the thread writer
+        BoostOpsJsonWriter next = BoostOpsJsonWriter.obtain();
+        assertSame(outer, next);
+        next.toString();
+    }
+
+    @Test
+    public void releaseRecoversAnAbandonedDocument() {
+        BoostOpsJsonWriter abandoned = BoostOpsJsonWriter.obtain();
+        try {
+            abandoned.beginArray().value("partial");
+            throw new IllegalStateException("mid-document failure");
+        } catch (IllegalStateException expected) {
+            // The caller gives up on the document
+        } finally {
+            abandoned.release();
+        }
+
+        BoostOpsJsonWriter next = BoostOpsJsonWriter.obtain();
+        assertSame(abandoned, next);
+        assertEquals("{}", next.beginObject().endObject().toString());
+
+        // Releasing after toString() is harmless
+        next.release();
+        assertSame(next, BoostOpsJsonWriter.obtain());
+        next.toString();
+    }
+
+    @Test
+    public void resetDropsInflatedBuffers() {
+        BoostOpsJsonWriter writer = new BoostOpsJsonWriter();
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            large.append('x');
+        }
+        writer.beginArray().value(large.toString()).endArray();
+
+        writer.reset();
+        assertEquals("{}", writer.beginObject().endObject().toString());
+    }
+}
@@ -0,0 +1,169 @@
+package com.boostops.unity;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+/**
+ * BoostOpsKeyValueStore against a file-backed SharedPreferences model
+ *
+ * Run from Tests/Android with: gradle keyValueStoreBenchmark
+ *
+ * Real SharedPreferences need a device, so XmlFilePreferences reproduces what
+ * SharedPreferencesImpl does on disk: the whole map is parsed from XML on first load,
+ * and commit() rewrites the whole file behind a backup and fsyncs it.
+ */
+public final class BoostOpsKeyValueStoreBenchmark {
+
+    private static final int KEY_COUNT = 100;
+
+    private BoostOpsKeyValueStoreBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        File directory = Files.createTempDirectory("kvbench").toFile();
+        final File prefsFile = new File(directory, "boostops_prefs.xml");
+        final File storeFile = new File(directory, "boostops_kv.log");
+
+        final XmlFilePreferences prefs = new XmlFilePreferences(prefsFile);
+        final BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(storeFile);
+        Map<String, Object> seed = new HashMap<>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String value = "value-" + i + "-0123456789abcdef0123456789abcdef";
+            seed.put("key." + i, value);
+            store.putString("key." + i, value);
+        }
+        prefs.commit(seed);
+        store.sync();
+
+        final Method closeStore = BoostOpsKeyValueStore.class.getDeclaredMethod("close");
+        closeStore.setAccessible(true);
+
+        BenchmarkSupport.header("Cold read: open the file and read one key (" + KEY_COUNT + " keys)");
+        BenchmarkSupport.measure("SharedPreferences model", 2000, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() throws Exception {
+                BenchmarkSupport.sink = new XmlFilePreferences(prefsFile).getString("key.50", null);
+            }
+        });
+        BenchmarkSupport.measure("BoostOpsKeyValueStore", 2000, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() throws Exception {
+                BoostOpsKeyValueStore cold = new BoostOpsKeyValueStore(storeFile);
+                BenchmarkSupport.sink = cold.getString("key.50", null);
+                closeStore.invoke(cold);
+            }
+        });
+
+        BenchmarkSupport.header("Warm read: one key from an open instance");
+        BenchmarkSupport.measure("SharedPreferences model", 1000000, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() {
+                BenchmarkSupport.sink = prefs.getString("key.50", null);
+            }
+        });
+        BenchmarkSupport.measure("BoostOpsKeyValueStore", 1000000, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() {
+                BenchmarkSupport.sink = store.getString("key.50", null);
+            }
+        });
+
+        final Map<String, Object> edit = new HashMap<>();
+        BenchmarkSupport.header("Durable write: one key, on disk before returning");
+        BenchmarkSupport.measure("SharedPreferences model commit()", 200, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() throws Exception {
+                edit.put("key.50", "updated-" + System.nanoTime());
+                prefs.commit(edit);
+            }
+        });
+        BenchmarkSupport.measure("BoostOpsKeyValueStore put + sync()", 200, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() throws Exception {
+                store.putString("key.50", "updated-" + System.nanoTime());
+                store.sync();
+            }
+        });
+
+        BenchmarkSupport.header("Write: caller latency with the sync deferred");
+        BenchmarkSupport.measure("BoostOpsKeyValueStore put", 100000, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() throws Exception {
+                store.putString("key.50", "updated-value");
+            }
+        });
+
+        closeStore.invoke(store);
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Disk behavior of SharedPreferencesImpl for string values
+     */
+    private static final class XmlFilePreferences {
+        private final File file;
+        private final File backup;
+        private final Map<String, Object> map = new HashMap<>();
+
+        XmlFilePreferences(File file) throws Exception {
+            this.file = file;
+            this.backup = new File(file.getPath() + ".bak");
+            if (file.exists()) {
+                load();
+            }
+        }
+
+        synchronized String getString(String key, String defaultValue) {
+            Object value = map.get(key);
+            return value != null ? (String) value : defaultValue;
+        }
+
+        synchronized void commit(Map<String, Object> edits) throws IOException {
+            map.putAll(edits);
+            if (file.exists() && !backup.exists() && !file.renameTo(backup)) {
+                throw new IOException("Cannot back up " + file);
+            }
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write("<?xml version='1.0' encoding='utf-8' standalone='yes' ?>\n<map>\n");
+                for (Map.Entry<String, Object> entry : map.entrySet()) {
+                    writer.write("    <string name=\"" + entry.getKey() + "\">" + entry.getValue() + "</string>\n");
+                }
+                writer.write("</map>\n");
+                writer.flush();
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            backup.delete();
+        }
+
+        private void load() throws Exception {
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+            NodeList strings = document.getDocumentElement().getElementsByTagName("string");
+            for (int i = 0; i < strings.getLength(); i++) {
+                Element element = (Element) strings.item(i);
+                map.put(element.getAttribute("name"), element.getTextContent());
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+
+public class BoostOpsKeyValueStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File logFile() {
+        return new File(folder.getRoot(), "store/kv.log");
+    }
+
+    @Test
+    public void readsBackEveryType() throws IOException {
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        store.putString("s", "héllo");
+        store.putLong("l", -42L);
+        store.putBoolean("b", true);
+        store.putBytes("y", new byte[] { 1, 2, 3 });
+
+        assertEquals("héllo", store.getString("s", null));
+        assertEquals(-42L, store.getLong("l", 0));
+        assertTrue(store.getBoolean("b", false));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, store.getBytes("y"));
+        assertEquals("fallback", store.getString("l", "fallback"));
+    }
+
+    @Test
+    public void replaysTheLogOnReopen() throws IOException {
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        store.putString("kept", "v1");
+        store.putString("kept", "v2");
+        store.putLong("removed", 7);
+        store.remove("removed");
+        store.putBytes("bytes", new byte[] { 9 });
+        store.sync();
+
+        BoostOpsKeyValueStore reopened = new BoostOpsKeyValueStore(logFile());
+        assertEquals("v2", reopened.getString("kept", null));
+        assertFalse(reopened.contains("removed"));
+        assertArrayEquals(new byte[] { 9 }, reopened.getBytes("bytes"));
+        assertEquals(store.getLogSize(), reopened.getLogSize());
+    }
+
+    @Test
+    public void nullValuesRemoveKeys() throws IOException {
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        store.putString("s", "x");
+        store.putBytes("y", new byte[] { 1 });
+
+        store.putString("s", null);
+        store.putBytes("y", null);
+
+        assertNull(store.get("s"));
+        assertNull(store.get("y"));
+    }
+
+    @Test
+    public void returnsCopiesOfByteValues() throws IOException {
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        byte[] value = { 1, 2 };
+        store.putBytes("y", value);
+        value[0] = 9;
+        store.getBytes("y")[1] = 9;
+
+        assertArrayEquals(new byte[] { 1, 2 }, store.getBytes("y"));
+        assertArrayEquals(new byte[] { 1, 2 }, (byte[]) store.getAll("").get("y"));
+    }
+
+    @Test
+    public void getAllFiltersByPrefix() throws IOException {
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        store.putString("ns.a.one", "1");
+        store.putLong("ns.a.two", 2);
+        store.putString("ns.b.one", "x");
+
+        Map<String, Object> entries = store.getAll("ns.a.");
+        assertEquals(2, entries.size());
+        assertEquals("1", entries.get("ns.a.one"));
+        assertEquals(2L, entries.get("ns.a.two"));
+    }
+
+    @Test
+    public void compactsSupersededRecordsAndKeepsLatestValues() throws IOException {
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        for (int i = 0; i < 20000; i++) {
+            store.putString("key" + (i % 10), "value-" + i);
+        }
+        store.sync();
+
+        assertTrue("log should have been compacted", store.getLogSize() < 16 * 1024);
+        assertEquals("value-19999", store.getString("key9", null));
+
+        BoostOpsKeyValueStore reopened = new BoostOpsKeyValueStore(logFile());
+        for (int k = 0; k < 10; k++) {
+            assertEquals("value-" + (19990 + k), reopened.getString("key" + k, null));
+        }
+    }
+
+    @Test
+    public void growsForLargeValues() throws IOException {
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        byte[] large = new byte[100 * 1024];
+        large[large.length - 1] = 5;
+        store.putBytes("large", large);
+        store.sync();
+
+        assertArrayEquals(large, new BoostOpsKeyValueStore(logFile()).getBytes("large"));
+    }
+
+    @Test
+    public void discardsATornTailRecord() throws IOException {
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        store.putString("first", "ok");
+        int tornRecord = store.getLogSize();
+        store.putString("second", "lost");
+        store.sync();
+
+        // Flip a byte in the last record's body so its CRC no longer matches
+        try (RandomAccessFile file = new RandomAccessFile(logFile(), "rw")) {
+            file.seek(tornRecord + 10);
+            int value = file.read();
+            file.seek(tornRecord + 10);
+            file.write(value ^ 0xFF);
+        }
+
+        BoostOpsKeyValueStore reopened = new BoostOpsKeyValueStore(logFile());
+        assertEquals("ok", reopened.getString("first", null));
+        assertFalse(reopened.contains("second"));
+        assertEquals(tornRecord, reopened.getLogSize());
+
+        // New writes replace the torn record
+        reopened.putString("third", "new");
+        reopened.sync();
+        assertEquals("new", new BoostOpsKeyValueStore(logFile()).getString("third", null));
+    }
+
+    @Test
+    public void startsFreshWhenTheHeaderIsInvalid() throws IOException {
+        File file = logFile();
+        file.getParentFile().mkdirs();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.write(new byte[] { 'n', 'o', 't', 'a', 'l', 'o', 'g', '!', 1, 2, 3 });
+        }
+
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(file);
+        assertTrue(store.getAll("").isEmpty());
+        store.putString("k", "v");
+        store.sync();
+        assertEquals("v", new BoostOpsKeyValueStore(file).getString("k", null));
+    }
+
+    @Test
+    public void syncAsyncCompletesItsHandle() throws IOException {
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        store.putString("k", "v");
+
+        BoostOpsKeyValueStore.WriteHandle handle = store.syncAsync();
+        assertTrue(handle.await(1000));
+    }
+
+    @Test
+    public void migratesLegacyPreferencesOnce() throws IOException {
+        FakeSharedPreferences prefs = new FakeSharedPreferences();
+        prefs.values.put("legacy_string", "s");
+        prefs.values.put("legacy_int", 5);
+        prefs.values.put("legacy_bool", true);
+        prefs.values.put("unrelated", "stay");
+        String[][] mapping = {
+            { "legacy_string", "new.string" },
+            { "legacy_int", "new.long" },
+            { "legacy_bool", "new.bool" },
+            { "legacy_missing", "new.missing" }
+        };
+
+        BoostOpsKeyValueStore store = new BoostOpsKeyValueStore(logFile());
+        store.putString("new.string", "already set");
+        store.migrateFrom(prefs, "migration.test", mapping);
+
+        assertEquals("already set", store.getString("new.string", null));
+        assertEquals(5L, store.getLong("new.long", 0));
+        assertTrue(store.getBoolean("new.bool", false));
+        assertFalse(store.contains("new.missing"));
+        assertTrue(store.contains("migration.test"));
+        assertEquals(1, prefs.values.size());
+        assertEquals("stay", prefs.values.get("unrelated"));
+
+        // A second run is a no-op once the marker exists
+        prefs.values.put("legacy_string", "again");
+        store.remove("new.string");
+        store.migrateFrom(prefs, "migration.test", mapping);
+        assertFalse(store.contains("new.string"));
+    }
+}
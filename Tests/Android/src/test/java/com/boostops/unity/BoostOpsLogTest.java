@@ -0,0 +1,77 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class BoostOpsLogTest {
+
+    @After
+    public void restoreDefaults() {
+        BoostOpsLog.setLogLevel(BoostOpsLog.INFO);
+        BoostOpsLog.setRedactionEnabled(true);
+    }
+
+    @Test
+    public void substitutesPlaceholdersInOrder() {
+        assertEquals("a=1 b=two", BoostOpsLog.format("a={} b={}", new Object[] { 1, "two" }));
+        assertEquals("value null", BoostOpsLog.format("value {}", new Object[] { null }));
+    }
+
+    @Test
+    public void leavesFormatAloneWithoutArguments() {
+        assertEquals("no {} args", BoostOpsLog.format("no {} args", null));
+        assertEquals("no {} args", BoostOpsLog.format("no {} args", new Object[0]));
+        assertEquals("null", BoostOpsLog.format(null, new Object[] { 1 }));
+    }
+
+    @Test
+    public void keepsPlaceholdersBeyondTheArgumentsAndIgnoresExtraArguments() {
+        assertEquals("1 {}", BoostOpsLog.format("{} {}", new Object[] { 1 }));
+        assertEquals("1", BoostOpsLog.format("{}", new Object[] { 1, 2 }));
+    }
+
+    @Test
+    public void keepsUnmatchedBraces() {
+        assertEquals("{x} 1 {", BoostOpsLog.format("{x} {} {", new Object[] { 1 }));
+    }
+
+    @Test
+    public void redactsStarPlaceholders() {
+        assertEquals("id GPA.…(24)", BoostOpsLog.format("id {*}", new Object[] { "GPA.1234-5678-9012-34567" }));
+        assertEquals("id …(3)", BoostOpsLog.format("id {*}", new Object[] { "abc" }));
+        assertEquals("id null", BoostOpsLog.format("id {*}", new Object[] { null }));
+    }
+
+    @Test
+    public void showsIdentifiersWhenRedactionIsOff() {
+        BoostOpsLog.setRedactionEnabled(false);
+
+        assertEquals("id GPA.1234", BoostOpsLog.format("id {*}", new Object[] { "GPA.1234" }));
+    }
+
+    @Test
+    public void gatesByLevel() {
+        BoostOpsLog.setLogLevel("warn");
+
+        assertFalse(BoostOpsLog.isLoggable(BoostOpsLog.INFO));
+        assertTrue(BoostOpsLog.isLoggable(BoostOpsLog.WARN));
+        assertTrue(BoostOpsLog.isLoggable(BoostOpsLog.ERROR));
+
+        BoostOpsLog.setLogLevel("none");
+        assertFalse(BoostOpsLog.isLoggable(BoostOpsLog.ERROR));
+    }
+
+    @Test
+    public void ignoresUnknownLevelNames() {
+        BoostOpsLog.setLogLevel(" Debug ");
+        assertEquals(BoostOpsLog.DEBUG, BoostOpsLog.getLogLevel());
+
+        BoostOpsLog.setLogLevel("loud");
+        BoostOpsLog.setLogLevel((String) null);
+        assertEquals(BoostOpsLog.DEBUG, BoostOpsLog.getLogLevel());
+    }
+}
@@ -0,0 +1,119 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import com.unity3d.player.UnityPlayer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoostOpsMessageBusTest {
+
+    @Before
+    public void setUp() {
+        BoostOpsMessageBus.setFlushIntervalMs(60000);
+        BoostOpsMessageBus.setPollingMode(true);
+        BoostOpsMessageBus.unregisterReceiver();
+        BoostOpsMessageBus.drain();
+        BoostOpsMetrics.reset();
+        UnityPlayer.sentMessages.clear();
+        UnityPlayer.sendFailure = null;
+    }
+
+    @After
+    public void tearDown() {
+        UnityPlayer.sendFailure = null;
+    }
+
+    @Test
+    public void drainReturnsMessagesInOrder() {
+        BoostOpsMessageBus.post("Target", "First", "1");
+        BoostOpsMessageBus.post("Target", "Second", "2");
+
+        JsonArray batch = drain();
+        assertEquals(2, batch.size());
+        assertEquals("First", method(batch, 0));
+        assertEquals("2", batch.get(1).getAsJsonObject().get("payload").getAsString());
+        assertNull(BoostOpsMessageBus.drain());
+    }
+
+    @Test
+    public void coalescedMessagesKeepOnlyTheLatest() {
+        BoostOpsMessageBus.post("Target", "Referrer", "old", "referrer");
+        BoostOpsMessageBus.post("Target", "Other", "x");
+        BoostOpsMessageBus.post("Target", "Referrer", "new", "referrer");
+
+        JsonArray batch = drain();
+        assertEquals(2, batch.size());
+        assertEquals("Other", method(batch, 0));
+        assertEquals("new", batch.get(1).getAsJsonObject().get("payload").getAsString());
+    }
+
+    @Test
+    public void capDropsTheOldestOrdinaryMessageButNeverPurchases() {
+        BoostOpsMessageBus.postCritical("Receipts", "OnNativePurchaseCaptured", "purchase");
+        for (int i = 0; i < BoostOpsMessageBus.MAX_QUEUED_MESSAGES + 44; i++) {
+            BoostOpsMessageBus.post("Target", "Event" + i, "");
+        }
+
+        assertEquals(BoostOpsMessageBus.MAX_QUEUED_MESSAGES, BoostOpsMessageBus.getPendingCount());
+        assertEquals(45, BoostOpsMetrics.counter("message_bus.dropped").get());
+
+        JsonArray batch = drain();
+        assertEquals("OnNativePurchaseCaptured", method(batch, 0));
+        assertEquals("Event45", method(batch, 1));
+    }
+
+    @Test
+    public void criticalMessagesMayExceedTheCap() {
+        for (int i = 0; i < BoostOpsMessageBus.MAX_QUEUED_MESSAGES + 10; i++) {
+            BoostOpsMessageBus.postCritical("Receipts", "OnNativePurchaseCaptured", String.valueOf(i));
+        }
+
+        assertEquals(BoostOpsMessageBus.MAX_QUEUED_MESSAGES + 10, BoostOpsMessageBus.getPendingCount());
+        assertEquals(0, BoostOpsMetrics.counter("message_bus.dropped").get());
+        assertEquals(BoostOpsMessageBus.MAX_QUEUED_MESSAGES + 10, drain().size());
+    }
+
+    @Test
+    public void undeliveredMessagesAreRequeuedWhenUnityIsNotLoaded() {
+        BoostOpsMessageBus.setPollingMode(false);
+        BoostOpsMessageBus.postCritical("Receipts", "OnNativePurchaseCaptured", "purchase");
+
+        UnityPlayer.sendFailure = new UnsatisfiedLinkError("libunity not loaded");
+        BoostOpsMessageBus.flush();
+        assertEquals(1, BoostOpsMessageBus.getPendingCount());
+
+        UnityPlayer.sendFailure = null;
+        BoostOpsMessageBus.flush();
+        assertEquals(0, BoostOpsMessageBus.getPendingCount());
+        assertEquals(1, UnityPlayer.sentMessages.size());
+        assertEquals("OnNativePurchaseCaptured", UnityPlayer.sentMessages.get(0)[1]);
+    }
+
+    @Test
+    public void registeredReceiverGetsOneBatch() {
+        BoostOpsMessageBus.setPollingMode(false);
+        BoostOpsMessageBus.registerReceiver("Bus", "OnBatch");
+        BoostOpsMessageBus.post("Target", "First", "1");
+        BoostOpsMessageBus.post("Target", "Second", "2");
+
+        BoostOpsMessageBus.flush();
+
+        assertEquals(1, UnityPlayer.sentMessages.size());
+        assertEquals("OnBatch", UnityPlayer.sentMessages.get(0)[1]);
+        assertEquals(2, JsonParser.parseString(UnityPlayer.sentMessages.get(0)[2]).getAsJsonArray().size());
+    }
+
+    private static JsonArray drain() {
+        return JsonParser.parseString(BoostOpsMessageBus.drain()).getAsJsonArray();
+    }
+
+    private static String method(JsonArray batch, int index) {
+        return batch.get(index).getAsJsonObject().get("method").getAsString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.boostops.unity;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Recording cost of BoostOpsMetrics on a desktop JVM (not a device)
+ *
+ * Run from Tests/Android with: gradle metricsBenchmark
+ * Each case is warmed up first, then timed over several rounds; the best round is reported.
+ * Contended numbers only mean something with at least THREADS cores.
+ */
+public final class BoostOpsMetricsBenchmark {
+
+    private static final int OPERATIONS = 20000000;
+    private static final int ROUNDS = 5;
+    private static final int THREADS = 4;
+
+    private BoostOpsMetricsBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("cores " + Runtime.getRuntime().availableProcessors());
+        final BoostOpsMetrics.Counter counter = BoostOpsMetrics.counter("bench.counter");
+        final BoostOpsMetrics.Histogram histogram = BoostOpsMetrics.histogram("bench.histogram");
+
+        report("counter.increment, 1 thread", best(1, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    counter.increment();
+                }
+            }
+        }));
+
+        report("counter.increment, " + THREADS + " threads", best(THREADS, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    counter.increment();
+                }
+            }
+        }));
+
+        report("histogram.record, 1 thread", best(1, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    histogram.record(i & 1023);
+                }
+            }
+        }));
+
+        // Keeps the recorded values observable so nothing is optimized away
+        System.out.println("checksum " + (counter.get() + histogram.getCount()));
+    }
+
+    /**
+     * Best wall-clock nanoseconds per operation (across all threads) over ROUNDS runs,
+     * after one warm-up run
+     */
+    private static double best(int threads, Runnable body) throws InterruptedException {
+        run(threads, body);
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long elapsed = run(threads, body);
+            best = Math.min(best, (double) elapsed / ((long) OPERATIONS * threads));
+        }
+        return best;
+    }
+
+    /**
+     * Run the body on the given number of threads at once and return the wall time in ns
+     */
+    private static long run(int threads, final Runnable body) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        body.run();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    private static void report(String name, double nanosPerOperation) {
+        System.out.println(String.format(java.util.Locale.US, "%-32s %6.1f ns/op", name, nanosPerOperation));
+    }
+}
@@ -0,0 +1,170 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BoostOpsMetricsTest {
+
+    @Before
+    public void setUp() {
+        BoostOpsMetrics.setEnabled(true);
+        BoostOpsMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        BoostOpsMetrics.setEnabled(true);
+    }
+
+    @Test
+    public void lookupsReturnTheSameMetric() {
+        assertSame(BoostOpsMetrics.counter("c"), BoostOpsMetrics.counter("c"));
+        assertSame(BoostOpsMetrics.histogram("h"), BoostOpsMetrics.histogram("h"));
+        assertSame(BoostOpsMetrics.gauge("g"), BoostOpsMetrics.gauge("g"));
+    }
+
+    @Test
+    public void counterSumsEveryThread() throws Exception {
+        final BoostOpsMetrics.Counter counter = BoostOpsMetrics.counter("threads");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        counter.increment();
+                    }
+                    counter.add(5);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(16 * 10005, counter.get());
+    }
+
+    @Test
+    public void histogramPlacesValuesInBuckets() {
+        BoostOpsMetrics.Histogram histogram = BoostOpsMetrics.histogram("latency");
+        histogram.record(-3);
+        histogram.record(1);
+        histogram.record(2);
+        histogram.record(3);
+        histogram.record(5000);
+        histogram.record(5001);
+
+        JsonObject snapshot = histogramSnapshot("latency");
+        assertEquals(6, snapshot.get("count").getAsLong());
+        // Negative values count as 0
+        assertEquals(1 + 2 + 3 + 5000 + 5001, snapshot.get("sum_ms").getAsLong());
+        assertEquals(5001, snapshot.get("max_ms").getAsLong());
+
+        JsonArray buckets = snapshot.getAsJsonArray("buckets");
+        assertEquals(13, buckets.size());
+        assertEquals(2, buckets.get(0).getAsLong());   // <= 1ms
+        assertEquals(1, buckets.get(1).getAsLong());   // <= 2ms
+        assertEquals(1, buckets.get(2).getAsLong());   // <= 5ms
+        assertEquals(1, buckets.get(11).getAsLong());  // <= 5000ms
+        assertEquals(1, buckets.get(12).getAsLong());  // overflow
+    }
+
+    @Test
+    public void histogramKeepsTheLargestValueAcrossThreads() throws Exception {
+        final BoostOpsMetrics.Histogram histogram = BoostOpsMetrics.histogram("max");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int offset = t;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        histogram.record(i * 8 + offset);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8000, histogram.getCount());
+        assertEquals(7999, histogramSnapshot("max").get("max_ms").getAsLong());
+    }
+
+    @Test
+    public void snapshotListsMetricsByName() {
+        BoostOpsMetrics.counter("zeta").add(2);
+        BoostOpsMetrics.counter("alpha").increment();
+        BoostOpsMetrics.gauge("size").set(42);
+
+        String json = BoostOpsMetrics.getSnapshot();
+        JsonObject snapshot = JsonParser.parseString(json).getAsJsonObject();
+
+        assertEquals(12, snapshot.getAsJsonArray("bucket_bounds_ms").size());
+        assertEquals(1, snapshot.getAsJsonObject("counters").get("alpha").getAsLong());
+        assertEquals(2, snapshot.getAsJsonObject("counters").get("zeta").getAsLong());
+        assertEquals(42, snapshot.getAsJsonObject("gauges").get("size").getAsLong());
+        assertTrue(json.indexOf("\"alpha\"") < json.indexOf("\"zeta\""));
+    }
+
+    @Test
+    public void disabledMetricsKeepTheirValues() {
+        BoostOpsMetrics.Counter counter = BoostOpsMetrics.counter("disabled");
+        BoostOpsMetrics.Histogram histogram = BoostOpsMetrics.histogram("disabled");
+        BoostOpsMetrics.Gauge gauge = BoostOpsMetrics.gauge("disabled");
+        counter.increment();
+        gauge.set(7);
+
+        BoostOpsMetrics.setEnabled(false);
+        counter.add(100);
+        histogram.record(10);
+        gauge.set(99);
+
+        assertEquals(1, counter.get());
+        assertEquals(0, histogram.getCount());
+        assertEquals(7, gauge.get());
+    }
+
+    @Test
+    public void resetZeroesButKeepsMetrics() {
+        BoostOpsMetrics.Counter counter = BoostOpsMetrics.counter("reset");
+        BoostOpsMetrics.Histogram histogram = BoostOpsMetrics.histogram("reset");
+        counter.add(3);
+        histogram.record(12);
+        BoostOpsMetrics.gauge("reset").set(5);
+
+        BoostOpsMetrics.reset();
+
+        assertEquals(0, counter.get());
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, BoostOpsMetrics.gauge("reset").get());
+        assertEquals(0, histogramSnapshot("reset").get("max_ms").getAsLong());
+
+        counter.increment();
+        assertSame(counter, BoostOpsMetrics.counter("reset"));
+        assertEquals(1, counter.get());
+    }
+
+    private static JsonObject histogramSnapshot(String name) {
+        JsonObject snapshot = JsonParser.parseString(BoostOpsMetrics.getSnapshot()).getAsJsonObject();
+        return snapshot.getAsJsonObject("histograms").getAsJsonObject(name);
+    }
+}
@@ -0,0 +1,161 @@
+package com.boostops.unity;
+
+import android.util.JsonReader;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BoostOpsNativeBuffer records against the String/JSON path for the same data
+ *
+ * Run from Tests/Android with: gradle nativeBufferBenchmark
+ * Each operation hands a batch of records to a reader and decodes every field. The
+ * string path builds the JSON payload, converts it to UTF-8 bytes and back (what JNI
+ * string marshalling does) and parses it; the buffer path writes binary frames, copies
+ * the used region out (what C# does after GetDirectBufferAddress()) and decodes it.
+ * The C# side is modelled on the JVM, so the numbers compare data shapes, not Mono.
+ */
+public final class BoostOpsNativeBufferBenchmark {
+
+    private static final int OPERATIONS = 20000;
+    private static final int BATCH_SIZE = 8;
+
+    private static final String PURCHASE_DATA = "{\"orderId\":\"GPA.3345-6789-0123-45678\","
+        + "\"packageName\":\"com.example.game\",\"productId\":\"com.example.game.gems_1000\","
+        + "\"purchaseTime\":1700000000000,\"purchaseState\":0,"
+        + "\"purchaseToken\":\"opaque-token-abcdefghijklmnopqrstuvwxyz0123456789\",\"quantity\":1,"
+        + "\"acknowledged\":false}";
+    private static final String SIGNATURE = "MEUCIQDp2b5kZQhJ7mN3R4pYtx0vKc9wL8uT6sA1fGh2jK3lMwIgV5nB7cX9zQ1wE3rT5yU7iO9pA2sD4fG6hJ8kL0zX2cV=";
+
+    private static final ByteBuffer buffer = BoostOpsNativeBuffer.enable(256 * 1024);
+    private static final String[] fields = new String[8];
+
+    private BoostOpsNativeBufferBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.header("Receipts (" + BATCH_SIZE + " per batch)");
+        BenchmarkSupport.measure("String/JSON", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() throws Exception {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    readJson(marshal(receiptJson(i)));
+                }
+            }
+        });
+        BenchmarkSupport.measure("BoostOpsNativeBuffer", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    BoostOpsNativeBuffer.writeReceipt("order:GPA." + i, "com.example.game.gems_1000",
+                        "GPA." + i, "opaque-token-" + i, PURCHASE_DATA, SIGNATURE, 1700000000000L + i);
+                }
+                readBuffer();
+            }
+        });
+
+        BenchmarkSupport.header("Identifier bundles (" + BATCH_SIZE + " per batch)");
+        BenchmarkSupport.measure("String/JSON", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() throws Exception {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    readJson(marshal(identifiersJson()));
+                }
+            }
+        });
+        BenchmarkSupport.measure("BoostOpsNativeBuffer", OPERATIONS, new BenchmarkSupport.Operation() {
+            @Override
+            public void run() {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    BoostOpsNativeBuffer.writeIdentifiers("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0",
+                        "38400000-8cf0-11bd-b23e-10b96e40000d", "abc123", "en-US", 0, 0, 0, 0);
+                }
+                readBuffer();
+            }
+        });
+
+        if (BoostOpsNativeBuffer.getDroppedCount() > 0) {
+            throw new IllegalStateException("Buffer dropped records; raise its capacity");
+        }
+    }
+
+    private static String receiptJson(int i) {
+        return BoostOpsJsonWriter.obtain()
+            .beginObject()
+            .field("journalId", "order:GPA." + i)
+            .field("productId", "com.example.game.gems_1000")
+            .field("orderId", "GPA." + i)
+            .field("purchaseToken", "opaque-token-" + i)
+            .field("purchaseData", PURCHASE_DATA)
+            .field("signature", SIGNATURE)
+            .field("timestamp", 1700000000000L + i)
+            .endObject()
+            .toString();
+    }
+
+    private static String identifiersJson() {
+        return BoostOpsJsonWriter.obtain()
+            .beginObject()
+            .field("app_set_id", "0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0")
+            .field("gaid", "38400000-8cf0-11bd-b23e-10b96e40000d")
+            .field("click_id", "abc123")
+            .field("locale", "en-US")
+            .field("app_set_status", 0)
+            .field("gaid_status", 0)
+            .field("click_id_status", 0)
+            .field("locale_status", 0)
+            .endObject()
+            .toString();
+    }
+
+    /**
+     * UTF-8 round trip standing in for the JNI string conversion
+     */
+    private static String marshal(String json) {
+        return new String(json.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static void readJson(String json) throws Exception {
+        JsonReader reader = new JsonReader(new StringReader(json));
+        int index = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            fields[index++ % fields.length] = reader.nextString();
+        }
+        reader.endObject();
+        BenchmarkSupport.sink = fields;
+    }
+
+    /**
+     * Copy the used region and decode every record, then release it like C# does
+     */
+    private static void readBuffer() {
+        int used = buffer.getInt(BoostOpsNativeBuffer.OFFSET_USED);
+        byte[] bytes = new byte[used - BoostOpsNativeBuffer.HEADER_SIZE];
+        ByteBuffer source = buffer.duplicate();
+        source.position(BoostOpsNativeBuffer.HEADER_SIZE);
+        source.get(bytes);
+
+        ByteBuffer in = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        while (in.hasRemaining()) {
+            in.getShort();
+            int fieldCount = in.getShort();
+            in.getInt();
+            for (int i = 0; i < fieldCount; i++) {
+                int kind = in.get();
+                if (kind == BoostOpsNativeBuffer.KIND_STRING) {
+                    int length = in.getShort() & 0xFFFF;
+                    fields[i % fields.length] = new String(bytes, in.position(), length, StandardCharsets.UTF_8);
+                    in.position(in.position() + length);
+                } else if (kind == BoostOpsNativeBuffer.KIND_INT64) {
+                    BenchmarkSupport.sink = in.getLong();
+                }
+            }
+        }
+        BenchmarkSupport.sink = fields;
+        BoostOpsNativeBuffer.acknowledge(used);
+    }
+}
@@ -0,0 +1,282 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BoostOpsNativeBufferTest {
+
+    private ByteBuffer buffer;
+
+    /**
+     * One decoded record; fields are String, Long or null
+     */
+    private static final class Record {
+        final int type;
+        final List<Object> fields = new ArrayList<>();
+
+        Record(int type) {
+            this.type = type;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        buffer = BoostOpsNativeBuffer.enable();
+        // Start every test from an empty record area
+        BoostOpsNativeBuffer.acknowledge(used());
+    }
+
+    @Test
+    public void enableReturnsTheSameBufferWithAValidHeader() {
+        assertSame(buffer, BoostOpsNativeBuffer.enable(1024));
+        assertTrue(BoostOpsNativeBuffer.isEnabled());
+        assertTrue(buffer.isDirect());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+
+        assertEquals(BoostOpsNativeBuffer.MAGIC, buffer.getInt(BoostOpsNativeBuffer.OFFSET_MAGIC));
+        assertEquals('B', buffer.get(0));
+        assertEquals('O', buffer.get(1));
+        assertEquals(BoostOpsNativeBuffer.FORMAT_VERSION, buffer.getShort(BoostOpsNativeBuffer.OFFSET_VERSION));
+        assertEquals(BoostOpsNativeBuffer.HEADER_SIZE, buffer.getShort(BoostOpsNativeBuffer.OFFSET_HEADER_SIZE));
+        assertEquals(BoostOpsNativeBuffer.HEADER_SIZE, used());
+        assertEquals(0, sequence() % 2);
+    }
+
+    @Test
+    public void framesIdentifierRecords() {
+        assertTrue(BoostOpsNativeBuffer.writeIdentifiers("app-set", null, "click", "en_US", 0, 3, 0, 1));
+
+        List<Record> records = read(BoostOpsNativeBuffer.HEADER_SIZE, used());
+        assertEquals(1, records.size());
+        Record record = records.get(0);
+        assertEquals(BoostOpsNativeBuffer.TYPE_IDENTIFIERS, record.type);
+        assertEquals("app-set", record.fields.get(0));
+        assertNull(record.fields.get(1));
+        assertEquals("click", record.fields.get(2));
+        assertEquals("en_US", record.fields.get(3));
+        assertEquals(3L, record.fields.get(5));
+        assertEquals(8, record.fields.size());
+    }
+
+    @Test
+    public void encodesStringsAsUtf8() {
+        String data = "é€🎉 \ud83c end";
+        assertTrue(BoostOpsNativeBuffer.writeReceipt("order:GPA.1", "gems", "GPA.1", "tok", data, "sig", 1234L));
+
+        Record record = read(BoostOpsNativeBuffer.HEADER_SIZE, used()).get(0);
+        assertEquals(BoostOpsNativeBuffer.TYPE_RECEIPT, record.type);
+        assertEquals(7, record.fields.size());
+        // A lone surrogate cannot be encoded and is written as '?'
+        assertEquals("é€🎉 ? end", record.fields.get(4));
+        assertEquals(1234L, record.fields.get(6));
+    }
+
+    @Test
+    public void writesAttributionUpdates() {
+        assertTrue(BoostOpsAttributionState.update(
+            "{\"click_id\":\"c1\",\"utm_source\":\"google\",\"click_timestamp\":10,\"install_timestamp\":20}"));
+
+        List<Record> records = read(BoostOpsNativeBuffer.HEADER_SIZE, used());
+        Record record = records.get(records.size() - 1);
+        assertEquals(BoostOpsNativeBuffer.TYPE_ATTRIBUTION, record.type);
+        assertEquals(17, record.fields.size());
+        assertEquals(BoostOpsAttributionState.getVersion(), record.fields.get(0));
+        assertEquals("c1", record.fields.get(2));
+        assertEquals("google", record.fields.get(3));
+        assertEquals(10L, record.fields.get(15));
+        assertEquals(20L, record.fields.get(16));
+    }
+
+    @Test
+    public void acknowledgeKeepsUnreadRecords() {
+        BoostOpsNativeBuffer.writeIdentifiers("first", null, null, null, 0, 0, 0, 0);
+        int firstEnd = used();
+        BoostOpsNativeBuffer.writeIdentifiers("second", null, null, null, 0, 0, 0, 0);
+
+        BoostOpsNativeBuffer.acknowledge(firstEnd);
+
+        List<Record> records = read(BoostOpsNativeBuffer.HEADER_SIZE, used());
+        assertEquals(1, records.size());
+        assertEquals("second", records.get(0).fields.get(0));
+
+        // Offsets outside the record area are ignored
+        int before = used();
+        BoostOpsNativeBuffer.acknowledge(before + 100);
+        BoostOpsNativeBuffer.acknowledge(BoostOpsNativeBuffer.HEADER_SIZE);
+        assertEquals(before, used());
+    }
+
+    @Test
+    public void countsRecordsThatDoNotFit() {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            large.append('x');
+        }
+        int droppedBefore = BoostOpsNativeBuffer.getDroppedCount();
+
+        boolean written = true;
+        int writes = 0;
+        while (written && writes < 10) {
+            written = BoostOpsNativeBuffer.writeReceipt("id", "p", "o", "t", large.toString(), "s", writes++);
+        }
+        int usedAfterDrop = used();
+
+        assertFalse(written);
+        assertEquals(droppedBefore + 1, BoostOpsNativeBuffer.getDroppedCount());
+        assertEquals(droppedBefore + 1, buffer.getInt(BoostOpsNativeBuffer.OFFSET_DROPPED));
+        // The partial record is not published
+        assertEquals(writes - 1, read(BoostOpsNativeBuffer.HEADER_SIZE, usedAfterDrop).size());
+    }
+
+    @Test
+    public void rejectsStringsLongerThanTheFieldLimit() {
+        StringBuilder tooLong = new StringBuilder();
+        for (int i = 0; i < 0x10000; i++) {
+            tooLong.append('x');
+        }
+        int before = used();
+
+        assertFalse(BoostOpsNativeBuffer.writeReceipt("id", "p", "o", "t", tooLong.toString(), "s", 1));
+        assertEquals(before, used());
+    }
+
+    @Test
+    public void everyPublishBumpsTheSequenceByTwo() {
+        int before = sequence();
+
+        BoostOpsNativeBuffer.writeIdentifiers("a", null, null, null, 0, 0, 0, 0);
+        assertEquals(before + 2, sequence());
+
+        BoostOpsNativeBuffer.acknowledge(used());
+        assertEquals(before + 4, sequence());
+    }
+
+    @Test
+    public void seqlockReaderOnlySeesWholeRecords() throws Exception {
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final int[] consistentReads = { 0 };
+
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (writing.get()) {
+                        byte[] copy = readConsistent();
+                        if (copy == null) {
+                            continue;
+                        }
+                        for (Record record : decode(copy)) {
+                            String value = (String) record.fields.get(0);
+                            assertEquals(value, record.fields.get(1));
+                        }
+                        consistentReads[0]++;
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 20000; i++) {
+            String value = "value-" + i;
+            if (!BoostOpsNativeBuffer.writeIdentifiers(value, value, null, null, i, i, i, i)) {
+                BoostOpsNativeBuffer.acknowledge(used());
+            }
+            if (i % 7 == 0) {
+                BoostOpsNativeBuffer.acknowledge(used());
+            }
+        }
+        writing.set(false);
+        reader.join();
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertTrue(consistentReads[0] > 0);
+    }
+
+    /**
+     * The C# read protocol: even sequence, copy, same sequence afterwards
+     * @return Record bytes, or null if a write was in progress
+     */
+    private byte[] readConsistent() {
+        int before = buffer.getInt(BoostOpsNativeBuffer.OFFSET_SEQUENCE);
+        if ((before & 1) != 0) {
+            return null;
+        }
+        int end = buffer.getInt(BoostOpsNativeBuffer.OFFSET_USED);
+        if (end < BoostOpsNativeBuffer.HEADER_SIZE || end > buffer.capacity()) {
+            return null;
+        }
+        byte[] copy = new byte[end - BoostOpsNativeBuffer.HEADER_SIZE];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = buffer.get(BoostOpsNativeBuffer.HEADER_SIZE + i);
+        }
+        int after = buffer.getInt(BoostOpsNativeBuffer.OFFSET_SEQUENCE);
+        return before == after ? copy : null;
+    }
+
+    private int used() {
+        return buffer.getInt(BoostOpsNativeBuffer.OFFSET_USED);
+    }
+
+    private int sequence() {
+        return buffer.getInt(BoostOpsNativeBuffer.OFFSET_SEQUENCE);
+    }
+
+    private List<Record> read(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return decode(bytes);
+    }
+
+    /**
+     * Decode records the way the C# reader does, failing on any framing error
+     */
+    private static List<Record> decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        List<Record> records = new ArrayList<>();
+        while (in.hasRemaining()) {
+            Record record = new Record(in.getShort() & 0xFFFF);
+            int fieldCount = in.getShort() & 0xFFFF;
+            int payloadLength = in.getInt();
+            int payloadEnd = in.position() + payloadLength;
+
+            for (int i = 0; i < fieldCount; i++) {
+                int kind = in.get();
+                if (kind == BoostOpsNativeBuffer.KIND_NULL) {
+                    record.fields.add(null);
+                } else if (kind == BoostOpsNativeBuffer.KIND_STRING) {
+                    byte[] utf8 = new byte[in.getShort() & 0xFFFF];
+                    in.get(utf8);
+                    record.fields.add(new String(utf8, StandardCharsets.UTF_8));
+                } else if (kind == BoostOpsNativeBuffer.KIND_INT64) {
+                    record.fields.add(in.getLong());
+                } else {
+                    throw new AssertionError("Unknown field kind " + kind);
+                }
+            }
+            assertEquals("payload length", payloadEnd, in.position());
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,240 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BoostOpsRetrySchedulerTest {
+
+    /**
+     * Clock and executor in one: tasks run when the test advances time past their deadline
+     */
+    private static final class FakeTime implements BoostOpsRetryScheduler.Clock,
+            BoostOpsRetryScheduler.DelayedExecutor {
+        final List<Runnable> tasks = new ArrayList<>();
+        final List<Long> deadlines = new ArrayList<>();
+        final List<Long> delays = new ArrayList<>();
+        long now = 1000;
+
+        @Override
+        public long elapsedRealtime() {
+            return now;
+        }
+
+        @Override
+        public void postDelayed(Runnable task, long delayMs) {
+            tasks.add(task);
+            deadlines.add(now + delayMs);
+            delays.add(delayMs);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            int index = tasks.indexOf(task);
+            if (index >= 0) {
+                tasks.remove(index);
+                deadlines.remove(index);
+            }
+        }
+
+        void advance(long ms) {
+            now += ms;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (deadlines.get(i) <= now) {
+                    Runnable task = tasks.remove(i);
+                    deadlines.remove(i);
+                    i--;
+                    task.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Random that always returns the same fraction
+     */
+    private static final class FixedRandom extends Random {
+        private final double value;
+
+        FixedRandom(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double nextDouble() {
+            return value;
+        }
+    }
+
+    private FakeTime time;
+
+    @Before
+    public void setUp() {
+        time = new FakeTime();
+    }
+
+    private BoostOpsRetryScheduler scheduler(double jitter, Random random) {
+        return new BoostOpsRetryScheduler(
+            BoostOpsRetryScheduler.DEFAULT_INITIAL_DELAY_MS,
+            BoostOpsRetryScheduler.DEFAULT_MAX_DELAY_MS,
+            BoostOpsRetryScheduler.DEFAULT_MULTIPLIER,
+            jitter,
+            BoostOpsRetryScheduler.DEFAULT_MAX_ATTEMPTS,
+            time,
+            time,
+            random);
+    }
+
+    @Test
+    public void backoffDoublesUpToTheCap() {
+        BoostOpsRetryScheduler scheduler = scheduler(0, new Random(1));
+        long[] expected = { 1000, 2000, 4000, 8000, 16000, 32000, 60000, 60000 };
+
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("retry " + i, expected[i], scheduler.computeDelay(i));
+        }
+        assertEquals(60000, scheduler.computeDelay(30));
+    }
+
+    @Test
+    public void jitterStaysWithinTwentyPercentAndUnderTheCap() {
+        BoostOpsRetryScheduler low = scheduler(0.2, new FixedRandom(0.0));
+        BoostOpsRetryScheduler mid = scheduler(0.2, new FixedRandom(0.5));
+        BoostOpsRetryScheduler high = scheduler(0.2, new FixedRandom(0.999999));
+
+        assertEquals(800, low.computeDelay(0));
+        assertEquals(1000, mid.computeDelay(0));
+        assertEquals(1199, high.computeDelay(0));
+        assertEquals(3200, low.computeDelay(2));
+        // Jitter above the cap is clamped back to it
+        assertEquals(48000, low.computeDelay(7));
+        assertEquals(60000, high.computeDelay(7));
+
+        BoostOpsRetryScheduler seeded = scheduler(0.2, new Random(42));
+        for (int retry = 0; retry < 12; retry++) {
+            long base = Math.min(60000, 1000L << Math.min(retry, 20));
+            for (int sample = 0; sample < 200; sample++) {
+                long delay = seeded.computeDelay(retry);
+                assertTrue(delay >= (long) (base * 0.8));
+                assertTrue(delay <= Math.min(60000, (long) (base * 1.2)));
+            }
+        }
+    }
+
+    @Test
+    public void stopsAfterEightRetries() {
+        BoostOpsRetryScheduler scheduler = scheduler(0, new Random(1));
+        final int[] runs = { 0 };
+        Runnable attempt = new Runnable() {
+            @Override
+            public void run() {
+                runs[0]++;
+            }
+        };
+
+        for (int i = 0; i < BoostOpsRetryScheduler.DEFAULT_MAX_ATTEMPTS; i++) {
+            assertTrue(scheduler.scheduleRetry(attempt));
+            time.advance(60000);
+        }
+
+        assertEquals(8, runs[0]);
+        assertEquals(8, scheduler.getRetryCount());
+        assertTrue(scheduler.isExhausted());
+        assertFalse(scheduler.scheduleRetry(attempt));
+        assertEquals(Long.valueOf(1000), time.delays.get(0));
+        assertEquals(Long.valueOf(60000), time.delays.get(7));
+    }
+
+    @Test
+    public void attemptRunsOnlyAfterItsDelay() {
+        BoostOpsRetryScheduler scheduler = scheduler(0, new Random(1));
+        final int[] runs = { 0 };
+        scheduler.scheduleRetry(new Runnable() {
+            @Override
+            public void run() {
+                runs[0]++;
+            }
+        });
+
+        time.advance(999);
+        assertEquals(0, runs[0]);
+        time.advance(1);
+        assertEquals(1, runs[0]);
+    }
+
+    @Test
+    public void successCancelsThePendingRetryAndRecordsTimeToSuccess() {
+        BoostOpsRetryScheduler scheduler = scheduler(0, new Random(1));
+        final int[] runs = { 0 };
+        scheduler.markStarted();
+        scheduler.scheduleRetry(new Runnable() {
+            @Override
+            public void run() {
+                runs[0]++;
+            }
+        });
+
+        time.advance(500);
+        scheduler.onSuccess();
+        time.advance(60000);
+
+        assertEquals(0, runs[0]);
+        assertTrue(scheduler.isFinished());
+        assertEquals(500, scheduler.getTimeToSuccessMs());
+        assertFalse(scheduler.scheduleRetry(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }));
+    }
+
+    @Test
+    public void newRetryReplacesThePendingOne() {
+        BoostOpsRetryScheduler scheduler = scheduler(0, new Random(1));
+        final List<String> runs = new ArrayList<>();
+        scheduler.scheduleRetry(new Runnable() {
+            @Override
+            public void run() {
+                runs.add("first");
+            }
+        });
+        scheduler.scheduleRetry(new Runnable() {
+            @Override
+            public void run() {
+                runs.add("second");
+            }
+        });
+
+        time.advance(60000);
+        assertEquals(1, runs.size());
+        assertEquals("second", runs.get(0));
+    }
+
+    @Test
+    public void resetAllowsAFreshSequence() {
+        BoostOpsRetryScheduler scheduler = scheduler(0, new Random(1));
+        Runnable noop = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        for (int i = 0; i < BoostOpsRetryScheduler.DEFAULT_MAX_ATTEMPTS; i++) {
+            scheduler.scheduleRetry(noop);
+        }
+        scheduler.cancel();
+
+        scheduler.reset();
+
+        assertEquals(0, scheduler.getRetryCount());
+        assertEquals(-1, scheduler.getTimeToSuccessMs());
+        assertTrue(scheduler.scheduleRetry(noop));
+        assertEquals(Long.valueOf(1000), time.delays.get(time.delays.size() - 1));
+    }
+}
@@ -0,0 +1,97 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BoostOpsSharedStorageTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static TestContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        if (context == null) {
+            context = new TestContext(folder.newFolder("files"));
+            BoostOpsContext.initialize(context);
+        }
+    }
+
+    @Test
+    public void putManyAndGetManyRoundTripTypedValues() {
+        assertTrue(BoostOpsSharedStorage.putMany("game",
+            "[{\"k\":\"name\",\"t\":\"s\",\"v\":\"Ada\"},"
+            + "{\"v\":7,\"t\":\"l\",\"k\":\"level\"},"
+            + "{\"k\":\"vip\",\"t\":\"b\",\"v\":true},"
+            + "{\"k\":\"blob\",\"t\":\"y\",\"v\":\"AQID\"}]"));
+
+        JsonArray entries = JsonParser.parseString(
+            BoostOpsSharedStorage.getMany("game", "[\"name\",\"level\",\"missing\",\"vip\",\"blob\"]")).getAsJsonArray();
+
+        assertEquals(4, entries.size());
+        assertEntry(entries.get(0).getAsJsonObject(), "name", "s", "Ada");
+        assertEntry(entries.get(1).getAsJsonObject(), "level", "l", "7");
+        assertEntry(entries.get(2).getAsJsonObject(), "vip", "b", "true");
+        assertEntry(entries.get(3).getAsJsonObject(), "blob", "y", "AQID");
+        assertEquals(7, BoostOpsSharedStorage.getLong("game", "level", 0));
+    }
+
+    @Test
+    public void getManyWithoutKeysReturnsAnEmptyResult() {
+        assertEquals("[]", BoostOpsSharedStorage.getMany("game", null));
+        assertEquals("[]", BoostOpsSharedStorage.getMany("game", ""));
+        assertEquals("[]", BoostOpsSharedStorage.getMany("game", "[]"));
+    }
+
+    @Test
+    public void getManyRejectsMalformedPayloads() {
+        assertNull(BoostOpsSharedStorage.getMany("game", "[\"name\""));
+        assertNull(BoostOpsSharedStorage.getMany("bad.namespace", "[\"name\"]"));
+
+        // The thread's JSON writer was handed back despite the failure
+        BoostOpsJsonWriter first = BoostOpsJsonWriter.obtain();
+        first.toString();
+        BoostOpsJsonWriter second = BoostOpsJsonWriter.obtain();
+        second.toString();
+        assertSame(first, second);
+    }
+
+    @Test
+    public void malformedBatchWritesNothing() {
+        assertFalse(BoostOpsSharedStorage.putMany("game", null));
+        assertFalse(BoostOpsSharedStorage.putMany("game",
+            "[{\"k\":\"first\",\"t\":\"s\",\"v\":\"x\"},{\"k\":\"second\",\"t\":\"l\",\"v\":\"not a number\"}]"));
+
+        assertFalse(BoostOpsSharedStorage.contains("game", "first"));
+    }
+
+    @Test
+    public void getNamespaceReturnsOnlyThatNamespace() {
+        BoostOpsSharedStorage.putString("profile", "a", "1");
+        BoostOpsSharedStorage.putString("profile", "b", "2");
+        BoostOpsSharedStorage.putString("other", "a", "3");
+
+        JsonArray entries = JsonParser.parseString(BoostOpsSharedStorage.getNamespace("profile")).getAsJsonArray();
+
+        assertEquals(2, entries.size());
+    }
+
+    private static void assertEntry(JsonObject entry, String key, String type, String value) {
+        assertEquals(key, entry.get("k").getAsString());
+        assertEquals(type, entry.get("t").getAsString());
+        assertEquals(value, entry.get("v").getAsString());
+    }
+}
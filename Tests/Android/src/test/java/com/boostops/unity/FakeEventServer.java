@@ -0,0 +1,114 @@
+package com.boostops.unity;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Local stand-in for the BoostOps event endpoint
+ *
+ * Records every POST with its headers, decompressed body and arrival time, and answers
+ * with the next scripted status code (200 once the script runs out).
+ */
+public final class FakeEventServer {
+
+    /**
+     * One request as the server received it
+     */
+    public static final class Request {
+        public final String method;
+        public final String contentType;
+        public final String contentEncoding;
+        public final String eventCountHeader;
+        public final int compressedBytes;
+        public final JsonArray events;
+        public final long receivedAtMs;
+
+        Request(HttpExchange exchange, byte[] body, long receivedAtMs) {
+            this.method = exchange.getRequestMethod();
+            this.contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            this.contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            this.eventCountHeader = exchange.getRequestHeaders().getFirst("X-BoostOps-Event-Count");
+            this.compressedBytes = body.length;
+            this.events = JsonParser.parseString(gunzip(body)).getAsJsonArray();
+            this.receivedAtMs = receivedAtMs;
+        }
+    }
+
+    private final HttpServer server;
+    private final BlockingQueue<Integer> statuses = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+
+    public FakeEventServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/events", this::handle);
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/events";
+    }
+
+    /**
+     * Answer the next requests with these status codes, in order
+     */
+    public void respondWith(int... codes) {
+        for (int code : codes) {
+            statuses.add(code);
+        }
+    }
+
+    public Request next(long timeoutMs) throws InterruptedException {
+        return requests.poll(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long receivedAtMs = System.currentTimeMillis();
+        try {
+            byte[] body = readAll(exchange.getRequestBody());
+            Integer scripted = statuses.poll();
+            int status = scripted != null ? scripted : 200;
+            byte[] response = ("{\"status\":" + status + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, response.length);
+            exchange.getResponseBody().write(response);
+            requests.add(new Request(exchange, body, receivedAtMs));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) > 0) {
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static String gunzip(byte[] gzipped) {
+        try {
+            return new String(readAll(new GZIPInputStream(new ByteArrayInputStream(gzipped))), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new AssertionError("Request body is not gzip", e);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.boostops.unity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class IdentifierPluginTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static TestContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        if (context == null) {
+            context = new TestContext(folder.newFolder("files"));
+            BoostOpsContext.initialize(context);
+        }
+        // Every test starts with no cached or in-flight identifiers
+        clearStaticMap("memory");
+        clearStaticMap("inFlight");
+    }
+
+    @Test
+    public void slowestLookupSetsTheBundleLatency() {
+        long start = System.nanoTime();
+        IdentifierPlugin.IdentifierRequest request = IdentifierPlugin.collectIdentifiers(context,
+            delayed(300, new BoostOpsIdentifierCache.Snapshot("app-set-id", false, now())),
+            blocking(600, new BoostOpsIdentifierCache.Snapshot("gaid-value", false, now())),
+            3000, null);
+
+        JsonObject bundle = await(request);
+        long elapsedMs = (System.nanoTime() - start) / 1000000L;
+
+        assertEquals(IdentifierPlugin.STATUS_OK, request.getStatus());
+        assertEquals("app-set-id", bundle.get("app_set_id").getAsString());
+        assertEquals("gaid-value", bundle.get("gaid").getAsString());
+        assertEquals(IdentifierPlugin.STATUS_OK, status(bundle, "app_set_id"));
+        assertEquals(IdentifierPlugin.STATUS_OK, status(bundle, "gaid"));
+        // Lookups overlap: the bundle takes as long as the slowest, not the sum (900ms)
+        assertTrue("elapsed " + elapsedMs, elapsedMs >= 600);
+        assertTrue("elapsed " + elapsedMs, elapsedMs < 850);
+    }
+
+    @Test
+    public void hungLookupTimesOutWhileOthersReturn() {
+        long start = System.nanoTime();
+        IdentifierPlugin.IdentifierRequest request = IdentifierPlugin.collectIdentifiers(context,
+            hung(),
+            blocking(50, new BoostOpsIdentifierCache.Snapshot("gaid-value", false, now())),
+            400, null);
+
+        JsonObject bundle = await(request);
+        long elapsedMs = (System.nanoTime() - start) / 1000000L;
+
+        assertEquals(IdentifierPlugin.STATUS_TIMEOUT, status(bundle, "app_set_id"));
+        assertFalse(bundle.has("app_set_id"));
+        assertEquals(IdentifierPlugin.STATUS_OK, status(bundle, "gaid"));
+        assertEquals("gaid-value", bundle.get("gaid").getAsString());
+        assertEquals(IdentifierPlugin.STATUS_OK, status(bundle, "locale"));
+        // Partial results still make a usable bundle, delivered at the shared deadline
+        assertEquals(IdentifierPlugin.STATUS_OK, request.getStatus());
+        assertTrue("elapsed " + elapsedMs, elapsedMs >= 400);
+        assertTrue("elapsed " + elapsedMs, elapsedMs < 1000);
+    }
+
+    @Test
+    public void optOutAndFailuresMapToTheirStatusCodes() {
+        IdentifierPlugin.IdentifierRequest request = IdentifierPlugin.collectIdentifiers(context,
+            delayed(10, null),
+            blocking(10, new BoostOpsIdentifierCache.Snapshot(null, true, now())),
+            3000, null);
+
+        JsonObject bundle = await(request);
+
+        assertEquals(IdentifierPlugin.STATUS_UNAVAILABLE, status(bundle, "app_set_id"));
+        assertEquals(IdentifierPlugin.STATUS_OPTED_OUT, status(bundle, "gaid"));
+        assertEquals(IdentifierPlugin.STATUS_UNAVAILABLE, status(bundle, "click_id"));
+        assertFalse(bundle.has("app_set_id"));
+        assertFalse(bundle.has("gaid"));
+        assertFalse(bundle.has("click_id"));
+    }
+
+    @Test
+    public void withoutContextEverythingIsUnavailable() {
+        IdentifierPlugin.IdentifierRequest request = IdentifierPlugin.collectIdentifiers(null,
+            hung(), hung(), 3000, null);
+
+        JsonObject bundle = await(request);
+
+        assertEquals(IdentifierPlugin.STATUS_UNAVAILABLE, status(bundle, "app_set_id"));
+        assertEquals(IdentifierPlugin.STATUS_UNAVAILABLE, status(bundle, "gaid"));
+    }
+
+    @Test
+    public void callbackReceivesTheBundle() throws Exception {
+        final String[] result = new String[2];
+        final CountDownLatch called = new CountDownLatch(1);
+        IdentifierPlugin.IdentifierRequest request = IdentifierPlugin.collectIdentifiers(context,
+            delayed(10, new BoostOpsIdentifierCache.Snapshot("app-set-id", false, now())),
+            blocking(10, null),
+            3000, new IdentifierPlugin.IdentifierCallback() {
+                @Override
+                public void onIdentifierResult(String identifier, String value, int status) {
+                    result[0] = identifier;
+                    result[1] = value;
+                    called.countDown();
+                }
+            });
+
+        String value = request.await(5000);
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        assertEquals("all", result[0]);
+        assertEquals(value, result[1]);
+        assertEquals(IdentifierPlugin.STATUS_UNAVAILABLE, status(JsonParser.parseString(value).getAsJsonObject(), "gaid"));
+    }
+
+    /**
+     * Play Services style lookup that reports back on its own thread after a delay
+     */
+    private static BoostOpsIdentifierCache.AsyncFetcher delayed(final long delayMs,
+                                                               final BoostOpsIdentifierCache.Snapshot snapshot) {
+        return new BoostOpsIdentifierCache.AsyncFetcher() {
+            @Override
+            public void fetch(android.content.Context ignored, final BoostOpsIdentifierCache.Callback done) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        sleep(delayMs);
+                        done.onSnapshot(snapshot);
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+            }
+        };
+    }
+
+    /**
+     * AdvertisingIdClient style lookup that blocks an SDK worker thread
+     */
+    private static BoostOpsIdentifierCache.AsyncFetcher blocking(final long delayMs,
+                                                                final BoostOpsIdentifierCache.Snapshot snapshot) {
+        return BoostOpsIdentifierCache.async(new BoostOpsIdentifierCache.Fetcher() {
+            @Override
+            public BoostOpsIdentifierCache.Snapshot fetch(android.content.Context ignored) {
+                sleep(delayMs);
+                return snapshot;
+            }
+        });
+    }
+
+    /**
+     * Lookup whose callback never fires
+     */
+    private static BoostOpsIdentifierCache.AsyncFetcher hung() {
+        return new BoostOpsIdentifierCache.AsyncFetcher() {
+            @Override
+            public void fetch(android.content.Context ignored, BoostOpsIdentifierCache.Callback done) {
+            }
+        };
+    }
+
+    private static JsonObject await(IdentifierPlugin.IdentifierRequest request) {
+        String value = request.await(5000);
+        assertTrue(request.isDone());
+        assertNotNull(value);
+        return JsonParser.parseString(value).getAsJsonObject();
+    }
+
+    private static int status(JsonObject bundle, String field) {
+        return bundle.getAsJsonObject("status").get(field).getAsInt();
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void clearStaticMap(String name) throws Exception {
+        Field field = BoostOpsIdentifierCache.class.getDeclaredField(name);
+        field.setAccessible(true);
+        ((Map<?, ?>) field.get(null)).clear();
+    }
+}
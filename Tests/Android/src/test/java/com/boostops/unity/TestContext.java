@@ -0,0 +1,61 @@
+package com.boostops.unity;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.Signature;
+import android.content.pm.SigningInfo;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Application Context for JVM tests: files under a test directory, in-memory preferences
+ * and a PackageManager that reports one fixed signing certificate
+ */
+public final class TestContext extends Context {
+
+    private final File filesDir;
+    private final Map<String, FakeSharedPreferences> preferences = new HashMap<>();
+
+    public TestContext(File filesDir) {
+        this.filesDir = filesDir;
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public synchronized SharedPreferences getSharedPreferences(String name, int mode) {
+        FakeSharedPreferences prefs = preferences.get(name);
+        if (prefs == null) {
+            prefs = new FakeSharedPreferences();
+            preferences.put(name, prefs);
+        }
+        return prefs;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return filesDir;
+    }
+
+    @Override
+    public PackageManager getPackageManager() {
+        return new PackageManager() {
+            @Override
+            public PackageInfo getPackageInfo(String packageName, int flags) {
+                Signature[] signatures = { new Signature(new byte[] { 1, 2, 3, 4 }) };
+                PackageInfo info = new PackageInfo();
+                info.signatures = signatures;
+                info.signingInfo = new SigningInfo(signatures);
+                info.versionCode = 1;
+                return info;
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.boostops.unity.referrer;
+
+import android.net.Uri;
+
+import com.boostops.unity.BenchmarkSupport;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BoostOpsReferrerParser.parse() against the split-and-decode parseReferrerUrl() it replaced
+ *
+ * Run from Tests/Android with: gradle referrerParserBenchmark
+ */
+public final class BoostOpsReferrerParserBenchmark {
+
+    private static final int OPERATIONS = 200000;
+
+    private BoostOpsReferrerParserBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        StringBuilder longContent = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            longContent.append("creative%20").append(i).append('-');
+        }
+
+        StringBuilder manyParams = new StringBuilder("utm_source=google&utm_medium=cpc");
+        for (int i = 0; i < 60; i++) {
+            manyParams.append("&gclid_param_").append(i).append("=value").append(i);
+        }
+        manyParams.append("&click_id=abc123");
+
+        String[][] cases = {
+            { "typical", "utm_source=google&utm_medium=cpc&utm_campaign=summer%20sale&click_id=abc123" },
+            { "long value", "utm_source=google&utm_content=" + longContent + "&click_id=abc123" },
+            { "many params", manyParams.toString() },
+            { "fully encoded", "utm_source%3Dgoogle%26utm_medium%3Dcpc%26click_id%3Dabc123" },
+            { "malformed", "a%zz=1&%=x&%25=x&utm_source=%zz%4&utm%5Fmedium=cpc&utm_term=100%" },
+        };
+
+        BenchmarkSupport.header("Referrer parsing");
+        for (final String[] testCase : cases) {
+            BenchmarkSupport.measure(testCase[0] + ", parseReferrerUrl", OPERATIONS, new BenchmarkSupport.Operation() {
+                @Override
+                public void run() {
+                    BenchmarkSupport.sink = parseReferrerUrl(testCase[1]);
+                }
+            });
+            BenchmarkSupport.measure(testCase[0] + ", BoostOpsReferrerParser", OPERATIONS, new BenchmarkSupport.Operation() {
+                @Override
+                public void run() {
+                    BenchmarkSupport.sink = BoostOpsReferrerParser.parse(testCase[1]);
+                }
+            });
+        }
+    }
+
+    /**
+     * The previous BoostOpsInstallReferrerNative.parseReferrerUrl(), minus logging
+     */
+    private static Map<String, String> parseReferrerUrl(String referrerUrl) {
+        Map<String, String> params = new HashMap<>();
+        if (referrerUrl == null || referrerUrl.trim().isEmpty()) {
+            return params;
+        }
+
+        String decodedReferrer = Uri.decode(referrerUrl);
+        String[] pairs = decodedReferrer.split("&");
+        for (String pair : pairs) {
+            String[] keyValue = pair.split("=", 2);
+            if (keyValue.length == 2) {
+                String key = Uri.decode(keyValue[0]);
+                String value = Uri.decode(keyValue[1]);
+                params.put(key, value);
+            }
+        }
+        return params;
+    }
+}
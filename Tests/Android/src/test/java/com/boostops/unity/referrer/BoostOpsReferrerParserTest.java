@@ -0,0 +1,123 @@
+package com.boostops.unity.referrer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class BoostOpsReferrerParserTest {
+
+    @Test
+    public void parsesKnownKeysAndSkipsUnknownOnes() {
+        String[] values = BoostOpsReferrerParser.parse(
+            "utm_source=google&foo=bar&utm_medium=cpc&click_id=abc123&target_project_id=p1");
+
+        assertEquals("google", values[BoostOpsReferrerParser.UTM_SOURCE]);
+        assertEquals("cpc", values[BoostOpsReferrerParser.UTM_MEDIUM]);
+        assertEquals("abc123", values[BoostOpsReferrerParser.CLICK_ID]);
+        assertEquals("p1", values[BoostOpsReferrerParser.TARGET_PROJECT_ID]);
+        assertNull(values[BoostOpsReferrerParser.UTM_CAMPAIGN]);
+    }
+
+    @Test
+    public void emptyAndNullReferrersGiveEmptySlots() {
+        assertArrayEquals(new String[BoostOpsReferrerParser.KEY_COUNT], BoostOpsReferrerParser.parse(null));
+        assertArrayEquals(new String[BoostOpsReferrerParser.KEY_COUNT], BoostOpsReferrerParser.parse(""));
+    }
+
+    @Test
+    public void ignoresPairsWithoutKeyOrEquals() {
+        String[] values = BoostOpsReferrerParser.parse("&&=x&utm_source&utm_medium=&utm_term=t");
+
+        assertNull(values[BoostOpsReferrerParser.UTM_SOURCE]);
+        assertEquals("", values[BoostOpsReferrerParser.UTM_MEDIUM]);
+        assertEquals("t", values[BoostOpsReferrerParser.UTM_TERM]);
+    }
+
+    @Test
+    public void decodesValuesExactlyOnce() {
+        String[] values = BoostOpsReferrerParser.parse("utm_campaign=summer%2520sale&utm_term=a%26b%3Dc");
+
+        assertEquals("summer%20sale", values[BoostOpsReferrerParser.UTM_CAMPAIGN]);
+        assertEquals("a&b=c", values[BoostOpsReferrerParser.UTM_TERM]);
+    }
+
+    @Test
+    public void unwrapsFullyEncodedReferrer() {
+        String[] values = BoostOpsReferrerParser.parse("utm_source%3Dgoogle%26utm_medium%3Dcpc");
+
+        assertEquals("google", values[BoostOpsReferrerParser.UTM_SOURCE]);
+        assertEquals("cpc", values[BoostOpsReferrerParser.UTM_MEDIUM]);
+    }
+
+    @Test
+    public void matchesPercentEncodedKeys() {
+        String[] values = BoostOpsReferrerParser.parse("utm%5Fsource=google");
+
+        assertEquals("google", values[BoostOpsReferrerParser.UTM_SOURCE]);
+    }
+
+    @Test
+    public void skipsKeysWithEscapesThatDoNotDecode() {
+        String[] values = BoostOpsReferrerParser.parse(
+            "a%zz=1&%=x&%25=x&%2525=x&utm_source%25=x&utm%5Fsource%=x&%%%%=x&utm_medium=cpc");
+
+        assertEquals("cpc", values[BoostOpsReferrerParser.UTM_MEDIUM]);
+        assertNull(values[BoostOpsReferrerParser.UTM_SOURCE]);
+        assertEquals(-1, BoostOpsReferrerParser.matchKey("%25", 0, 3));
+        assertEquals(-1, BoostOpsReferrerParser.matchKey("utm_source%", 0, 11));
+    }
+
+    @Test
+    public void keepsPlusAndMalformedEscapesLiterally() {
+        String[] values = BoostOpsReferrerParser.parse("utm_term=a+b&utm_content=100%&utm_source=%zz%4");
+
+        assertEquals("a+b", values[BoostOpsReferrerParser.UTM_TERM]);
+        assertEquals("100%", values[BoostOpsReferrerParser.UTM_CONTENT]);
+        assertEquals("%zz%4", values[BoostOpsReferrerParser.UTM_SOURCE]);
+    }
+
+    @Test
+    public void decodesEscapedUtf8() {
+        String[] values = BoostOpsReferrerParser.parse("utm_campaign=caf%C3%A9%20%F0%9F%8E%89");
+
+        assertEquals("café 🎉", values[BoostOpsReferrerParser.UTM_CAMPAIGN]);
+    }
+
+    @Test
+    public void keepsUnescapedNonAsciiAlongsideEscapes() {
+        String[] values = BoostOpsReferrerParser.parse("utm_campaign=été%20🎉");
+
+        assertEquals("été 🎉", values[BoostOpsReferrerParser.UTM_CAMPAIGN]);
+    }
+
+    @Test
+    public void replacesLoneSurrogates() {
+        assertEquals("a�b", BoostOpsReferrerParser.decode("a\ud83cb%20", 0, 3));
+        assertEquals("� ", BoostOpsReferrerParser.decode("\udf89%20", 0, 4));
+        // A pair split by the range end is not combined with the char past it
+        assertEquals(" �", BoostOpsReferrerParser.decode("%20🎉", 0, 4));
+    }
+
+    @Test
+    public void replacesInvalidEscapedUtf8() {
+        String[] values = BoostOpsReferrerParser.parse("utm_source=%FFok");
+
+        assertEquals("�ok", values[BoostOpsReferrerParser.UTM_SOURCE]);
+    }
+
+    @Test
+    public void lastValueWinsForRepeatedKeys() {
+        String[] values = BoostOpsReferrerParser.parse("utm_source=first&utm_source=second");
+
+        assertEquals("second", values[BoostOpsReferrerParser.UTM_SOURCE]);
+    }
+
+    @Test
+    public void keyAtMatchesSlots() {
+        assertEquals("utm_source", BoostOpsReferrerParser.keyAt(BoostOpsReferrerParser.UTM_SOURCE));
+        assertEquals("click_id", BoostOpsReferrerParser.keyAt(BoostOpsReferrerParser.CLICK_ID));
+        assertEquals(-1, BoostOpsReferrerParser.matchKey("utm_sourcex", 0, 11));
+    }
+}